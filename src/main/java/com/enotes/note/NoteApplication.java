@@ -1,13 +1,16 @@
 package com.enotes.note;
 
+import com.enotes.note.application.authentication.AuthenticationProperties;
 import com.enotes.note.application.authentication.StoreConfigProperties;
+import com.enotes.note.application.notes.NotesRepositoryProperties;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties({StoreConfigProperties.class})
+@EnableConfigurationProperties({StoreConfigProperties.class, NotesRepositoryProperties.class,
+    AuthenticationProperties.class})
 public class NoteApplication {
   public static void main(String[] args) {
     SpringApplication.run(NoteApplication.class, args);
@@ -1,29 +1,133 @@
 package com.enotes.note.application.authentication;
 
 import com.enotes.note.repository.authentication.InMemoryUserRepository;
+import com.enotes.note.repository.authentication.RefreshSessions;
+import com.enotes.note.repository.authentication.ReservingUserRepository;
+import com.enotes.note.repository.authentication.RevokedTokens;
 import com.enotes.note.repository.authentication.UserRepository;
 import com.enotes.note.service.authentication.AuthenticationService;
+import com.enotes.note.service.authentication.TokenIntrospector;
+import com.enotes.note.service.authentication.util.AuthenticationRateLimiter;
+import com.enotes.note.service.authentication.util.JsonWebKeySet;
 import com.enotes.note.service.authentication.util.JwtTokenProvider;
+import com.enotes.note.service.authentication.util.KeyMaterial;
+import com.enotes.note.service.authentication.util.PasswordHasher;
+import com.enotes.note.service.authentication.util.SecurityEvents;
+import com.enotes.note.service.authentication.util.TokenBucketRateLimiter;
 import com.enotes.note.service.authentication.util.TokenProvider;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class AuthenticationConfig {
 
   @Bean
-  public AuthenticationService getAuthenticationService(UserRepository userRepository, TokenProvider tokenProvider) {
-    return new AuthenticationService(userRepository, tokenProvider);
+  public AuthenticationService getAuthenticationService(UserRepository userRepository, TokenProvider tokenProvider,
+      PasswordHasher passwordHasher, RevokedTokens revokedTokens, RefreshSessions refreshSessions,
+      AuthenticationProperties authenticationProperties) {
+    final ReservingUserRepository reservingUserRepository = new ReservingUserRepository(userRepository,
+        authenticationProperties.getExpectedUsers());
+
+    return new AuthenticationService.Builder(reservingUserRepository, tokenProvider)
+        .withPasswordHasher(passwordHasher)
+        .withUserNameReservations(reservingUserRepository)
+        .withRevokedTokens(revokedTokens)
+        .withRefreshSessions(refreshSessions)
+        .build();
   }
 
   @Bean
-  public TokenProvider getTokenProvider(StoreConfigProperties storeConfigProperties) {
-    return new JwtTokenProvider(storeConfigProperties);
+  public TokenIntrospector getTokenIntrospector(TokenProvider tokenProvider, UserRepository userRepository,
+      RevokedTokens revokedTokens, RefreshSessions refreshSessions, AuthenticationProperties authenticationProperties) {
+    return new TokenIntrospector.Builder(tokenProvider)
+        .withUserRepository(userRepository)
+        .withRevokedTokens(revokedTokens)
+        .withRefreshSessions(refreshSessions)
+        .withThreads(authenticationProperties.getIntrospectionThreads())
+        .withQueueSize(authenticationProperties.getIntrospectionQueueSize())
+        .withMaxBatchSize(authenticationProperties.getIntrospectionMaxBatchSize())
+        .build();
+  }
+
+  @Bean
+  public RefreshSessions getRefreshSessions(AuthenticationProperties authenticationProperties) {
+    return new RefreshSessions(authenticationProperties.getMaxSessionsPerUser());
+  }
+
+  @Bean
+  public MeterBinder getRefreshSessionsMetrics(RefreshSessions refreshSessions) {
+    return registry -> Gauge.builder("authentication.sessions.size", refreshSessions, RefreshSessions::getSize)
+        .description("Signed in sessions holding a refresh token")
+        .register(registry);
+  }
+
+  @Bean
+  public PasswordHasher getPasswordHasher(AuthenticationProperties authenticationProperties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    // the registry is looked up on the first check, it binds the metrics of the hasher hence cannot be created before it
+    return new PasswordHasher.Builder()
+        .withThreads(authenticationProperties.getPasswordHashingThreads())
+        .withQueueSize(authenticationProperties.getPasswordHashingQueueSize())
+        .withWorkload(authenticationProperties.getPasswordWorkload())
+        .withTargetHashMillis(authenticationProperties.getPasswordHashTargetMillis())
+        .withCheckListener((workload, nanos) -> meterRegistry.ifAvailable(registry ->
+            Timer.builder("authentication.password.check")
+                .description("Time to check a password against its hash, by BCrypt workload of the hash")
+                .tag("workload", String.valueOf(workload))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS)))
+        .build();
+  }
+
+  @Bean
+  public MeterBinder getPasswordHasherMetrics(PasswordHasher passwordHasher) {
+    return registry -> {
+      Gauge.builder("authentication.password.workload", passwordHasher, PasswordHasher::getWorkload)
+          .description("BCrypt workload new passwords are hashed with")
+          .register(registry);
+      TimeGauge.builder("authentication.password.calibration.time", passwordHasher, TimeUnit.MILLISECONDS,
+          PasswordHasher::getCalibratedHashMillis)
+          .description("Expected time to hash a password at the workload calibrated on startup")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public AuthenticationRateLimiter getAuthenticationRateLimiter(AuthenticationProperties authenticationProperties) {
+    return new AuthenticationRateLimiter(
+        createRateLimiter(authenticationProperties.getAddressRateLimitPerMinute(),
+            authenticationProperties.getAddressRateLimitBurst(), authenticationProperties.getRateLimitMaxKeys()),
+        createRateLimiter(authenticationProperties.getUserRateLimitPerMinute(),
+            authenticationProperties.getUserRateLimitBurst(), authenticationProperties.getRateLimitMaxKeys()),
+        createRateLimiter(authenticationProperties.getIntrospectionRateLimitPerMinute(),
+            authenticationProperties.getIntrospectionRateLimitBurst(), authenticationProperties.getRateLimitMaxKeys()));
+  }
+
+  @Bean
+  public JsonWebKeySet getJsonWebKeySet(KeyMaterial keyMaterial) {
+    return new JsonWebKeySet(keyMaterial);
+  }
+
+  @Bean
+  public TokenProvider getTokenProvider(KeyMaterial keyMaterial, SecurityEvents securityEvents) {
+    return new JwtTokenProvider(keyMaterial, securityEvents);
   }
 
   @Bean
   public UserRepository getUserRepository() {
     return new InMemoryUserRepository();
   }
+
+  private static TokenBucketRateLimiter createRateLimiter(int permitsPerMinute, int burst, int maxKeys) {
+    return permitsPerMinute > 0 ? new TokenBucketRateLimiter(permitsPerMinute, burst, maxKeys) : null;
+  }
 }
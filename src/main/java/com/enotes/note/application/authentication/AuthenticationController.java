@@ -5,6 +5,7 @@ import com.enotes.note.service.authentication.AuthenticationService;
 import com.enotes.note.service.authentication.AuthenticationToken;
 import com.enotes.note.service.authentication.User;
 import com.enotes.note.service.authentication.UserStatus;
+import com.enotes.note.service.authentication.util.AuthenticationRateLimiter;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -12,6 +13,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping(PathBuilder.AUTHENTICATION)
 public class AuthenticationController {
@@ -22,20 +27,33 @@ public class AuthenticationController {
   public static final String TOKEN = "token";
 
   private final AuthenticationService authenticationService;
+  private final AuthenticationRateLimiter authenticationRateLimiter;
 
   @Autowired
-  public AuthenticationController(AuthenticationService authenticationService) {
+  public AuthenticationController(AuthenticationService authenticationService,
+      AuthenticationRateLimiter authenticationRateLimiter) {
     this.authenticationService = authenticationService;
+    this.authenticationRateLimiter = authenticationRateLimiter;
   }
 
+  /**
+   * Answered asynchronously, the request thread is released while the password is hashed
+   */
   @PostMapping(SIGNUP)
-  public AuthenticationToken signUp(@RequestBody User user) {
-    return authenticationService.signUp(user);
+  public CompletableFuture<AuthenticationToken> signUp(@RequestBody User user, HttpServletRequest request) {
+    authenticationRateLimiter.acquire(user.getUserName(), request.getRemoteAddr());
+
+    return authenticationService.signUpAsync(user);
   }
 
+  /**
+   * Answered asynchronously, the request thread is released while the password is checked
+   */
   @PostMapping(SIGNIN)
-  public AuthenticationToken signIn(@RequestBody User user) {
-    return authenticationService.signIn(user);
+  public CompletableFuture<AuthenticationToken> signIn(@RequestBody User user, HttpServletRequest request) {
+    authenticationRateLimiter.acquire(user.getUserName(), request.getRemoteAddr());
+
+    return authenticationService.signInAsync(user);
   }
 
   @PostMapping(SIGNOUT)
@@ -0,0 +1,382 @@
+package com.enotes.note.application.authentication;
+
+import com.enotes.note.service.authentication.util.Password;
+import com.enotes.note.service.authentication.util.SecurityEvents;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "authentication")
+public class AuthenticationProperties {
+
+  private int tokenCacheSize = 10_000;
+  private long tokenCacheTtlMillis = 5 * 60 * 1000;
+  private int passwordHashingThreads = Runtime.getRuntime().availableProcessors();
+  private int passwordHashingQueueSize = 64;
+  private int passwordWorkload = Password.DEFAULT_WORKLOAD;
+  private long passwordHashTargetMillis;
+  private int expectedUsers = 1_000_000;
+  private int addressRateLimitPerMinute = 60;
+  private int addressRateLimitBurst = 30;
+  private int userRateLimitPerMinute = 10;
+  private int userRateLimitBurst = 5;
+  private int rateLimitMaxKeys = 100_000;
+  private int expectedRevocations = 10_000;
+  private int maxSessionsPerUser = 10;
+  private long keySetMaxAgeSeconds = 300;
+  private int introspectionThreads = Runtime.getRuntime().availableProcessors();
+  private int introspectionQueueSize = 64;
+  private int introspectionMaxBatchSize = 1_000;
+  private int introspectionRateLimitPerMinute = 60_000;
+  private int introspectionRateLimitBurst = 2_000;
+  private long securityLogIntervalMillis = SecurityEvents.DEFAULT_LOG_INTERVAL_MILLIS;
+
+  public AuthenticationProperties() {
+    //do nothing
+  }
+
+  private AuthenticationProperties(final Builder builder) {
+    this.tokenCacheSize = builder.tokenCacheSize;
+    this.tokenCacheTtlMillis = builder.tokenCacheTtlMillis;
+    this.passwordHashingThreads = builder.passwordHashingThreads;
+    this.passwordHashingQueueSize = builder.passwordHashingQueueSize;
+    this.passwordWorkload = builder.passwordWorkload;
+    this.passwordHashTargetMillis = builder.passwordHashTargetMillis;
+    this.expectedUsers = builder.expectedUsers;
+    this.addressRateLimitPerMinute = builder.addressRateLimitPerMinute;
+    this.addressRateLimitBurst = builder.addressRateLimitBurst;
+    this.userRateLimitPerMinute = builder.userRateLimitPerMinute;
+    this.userRateLimitBurst = builder.userRateLimitBurst;
+    this.rateLimitMaxKeys = builder.rateLimitMaxKeys;
+    this.expectedRevocations = builder.expectedRevocations;
+    this.maxSessionsPerUser = builder.maxSessionsPerUser;
+    this.keySetMaxAgeSeconds = builder.keySetMaxAgeSeconds;
+    this.introspectionThreads = builder.introspectionThreads;
+    this.introspectionQueueSize = builder.introspectionQueueSize;
+    this.introspectionMaxBatchSize = builder.introspectionMaxBatchSize;
+    this.introspectionRateLimitPerMinute = builder.introspectionRateLimitPerMinute;
+    this.introspectionRateLimitBurst = builder.introspectionRateLimitBurst;
+    this.securityLogIntervalMillis = builder.securityLogIntervalMillis;
+  }
+
+  public int getTokenCacheSize() {
+    return tokenCacheSize;
+  }
+
+  public long getTokenCacheTtlMillis() {
+    return tokenCacheTtlMillis;
+  }
+
+  public int getPasswordHashingThreads() {
+    return passwordHashingThreads;
+  }
+
+  public int getPasswordHashingQueueSize() {
+    return passwordHashingQueueSize;
+  }
+
+  public int getPasswordWorkload() {
+    return passwordWorkload;
+  }
+
+  public long getPasswordHashTargetMillis() {
+    return passwordHashTargetMillis;
+  }
+
+  public int getExpectedUsers() {
+    return expectedUsers;
+  }
+
+  public int getAddressRateLimitPerMinute() {
+    return addressRateLimitPerMinute;
+  }
+
+  public int getAddressRateLimitBurst() {
+    return addressRateLimitBurst;
+  }
+
+  public int getUserRateLimitPerMinute() {
+    return userRateLimitPerMinute;
+  }
+
+  public int getUserRateLimitBurst() {
+    return userRateLimitBurst;
+  }
+
+  public int getRateLimitMaxKeys() {
+    return rateLimitMaxKeys;
+  }
+
+  public int getExpectedRevocations() {
+    return expectedRevocations;
+  }
+
+  public int getMaxSessionsPerUser() {
+    return maxSessionsPerUser;
+  }
+
+  public long getKeySetMaxAgeSeconds() {
+    return keySetMaxAgeSeconds;
+  }
+
+  public int getIntrospectionThreads() {
+    return introspectionThreads;
+  }
+
+  public int getIntrospectionQueueSize() {
+    return introspectionQueueSize;
+  }
+
+  public int getIntrospectionMaxBatchSize() {
+    return introspectionMaxBatchSize;
+  }
+
+  public int getIntrospectionRateLimitPerMinute() {
+    return introspectionRateLimitPerMinute;
+  }
+
+  public int getIntrospectionRateLimitBurst() {
+    return introspectionRateLimitBurst;
+  }
+
+  public long getSecurityLogIntervalMillis() {
+    return securityLogIntervalMillis;
+  }
+
+  public void setTokenCacheSize(final int tokenCacheSize) {
+    this.tokenCacheSize = tokenCacheSize;
+  }
+
+  public void setTokenCacheTtlMillis(final long tokenCacheTtlMillis) {
+    this.tokenCacheTtlMillis = tokenCacheTtlMillis;
+  }
+
+  public void setPasswordHashingThreads(final int passwordHashingThreads) {
+    this.passwordHashingThreads = passwordHashingThreads;
+  }
+
+  public void setPasswordHashingQueueSize(final int passwordHashingQueueSize) {
+    this.passwordHashingQueueSize = passwordHashingQueueSize;
+  }
+
+  public void setPasswordWorkload(final int passwordWorkload) {
+    this.passwordWorkload = passwordWorkload;
+  }
+
+  public void setPasswordHashTargetMillis(final long passwordHashTargetMillis) {
+    this.passwordHashTargetMillis = passwordHashTargetMillis;
+  }
+
+  public void setExpectedUsers(final int expectedUsers) {
+    this.expectedUsers = expectedUsers;
+  }
+
+  public void setAddressRateLimitPerMinute(final int addressRateLimitPerMinute) {
+    this.addressRateLimitPerMinute = addressRateLimitPerMinute;
+  }
+
+  public void setAddressRateLimitBurst(final int addressRateLimitBurst) {
+    this.addressRateLimitBurst = addressRateLimitBurst;
+  }
+
+  public void setUserRateLimitPerMinute(final int userRateLimitPerMinute) {
+    this.userRateLimitPerMinute = userRateLimitPerMinute;
+  }
+
+  public void setUserRateLimitBurst(final int userRateLimitBurst) {
+    this.userRateLimitBurst = userRateLimitBurst;
+  }
+
+  public void setRateLimitMaxKeys(final int rateLimitMaxKeys) {
+    this.rateLimitMaxKeys = rateLimitMaxKeys;
+  }
+
+  public void setExpectedRevocations(final int expectedRevocations) {
+    this.expectedRevocations = expectedRevocations;
+  }
+
+  public void setMaxSessionsPerUser(final int maxSessionsPerUser) {
+    this.maxSessionsPerUser = maxSessionsPerUser;
+  }
+
+  public void setKeySetMaxAgeSeconds(final long keySetMaxAgeSeconds) {
+    this.keySetMaxAgeSeconds = keySetMaxAgeSeconds;
+  }
+
+  public void setIntrospectionThreads(final int introspectionThreads) {
+    this.introspectionThreads = introspectionThreads;
+  }
+
+  public void setIntrospectionQueueSize(final int introspectionQueueSize) {
+    this.introspectionQueueSize = introspectionQueueSize;
+  }
+
+  public void setIntrospectionMaxBatchSize(final int introspectionMaxBatchSize) {
+    this.introspectionMaxBatchSize = introspectionMaxBatchSize;
+  }
+
+  public void setIntrospectionRateLimitPerMinute(final int introspectionRateLimitPerMinute) {
+    this.introspectionRateLimitPerMinute = introspectionRateLimitPerMinute;
+  }
+
+  public void setIntrospectionRateLimitBurst(final int introspectionRateLimitBurst) {
+    this.introspectionRateLimitBurst = introspectionRateLimitBurst;
+  }
+
+  public void setSecurityLogIntervalMillis(final long securityLogIntervalMillis) {
+    this.securityLogIntervalMillis = securityLogIntervalMillis;
+  }
+
+  public static class Builder {
+    private int tokenCacheSize = 10_000;
+    private long tokenCacheTtlMillis = 5 * 60 * 1000;
+    private int passwordHashingThreads = Runtime.getRuntime().availableProcessors();
+    private int passwordHashingQueueSize = 64;
+    private int passwordWorkload = Password.DEFAULT_WORKLOAD;
+    private long passwordHashTargetMillis;
+    private int expectedUsers = 1_000_000;
+    private int addressRateLimitPerMinute = 60;
+    private int addressRateLimitBurst = 30;
+    private int userRateLimitPerMinute = 10;
+    private int userRateLimitBurst = 5;
+    private int rateLimitMaxKeys = 100_000;
+    private int expectedRevocations = 10_000;
+    private int maxSessionsPerUser = 10;
+    private long keySetMaxAgeSeconds = 300;
+    private int introspectionThreads = Runtime.getRuntime().availableProcessors();
+    private int introspectionQueueSize = 64;
+    private int introspectionMaxBatchSize = 1_000;
+    private int introspectionRateLimitPerMinute = 60_000;
+    private int introspectionRateLimitBurst = 2_000;
+    private long securityLogIntervalMillis = SecurityEvents.DEFAULT_LOG_INTERVAL_MILLIS;
+
+    public Builder withTokenCacheSize(int tokenCacheSize) {
+      this.tokenCacheSize = tokenCacheSize;
+
+      return this;
+    }
+
+    public Builder withTokenCacheTtlMillis(long tokenCacheTtlMillis) {
+      this.tokenCacheTtlMillis = tokenCacheTtlMillis;
+
+      return this;
+    }
+
+    public Builder withPasswordHashingThreads(int passwordHashingThreads) {
+      this.passwordHashingThreads = passwordHashingThreads;
+
+      return this;
+    }
+
+    public Builder withPasswordHashingQueueSize(int passwordHashingQueueSize) {
+      this.passwordHashingQueueSize = passwordHashingQueueSize;
+
+      return this;
+    }
+
+    public Builder withPasswordWorkload(int passwordWorkload) {
+      this.passwordWorkload = passwordWorkload;
+
+      return this;
+    }
+
+    public Builder withPasswordHashTargetMillis(long passwordHashTargetMillis) {
+      this.passwordHashTargetMillis = passwordHashTargetMillis;
+
+      return this;
+    }
+
+    public Builder withExpectedUsers(int expectedUsers) {
+      this.expectedUsers = expectedUsers;
+
+      return this;
+    }
+
+    public Builder withAddressRateLimitPerMinute(int addressRateLimitPerMinute) {
+      this.addressRateLimitPerMinute = addressRateLimitPerMinute;
+
+      return this;
+    }
+
+    public Builder withAddressRateLimitBurst(int addressRateLimitBurst) {
+      this.addressRateLimitBurst = addressRateLimitBurst;
+
+      return this;
+    }
+
+    public Builder withUserRateLimitPerMinute(int userRateLimitPerMinute) {
+      this.userRateLimitPerMinute = userRateLimitPerMinute;
+
+      return this;
+    }
+
+    public Builder withUserRateLimitBurst(int userRateLimitBurst) {
+      this.userRateLimitBurst = userRateLimitBurst;
+
+      return this;
+    }
+
+    public Builder withRateLimitMaxKeys(int rateLimitMaxKeys) {
+      this.rateLimitMaxKeys = rateLimitMaxKeys;
+
+      return this;
+    }
+
+    public Builder withExpectedRevocations(int expectedRevocations) {
+      this.expectedRevocations = expectedRevocations;
+
+      return this;
+    }
+
+    public Builder withMaxSessionsPerUser(int maxSessionsPerUser) {
+      this.maxSessionsPerUser = maxSessionsPerUser;
+
+      return this;
+    }
+
+    public Builder withKeySetMaxAgeSeconds(long keySetMaxAgeSeconds) {
+      this.keySetMaxAgeSeconds = keySetMaxAgeSeconds;
+
+      return this;
+    }
+
+    public Builder withIntrospectionThreads(int introspectionThreads) {
+      this.introspectionThreads = introspectionThreads;
+
+      return this;
+    }
+
+    public Builder withIntrospectionQueueSize(int introspectionQueueSize) {
+      this.introspectionQueueSize = introspectionQueueSize;
+
+      return this;
+    }
+
+    public Builder withIntrospectionMaxBatchSize(int introspectionMaxBatchSize) {
+      this.introspectionMaxBatchSize = introspectionMaxBatchSize;
+
+      return this;
+    }
+
+    public Builder withIntrospectionRateLimitPerMinute(int introspectionRateLimitPerMinute) {
+      this.introspectionRateLimitPerMinute = introspectionRateLimitPerMinute;
+
+      return this;
+    }
+
+    public Builder withIntrospectionRateLimitBurst(int introspectionRateLimitBurst) {
+      this.introspectionRateLimitBurst = introspectionRateLimitBurst;
+
+      return this;
+    }
+
+    public Builder withSecurityLogIntervalMillis(long securityLogIntervalMillis) {
+      this.securityLogIntervalMillis = securityLogIntervalMillis;
+
+      return this;
+    }
+
+    public AuthenticationProperties build() {
+      return new AuthenticationProperties(this);
+    }
+  }
+}
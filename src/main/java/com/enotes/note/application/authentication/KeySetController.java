@@ -0,0 +1,47 @@
+package com.enotes.note.application.authentication;
+
+import com.enotes.note.service.authentication.util.JsonWebKeySet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the public keys verifying access tokens so that other services verify the tokens on their own
+ */
+@RestController
+public class KeySetController {
+
+  public static final String WELL_KNOWN = ".well-known";
+  public static final String JWKS = WELL_KNOWN + "/jwks.json";
+
+  private final JsonWebKeySet jsonWebKeySet;
+  private final CacheControl cacheControl;
+
+  @Autowired
+  public KeySetController(JsonWebKeySet jsonWebKeySet, AuthenticationProperties authenticationProperties) {
+    this.jsonWebKeySet = jsonWebKeySet;
+    this.cacheControl = CacheControl.maxAge(authenticationProperties.getKeySetMaxAgeSeconds(), TimeUnit.SECONDS)
+        .cachePublic();
+  }
+
+  /**
+   * The key set is serialized once per set of keys. Requests whose If-None-Match matches its entity tag are answered
+   * with 304 by Spring, without a body
+   */
+  @GetMapping(path = JWKS, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getKeySet() {
+    final JsonWebKeySet.Document document = jsonWebKeySet.getDocument();
+
+    return ResponseEntity.ok()
+        .eTag(document.getEntityTag())
+        .cacheControl(cacheControl)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(document.getJson());
+  }
+}
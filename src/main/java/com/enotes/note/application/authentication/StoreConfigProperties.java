@@ -1,5 +1,6 @@
 package com.enotes.note.application.authentication;
 
+import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "store")
@@ -8,6 +9,9 @@ public class StoreConfigProperties {
   private String location;
   private String pwd;
   private String keyPwd;
+  private SignatureAlgorithm accessTokenAlgorithm = SignatureAlgorithm.RS256;
+  private SignatureAlgorithm refreshTokenAlgorithm = SignatureAlgorithm.HS512;
+  private long reloadIntervalMillis = 10_000;
 
   public StoreConfigProperties() {
     //do nothing
@@ -17,6 +21,9 @@ public class StoreConfigProperties {
     this.location = builder.location;
     this.pwd = builder.pwd;
     this.keyPwd = builder.keyPwd;
+    this.accessTokenAlgorithm = builder.accessTokenAlgorithm;
+    this.refreshTokenAlgorithm = builder.refreshTokenAlgorithm;
+    this.reloadIntervalMillis = builder.reloadIntervalMillis;
   }
 
   public String getLocation() {
@@ -31,6 +38,18 @@ public class StoreConfigProperties {
     return keyPwd;
   }
 
+  public SignatureAlgorithm getAccessTokenAlgorithm() {
+    return accessTokenAlgorithm;
+  }
+
+  public SignatureAlgorithm getRefreshTokenAlgorithm() {
+    return refreshTokenAlgorithm;
+  }
+
+  public long getReloadIntervalMillis() {
+    return reloadIntervalMillis;
+  }
+
   public void setLocation(final String location) {
     this.location = location;
   }
@@ -43,10 +62,25 @@ public class StoreConfigProperties {
     this.keyPwd = keyPwd;
   }
 
+  public void setAccessTokenAlgorithm(final SignatureAlgorithm accessTokenAlgorithm) {
+    this.accessTokenAlgorithm = accessTokenAlgorithm;
+  }
+
+  public void setRefreshTokenAlgorithm(final SignatureAlgorithm refreshTokenAlgorithm) {
+    this.refreshTokenAlgorithm = refreshTokenAlgorithm;
+  }
+
+  public void setReloadIntervalMillis(final long reloadIntervalMillis) {
+    this.reloadIntervalMillis = reloadIntervalMillis;
+  }
+
   public static class Builder {
     private String location;
     private String pwd;
     private String keyPwd;
+    private SignatureAlgorithm accessTokenAlgorithm = SignatureAlgorithm.RS256;
+    private SignatureAlgorithm refreshTokenAlgorithm = SignatureAlgorithm.HS512;
+    private long reloadIntervalMillis = 10_000;
 
     public Builder withLocation(String location) {
       this.location = location;
@@ -66,6 +100,24 @@ public class StoreConfigProperties {
       return this;
     }
 
+    public Builder withAccessTokenAlgorithm(SignatureAlgorithm accessTokenAlgorithm) {
+      this.accessTokenAlgorithm = accessTokenAlgorithm;
+
+      return this;
+    }
+
+    public Builder withRefreshTokenAlgorithm(SignatureAlgorithm refreshTokenAlgorithm) {
+      this.refreshTokenAlgorithm = refreshTokenAlgorithm;
+
+      return this;
+    }
+
+    public Builder withReloadIntervalMillis(long reloadIntervalMillis) {
+      this.reloadIntervalMillis = reloadIntervalMillis;
+
+      return this;
+    }
+
     public StoreConfigProperties build() {
       return new StoreConfigProperties(this);
     }
@@ -0,0 +1,50 @@
+package com.enotes.note.application.authentication;
+
+import com.enotes.note.application.PathBuilder;
+import com.enotes.note.service.authentication.TokenBatch;
+import com.enotes.note.service.authentication.TokenBatchIntrospection;
+import com.enotes.note.service.authentication.TokenIntrospector;
+import com.enotes.note.service.authentication.util.AuthenticationRateLimiter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Checks batches of tokens for the services that cannot verify the tokens on their own
+ */
+@RestController
+@RequestMapping(PathBuilder.AUTHENTICATION)
+public class TokenIntrospectionController {
+
+  public static final String INTROSPECT = "introspect";
+
+  private final TokenIntrospector tokenIntrospector;
+  private final AuthenticationRateLimiter authenticationRateLimiter;
+
+  @Autowired
+  public TokenIntrospectionController(TokenIntrospector tokenIntrospector,
+      AuthenticationRateLimiter authenticationRateLimiter) {
+    this.tokenIntrospector = tokenIntrospector;
+    this.authenticationRateLimiter = authenticationRateLimiter;
+  }
+
+  /**
+   * Answered asynchronously, the request thread is released while the tokens are verified. Every token of the batch
+   * counts against the rate of the client address
+   */
+  @PostMapping(INTROSPECT)
+  public CompletableFuture<TokenBatchIntrospection> introspect(@RequestBody TokenBatch tokenBatch,
+      HttpServletRequest request) {
+    authenticationRateLimiter.acquireIntrospection(request.getRemoteAddr(),
+        tokenBatch.getAccessTokens().size() + tokenBatch.getRefreshTokens().size());
+
+    return tokenIntrospector.introspect(tokenBatch);
+  }
+}
@@ -1,5 +1,8 @@
 package com.enotes.note.application.exception;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -8,19 +11,65 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-public abstract class AbstractExceptionHandler extends ResponseEntityExceptionHandler {
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers an exception with its message and the status of the handler.
+ *
+ * <p>Only internal errors are logged with their stack trace. Every other answer is an expected outcome, such as a
+ * missing note or wrong credentials, counted per handler in the {@code http.server.errors} counter and logged at debug
+ * without a stack trace, so that frequent client errors cost little more than a successful request.
+ */
+public abstract class AbstractExceptionHandler extends ResponseEntityExceptionHandler implements MeterBinder {
 
   private static final Logger LOGGER = LoggerFactory.getLogger("HTTP");
 
+  private static final String HANDLER_SUFFIX = "Handler";
+
+  private final LongAdder errors = new LongAdder();
 
   protected ResponseEntity<Object> handleConflict(
       RuntimeException ex, WebRequest request) {
-    LOGGER.error("error occurred", ex);
+    errors.increment();
+    if (getResponseStatus() == HttpStatus.INTERNAL_SERVER_ERROR) {
+      LOGGER.error("error occurred", ex);
+    } else if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("{} {}: {}", getResponseStatus().value(), getErrorCode(), ex.getMessage());
+    }
 
     String message = ex.getMessage() == null ? "" : ex.getMessage();
 
-    return handleExceptionInternal(ex, message, new HttpHeaders(), getResponseStatus(), request);
+    return handleExceptionInternal(ex, message, getHeaders(ex), getResponseStatus(), request);
   }
 
   public abstract HttpStatus getResponseStatus();
+
+  protected HttpHeaders getHeaders(RuntimeException ex) {
+    return new HttpHeaders();
+  }
+
+  /**
+   * @return the name the answers of this handler are counted under, the name of the handler without its suffix
+   */
+  protected String getErrorCode() {
+    final String name = getClass().getSimpleName();
+
+    return name.endsWith(HANDLER_SUFFIX) ? name.substring(0, name.length() - HANDLER_SUFFIX.length()) : name;
+  }
+
+  /**
+   * @return the number of exceptions answered by this handler
+   */
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    FunctionCounter.builder("http.server.errors", this, AbstractExceptionHandler::getErrors)
+        .description("Requests answered with an error, by status and error code")
+        .tag("status", String.valueOf(getResponseStatus().value()))
+        .tag("code", getErrorCode())
+        .register(registry);
+  }
 }
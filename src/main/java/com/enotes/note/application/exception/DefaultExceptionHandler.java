@@ -24,4 +24,9 @@ public class DefaultExceptionHandler extends AbstractExceptionHandler {
   public HttpStatus getResponseStatus() {
     return HttpStatus.INTERNAL_SERVER_ERROR;
   }
+
+  @Override
+  protected String getErrorCode() {
+    return "UnhandledException";
+  }
 }
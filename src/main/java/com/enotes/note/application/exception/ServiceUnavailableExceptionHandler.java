@@ -0,0 +1,38 @@
+package com.enotes.note.application.exception;
+
+import com.enotes.note.service.ServiceUnavailableException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.WebRequest;
+
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceUnavailableExceptionHandler extends AbstractExceptionHandler {
+
+  static final String RETRY_AFTER_SECONDS = "1";
+
+  @ExceptionHandler(value = {ServiceUnavailableException.class})
+  protected ResponseEntity<Object> handleConflict(
+      RuntimeException ex, WebRequest request) {
+    return super.handleConflict(ex, request);
+  }
+
+  @Override
+  public HttpStatus getResponseStatus() {
+    return HttpStatus.SERVICE_UNAVAILABLE;
+  }
+
+  @Override
+  protected HttpHeaders getHeaders(RuntimeException ex) {
+    final HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+
+    return headers;
+  }
+}
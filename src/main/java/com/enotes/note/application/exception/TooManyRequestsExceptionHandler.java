@@ -0,0 +1,36 @@
+package com.enotes.note.application.exception;
+
+import com.enotes.note.service.TooManyRequestsException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.WebRequest;
+
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TooManyRequestsExceptionHandler extends AbstractExceptionHandler {
+
+  @ExceptionHandler(value = {TooManyRequestsException.class})
+  protected ResponseEntity<Object> handleConflict(
+      RuntimeException ex, WebRequest request) {
+    return super.handleConflict(ex, request);
+  }
+
+  @Override
+  public HttpStatus getResponseStatus() {
+    return HttpStatus.TOO_MANY_REQUESTS;
+  }
+
+  @Override
+  protected HttpHeaders getHeaders(RuntimeException ex) {
+    final HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(((TooManyRequestsException) ex).getRetryAfterSeconds()));
+
+    return headers;
+  }
+}
@@ -1,5 +1,6 @@
 package com.enotes.note.application.notes;
 
+import com.enotes.note.repository.authentication.RevokedTokens;
 import com.enotes.note.service.authentication.TokenInfo;
 import com.enotes.note.service.notes.util.TokenValidator;
 
@@ -20,10 +21,13 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
   private static final String TOKEN_PREFIX = "Bearer ";
   private static final String HEADER_STRING = "Authorization";
   private final TokenValidator tokenValidator;
+  private final RevokedTokens revokedTokens;
 
-  public JWTAuthorizationFilter(AuthenticationManager authManager, TokenValidator tokenValidator) {
+  public JWTAuthorizationFilter(AuthenticationManager authManager, TokenValidator tokenValidator,
+      RevokedTokens revokedTokens) {
     super(authManager);
     this.tokenValidator = tokenValidator;
+    this.revokedTokens = revokedTokens;
   }
 
   @Override
@@ -50,7 +54,8 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
       final TokenInfo tokenInfo = tokenValidator.extractTokenInfo(token.replace(TOKEN_PREFIX, ""));
       final String userName = tokenInfo.getUserName();
 
-      if (tokenInfo.isValid() && userName != null && !userName.isEmpty()) {
+      if (tokenInfo.isValid() && userName != null && !userName.isEmpty()
+          && !revokedTokens.isRevoked(tokenInfo.getId(), tokenInfo.getExpiration())) {
         return new UsernamePasswordAuthenticationToken(userName, null, new ArrayList<>());
       }
     }
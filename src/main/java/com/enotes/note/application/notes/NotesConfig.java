@@ -1,33 +1,172 @@
 package com.enotes.note.application.notes;
 
 import com.enotes.note.application.PathBuilder;
+import com.enotes.note.application.authentication.AuthenticationProperties;
+import com.enotes.note.application.authentication.KeySetController;
 import com.enotes.note.application.authentication.StoreConfigProperties;
-import com.enotes.note.repository.notes.InMemoryNotesRepository;
+import com.enotes.note.repository.authentication.RevokedTokens;
+import com.enotes.note.repository.notes.CompactInMemoryNotesRepository;
+import com.enotes.note.repository.notes.ConcurrentInMemoryNotesRepository;
 import com.enotes.note.repository.notes.NotesRepository;
+import com.enotes.note.repository.notes.mapped.MappedNotesRepository;
+import com.enotes.note.repository.notes.search.IndexedNotesRepository;
+import com.enotes.note.repository.notes.wal.WalNotesRepository;
+import com.enotes.note.repository.notes.wal.WriteAheadLog;
+import com.enotes.note.service.authentication.util.KeyMaterial;
+import com.enotes.note.service.authentication.util.SecurityEvents;
+import com.enotes.note.service.authentication.util.TokenProvider;
 import com.enotes.note.service.notes.NotesService;
+import com.enotes.note.service.notes.util.CachingTokenValidator;
 import com.enotes.note.service.notes.util.JwtTokenValidator;
+import com.enotes.note.service.notes.util.TokenValidator;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
 @EnableWebSecurity
 public class NotesConfig extends WebSecurityConfigurerAdapter {
 
-  @Autowired
-  private StoreConfigProperties storeConfigProperties;
-
   @Bean
   public NotesService getNotesService(NotesRepository notesRepository) {
-    return new NotesService(notesRepository);
+    final IndexedNotesRepository indexedNotesRepository = new IndexedNotesRepository(notesRepository);
+
+    return new NotesService(indexedNotesRepository, indexedNotesRepository);
+  }
+
+  @Bean
+  public NotesRepository getNotesRepository(NotesRepositoryProperties notesRepositoryProperties) {
+    switch (notesRepositoryProperties.getType()) {
+      case MEMORY:
+        return new ConcurrentInMemoryNotesRepository();
+      case COMPACT:
+        return new CompactInMemoryNotesRepository();
+      case WAL:
+        return new WalNotesRepository(new WriteAheadLog.Builder(Paths.get(notesRepositoryProperties.getDirectory()))
+            .withDurability(notesRepositoryProperties.getDurability())
+            .withSyncIntervalMillis(notesRepositoryProperties.getSyncIntervalMillis())
+            .withSegmentSize(notesRepositoryProperties.getSegmentSize())
+            .build(), notesRepositoryProperties.getSnapshotIntervalMillis());
+      case MAPPED:
+        return new MappedNotesRepository.Builder(Paths.get(notesRepositoryProperties.getDirectory()))
+            .withSegmentSize(notesRepositoryProperties.getSegmentSize())
+            .withCompactionIntervalMillis(notesRepositoryProperties.getCompactionIntervalMillis())
+            .build();
+      default:
+        throw new UnsupportedOperationException("Notes repository of type " + notesRepositoryProperties.getType()
+            + " is not yet supported");
+    }
+  }
+
+  @Bean
+  public MeterBinder getNotesRepositoryMetrics(NotesRepository notesRepository) {
+    return registry -> {
+      if (notesRepository instanceof WalNotesRepository) {
+        final WalNotesRepository walNotesRepository = (WalNotesRepository) notesRepository;
+
+        TimeGauge.builder("notes.repository.recovery.time", walNotesRepository, TimeUnit.MILLISECONDS,
+            WalNotesRepository::getRecoveryTimeMillis)
+            .description("Time to ready of the notes repository: loading the latest snapshot and replaying the log")
+            .register(registry);
+        Gauge.builder("notes.repository.recovery.snapshot.notes", walNotesRepository,
+            WalNotesRepository::getSnapshotNotes)
+            .description("Notes loaded from the latest snapshot on recovery")
+            .register(registry);
+        Gauge.builder("notes.repository.recovery.log.records", walNotesRepository,
+            WalNotesRepository::getReplayedRecords)
+            .description("Log records replayed on top of the latest snapshot on recovery")
+            .register(registry);
+      }
+    };
+  }
+
+  @Bean
+  public TokenValidator getTokenValidator(KeyMaterial keyMaterial, SecurityEvents securityEvents,
+      AuthenticationProperties authenticationProperties) {
+    final TokenValidator tokenValidator = new JwtTokenValidator(keyMaterial, securityEvents);
+
+    if (authenticationProperties.getTokenCacheSize() <= 0) {
+      return tokenValidator;
+    }
+    return new CachingTokenValidator(tokenValidator, authenticationProperties.getTokenCacheSize(),
+        authenticationProperties.getTokenCacheTtlMillis());
   }
 
+  /**
+   * Static as the token provider of the authentication service signs with these keys, and may be created before this
+   * configuration
+   */
   @Bean
-  public NotesRepository getNotesRepository() {
-    return new InMemoryNotesRepository();
+  public static KeyMaterial getKeyMaterial(StoreConfigProperties storeConfigProperties) {
+    return new KeyMaterial(storeConfigProperties, storeConfigProperties.getReloadIntervalMillis());
+  }
+
+  /**
+   * Static as the token provider of the authentication service reports to it too, and may be created before this
+   * configuration
+   */
+  @Bean
+  public static SecurityEvents getSecurityEvents(AuthenticationProperties authenticationProperties) {
+    return new SecurityEvents(authenticationProperties.getSecurityLogIntervalMillis());
+  }
+
+  @Bean
+  public MeterBinder getSecurityEventsMetrics(SecurityEvents securityEvents) {
+    return registry -> {
+      for (TokenProvider.TokenType type : TokenProvider.TokenType.values()) {
+        for (SecurityEvents.Reason reason : SecurityEvents.Reason.values()) {
+          FunctionCounter.builder("authentication.token.rejected", securityEvents,
+              events -> events.getCount(type, reason))
+              .description("Tokens turned down, by type of token and reason")
+              .tag("type", type.name().toLowerCase(Locale.ROOT))
+              .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+              .register(registry);
+        }
+      }
+    };
+  }
+
+  /**
+   * Static as it is also needed by the authentication service, which may be created before this configuration
+   */
+  @Bean
+  public static RevokedTokens getRevokedTokens(AuthenticationProperties authenticationProperties) {
+    return new RevokedTokens(authenticationProperties.getExpectedRevocations());
+  }
+
+  @Bean
+  public MeterBinder getTokenValidatorMetrics(TokenValidator tokenValidator, RevokedTokens revokedTokens) {
+    return registry -> {
+      Gauge.builder("authentication.token.revoked.size", revokedTokens, RevokedTokens::getSize)
+          .description("Revoked access tokens not expired yet")
+          .register(registry);
+
+      if (tokenValidator instanceof CachingTokenValidator) {
+        final CachingTokenValidator cachingTokenValidator = (CachingTokenValidator) tokenValidator;
+
+        FunctionCounter.builder("authentication.token.cache.hits", cachingTokenValidator,
+            CachingTokenValidator::getHits)
+            .description("Access tokens found in the cache of verified tokens")
+            .register(registry);
+        FunctionCounter.builder("authentication.token.cache.misses", cachingTokenValidator,
+            CachingTokenValidator::getMisses)
+            .description("Access tokens missing from the cache of verified tokens, hence verified")
+            .register(registry);
+        Gauge.builder("authentication.token.cache.size", cachingTokenValidator, CachingTokenValidator::getSize)
+            .description("Verified access tokens in the cache")
+            .register(registry);
+      }
+    };
   }
 
   @Override
@@ -35,12 +174,15 @@ public class NotesConfig extends WebSecurityConfigurerAdapter {
     http.cors().and().authorizeRequests()
         .anyRequest().authenticated()
         .and()
-        .addFilter(new JWTAuthorizationFilter(authenticationManager(), new JwtTokenValidator(storeConfigProperties)))
+        .addFilter(new JWTAuthorizationFilter(authenticationManager(),
+            getApplicationContext().getBean(TokenValidator.class),
+            getApplicationContext().getBean(RevokedTokens.class)))
         .csrf().disable();
   }
 
   @Override
   public void configure(final WebSecurity web) throws Exception {
-    web.ignoring().antMatchers(PathBuilder.buildPath(PathBuilder.AUTHENTICATION, "**"));
+    web.ignoring().antMatchers(PathBuilder.buildPath(PathBuilder.AUTHENTICATION, "**"),
+        PathBuilder.buildPath(KeySetController.WELL_KNOWN, "**"));
   }
 }
@@ -3,10 +3,17 @@ package com.enotes.note.application.notes;
 import com.enotes.note.application.PathBuilder;
 import com.enotes.note.service.notes.Note;
 import com.enotes.note.service.notes.NoteId;
+import com.enotes.note.service.notes.NoteSummariesPage;
+import com.enotes.note.service.notes.NoteSummary;
+import com.enotes.note.service.notes.NotesPage;
 import com.enotes.note.service.notes.NotesService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,20 +24,37 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 @RestController
 @RequestMapping(PathBuilder.NOTES)
 public class NotesController {
 
   private static final String NOTE_ID = "id";
+  private static final String LIMIT = "limit";
+  private static final String CURSOR = "cursor";
+  private static final String STREAM = "stream";
+  private static final String SUMMARIES = "summaries";
+  private static final String SEARCH = "search";
+  private static final String TITLES = "titles";
+  private static final String SUGGEST = "suggest";
+  private static final String QUERY = "q";
+  private static final String PREFIX = "prefix";
+  private static final String DISTANCE = "distance";
+  private static final String DEFAULT_SEARCH_LIMIT = "20";
+  private static final String DEFAULT_SUGGEST_LIMIT = "10";
 
   private final NotesService notesService;
+  private final ObjectMapper objectMapper;
 
   @Autowired
-  public NotesController(NotesService notesService) {
+  public NotesController(NotesService notesService, ObjectMapper objectMapper) {
     this.notesService = notesService;
+    this.objectMapper = objectMapper;
   }
 
   @PostMapping
@@ -48,6 +72,61 @@ public class NotesController {
     return this.notesService.getAllNotes(authentication.getPrincipal());
   }
 
+  /**
+   * Writes all notes of the user as a JSON array straight to the response, one page of notes at a time. A request
+   * with a limit asks for a page instead
+   */
+  @GetMapping(params = {STREAM + "=true", "!" + LIMIT})
+  public ResponseEntity<StreamingResponseBody> streamAllNotes(Authentication authentication) {
+    final Iterator<Note> notes = this.notesService.iterateAllNotes(authentication.getPrincipal());
+
+    final StreamingResponseBody body = outputStream -> {
+      // the response stream is closed by the container
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+        generator.writeStartArray();
+        while (notes.hasNext()) {
+          generator.writeObject(notes.next());
+        }
+        generator.writeEndArray();
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(body);
+  }
+
+  @GetMapping(params = LIMIT)
+  public NotesPage getNotesPage(Authentication authentication, @RequestParam(LIMIT) int limit,
+      @RequestParam(value = CURSOR, required = false) String cursor) {
+    return this.notesService.getNotesPage(authentication.getPrincipal(), cursor, limit);
+  }
+
+  @GetMapping(SUMMARIES)
+  public NoteSummariesPage getNoteSummariesPage(Authentication authentication, @RequestParam(LIMIT) int limit,
+      @RequestParam(value = CURSOR, required = false) String cursor) {
+    return this.notesService.getNoteSummariesPage(authentication.getPrincipal(), cursor, limit);
+  }
+
+  @GetMapping(SEARCH)
+  public List<Note> searchNotes(Authentication authentication, @RequestParam(QUERY) String query,
+      @RequestParam(value = LIMIT, defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
+    return this.notesService.searchNotes(authentication.getPrincipal(), query, limit);
+  }
+
+  @GetMapping(SEARCH + "/" + TITLES)
+  public List<NoteSummary> searchNoteTitles(Authentication authentication, @RequestParam(QUERY) String title,
+      @RequestParam(value = DISTANCE, defaultValue = "0") int distance,
+      @RequestParam(value = LIMIT, defaultValue = DEFAULT_SEARCH_LIMIT) int limit) {
+    return this.notesService.searchNoteTitles(authentication.getPrincipal(), title, distance, limit);
+  }
+
+  @GetMapping(SUGGEST)
+  public List<NoteSummary> suggestNoteTitles(Authentication authentication, @RequestParam(PREFIX) String prefix,
+      @RequestParam(value = LIMIT, defaultValue = DEFAULT_SUGGEST_LIMIT) int limit) {
+    return this.notesService.suggestNoteTitles(authentication.getPrincipal(), prefix, limit);
+  }
+
   @DeleteMapping("{" + NOTE_ID + "}")
   @ResponseStatus(value = HttpStatus.NO_CONTENT)
   public void deleteNote(Authentication authentication, @PathVariable String id) {
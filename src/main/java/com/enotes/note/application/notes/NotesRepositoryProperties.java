@@ -0,0 +1,81 @@
+package com.enotes.note.application.notes;
+
+import com.enotes.note.repository.notes.wal.Durability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "notes.repository")
+public class NotesRepositoryProperties {
+
+  private Type type = Type.MEMORY;
+  private String directory = "data/notes";
+  private Durability durability = Durability.BATCHED;
+  private long syncIntervalMillis = 10;
+  private long segmentSize = 64L * 1024 * 1024;
+  private long snapshotIntervalMillis = 5 * 60 * 1000;
+  private long compactionIntervalMillis = 60 * 1000;
+
+  public NotesRepositoryProperties() {
+    //do nothing
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public Durability getDurability() {
+    return durability;
+  }
+
+  public long getSyncIntervalMillis() {
+    return syncIntervalMillis;
+  }
+
+  public long getSegmentSize() {
+    return segmentSize;
+  }
+
+  public long getSnapshotIntervalMillis() {
+    return snapshotIntervalMillis;
+  }
+
+  public long getCompactionIntervalMillis() {
+    return compactionIntervalMillis;
+  }
+
+  public void setType(final Type type) {
+    this.type = type;
+  }
+
+  public void setDirectory(final String directory) {
+    this.directory = directory;
+  }
+
+  public void setDurability(final Durability durability) {
+    this.durability = durability;
+  }
+
+  public void setSyncIntervalMillis(final long syncIntervalMillis) {
+    this.syncIntervalMillis = syncIntervalMillis;
+  }
+
+  public void setSegmentSize(final long segmentSize) {
+    this.segmentSize = segmentSize;
+  }
+
+  public void setSnapshotIntervalMillis(final long snapshotIntervalMillis) {
+    this.snapshotIntervalMillis = snapshotIntervalMillis;
+  }
+
+  public void setCompactionIntervalMillis(final long compactionIntervalMillis) {
+    this.compactionIntervalMillis = compactionIntervalMillis;
+  }
+
+  public enum Type {
+    MEMORY, COMPACT, WAL, MAPPED
+  }
+}
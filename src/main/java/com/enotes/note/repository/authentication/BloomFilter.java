@@ -0,0 +1,86 @@
+package com.enotes.note.repository.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings: {@link #mightContain(String)} is always true for an added string and false for all but
+ * about {@code falsePositiveRate} of the others, as long as no more than {@code expectedInsertions} strings are added.
+ * The filter does not grow, adding more strings only raises the false positive rate.
+ *
+ * <p>The bit positions of a string are derived from two 64 bit hashes of its UTF-8 bytes, the i-th position being
+ * {@code h1 + i * h2}. Bits are set with compare and swap, so the filter is thread safe without locks.
+ */
+final class BloomFilter {
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  BloomFilter(final int expectedInsertions, final double falsePositiveRate) {
+    final double ln2 = Math.log(2);
+    final long optimalBits = (long) Math.ceil(-Math.max(1, expectedInsertions) * Math.log(falsePositiveRate)
+        / (ln2 * ln2));
+
+    this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+    this.bitCount = bits.length() * 64L;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedInsertions) * ln2));
+  }
+
+  void add(final String value) {
+    final long hash1 = hash(value);
+    final long hash2 = mix(hash1);
+
+    for (int i = 0; i < hashCount; i++) {
+      final long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      final int index = (int) (bit >>> 6);
+      final long mask = 1L << bit;
+
+      long word = bits.get(index);
+      while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask)) {
+        word = bits.get(index);
+      }
+    }
+  }
+
+  boolean mightContain(final String value) {
+    final long hash1 = hash(value);
+    final long hash2 = mix(hash1);
+
+    for (int i = 0; i < hashCount; i++) {
+      final long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * FNV-1a of the UTF-8 bytes
+   */
+  private static long hash(final String value) {
+    long hash = FNV_OFFSET_BASIS;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Finalizer of MurmurHash3, odd so that the positions of a string never collapse to a single one
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+
+    return hash | 1;
+  }
+}
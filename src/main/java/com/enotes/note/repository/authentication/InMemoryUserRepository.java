@@ -4,4 +4,8 @@ import com.enotes.note.repository.AbstractInMemoryRepository;
 
 public class InMemoryUserRepository extends AbstractInMemoryRepository<String, UserDetails> implements UserRepository {
 
+  @Override
+  public Iterable<String> findAllUserNames() {
+    return getCache().keySet();
+  }
 }
@@ -0,0 +1,220 @@
+package com.enotes.note.repository.authentication;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refresh tokens of the signed in sessions of every user, so that a user can be signed in on several devices at once.
+ *
+ * <p>Every user has a table of at most {@code maxSessionsPerUser} refresh token ids, signing in once more drops the
+ * oldest session. Checking a refresh token takes two hash lookups: the table of the user, then the id in it.
+ *
+ * <p>Expired sessions are swept with a timer wheel of {@link #WHEEL_SLOTS} slots, each {@link #SLOT_MILLIS} wide. A
+ * user is put in the slot of the expiration of every session it opens, at most once per slot, and every session added
+ * sweeps the slots that have fully elapsed since the last sweep: their users drop their expired sessions and are put
+ * in the slot of their next expiration. Expirations past the wheel are put in its last slot and swept again later.
+ */
+public class RefreshSessions {
+
+  static final long SLOT_MILLIS = TimeUnit.HOURS.toMillis(1);
+  static final int WHEEL_SLOTS = 256;
+
+  private final int maxSessionsPerUser;
+  private final Clock clock;
+  private final ConcurrentMap<String, UserSessions> sessions;
+  private final Set<String>[] wheel;
+  // the first slot that has not been swept yet
+  private final AtomicLong nextSlot;
+
+  /**
+   * @param maxSessionsPerUser the number of sessions kept per user, the oldest one is dropped past that number
+   */
+  public RefreshSessions(final int maxSessionsPerUser) {
+    this(maxSessionsPerUser, Clock.systemUTC());
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  RefreshSessions(final int maxSessionsPerUser, final Clock clock) {
+    this.maxSessionsPerUser = maxSessionsPerUser;
+    this.clock = clock;
+    this.sessions = new ConcurrentHashMap<>();
+    this.wheel = new Set[WHEEL_SLOTS];
+    for (int i = 0; i < WHEEL_SLOTS; i++) {
+      wheel[i] = ConcurrentHashMap.newKeySet();
+    }
+    this.nextSlot = new AtomicLong(clock.millis() / SLOT_MILLIS);
+  }
+
+  /**
+   * Opens a session for the user
+   * @param userName the user signed in
+   * @param tokenId the id of the refresh token of the session
+   * @param expiration the expiration of the refresh token, the session is dropped once it has expired
+   */
+  public void add(final String userName, final String tokenId, final Date expiration) {
+    if (userName == null || tokenId == null || expiration == null) {
+      return;
+    }
+
+    final long now = clock.millis();
+    sweep(now);
+    if (expiration.getTime() <= now) {
+      return;
+    }
+
+    sessions.compute(userName, (key, userSessions) -> {
+      final UserSessions updated = userSessions != null ? userSessions : new UserSessions(maxSessionsPerUser);
+      updated.put(tokenId, expiration.getTime());
+
+      return updated;
+    });
+    schedule(userName, expiration.getTime(), now);
+  }
+
+  /**
+   * @param userName the user of the session
+   * @param tokenId the id of the refresh token of the session
+   * @return true if the session is open and has not expired
+   */
+  public boolean isActive(final String userName, final String tokenId) {
+    if (userName == null || tokenId == null) {
+      return false;
+    }
+
+    final UserSessions userSessions = sessions.get(userName);
+    return userSessions != null && userSessions.isActive(tokenId, clock.millis());
+  }
+
+  /**
+   * Closes a session of the user, leaving its other sessions open
+   * @param userName the user of the session
+   * @param tokenId the id of the refresh token of the session
+   * @return true if the session was open
+   */
+  public boolean revoke(final String userName, final String tokenId) {
+    if (userName == null || tokenId == null) {
+      return false;
+    }
+
+    final boolean[] removed = new boolean[1];
+    sessions.computeIfPresent(userName, (key, userSessions) -> {
+      removed[0] = userSessions.remove(tokenId);
+
+      return userSessions.isEmpty() ? null : userSessions;
+    });
+    return removed[0];
+  }
+
+  /**
+   * @return the number of open sessions, expired ones included until they are swept
+   */
+  public int getSize() {
+    return sessions.values().stream().mapToInt(UserSessions::size).sum();
+  }
+
+  private void schedule(final String userName, final long expiresAtMillis, final long now) {
+    final long slot = Math.min(expiresAtMillis / SLOT_MILLIS, now / SLOT_MILLIS + WHEEL_SLOTS - 1);
+
+    wheel[(int) (slot % WHEEL_SLOTS)].add(userName);
+  }
+
+  /**
+   * Sweeps the slots that have fully elapsed, only one thread sweeps a given slot
+   */
+  private void sweep(final long now) {
+    final long currentSlot = now / SLOT_MILLIS;
+    final long first = nextSlot.get();
+    if (first >= currentSlot || !nextSlot.compareAndSet(first, currentSlot)) {
+      return;
+    }
+
+    for (long slot = Math.max(first, currentSlot - WHEEL_SLOTS); slot < currentSlot; slot++) {
+      final Iterator<String> userNames = wheel[(int) (slot % WHEEL_SLOTS)].iterator();
+      while (userNames.hasNext()) {
+        final String userName = userNames.next();
+        userNames.remove();
+        expire(userName, now);
+      }
+    }
+  }
+
+  private void expire(final String userName, final long now) {
+    final long[] nextExpiration = {Long.MAX_VALUE};
+    sessions.computeIfPresent(userName, (key, userSessions) -> {
+      nextExpiration[0] = userSessions.removeExpired(now);
+
+      return userSessions.isEmpty() ? null : userSessions;
+    });
+
+    if (nextExpiration[0] != Long.MAX_VALUE) {
+      schedule(userName, nextExpiration[0], now);
+    }
+  }
+
+  /**
+   * Refresh token ids of a user to their expiration, oldest session first
+   */
+  private static final class UserSessions {
+
+    private final Map<String, Long> expirations;
+
+    private UserSessions(final int maxSessions) {
+      this.expirations = new LinkedHashMap<String, Long>(Math.min(maxSessions, 16) * 2) {
+        private static final long serialVersionUID = 1762196437438739628L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+          return size() > maxSessions;
+        }
+      };
+    }
+
+    private synchronized void put(final String tokenId, final long expiresAtMillis) {
+      expirations.put(tokenId, expiresAtMillis);
+    }
+
+    private synchronized boolean isActive(final String tokenId, final long now) {
+      final Long expiresAtMillis = expirations.get(tokenId);
+
+      return expiresAtMillis != null && expiresAtMillis > now;
+    }
+
+    private synchronized boolean remove(final String tokenId) {
+      return expirations.remove(tokenId) != null;
+    }
+
+    /**
+     * @return the earliest expiration of the sessions left, {@link Long#MAX_VALUE} if none is left
+     */
+    private synchronized long removeExpired(final long now) {
+      long nextExpiration = Long.MAX_VALUE;
+
+      final Iterator<Long> values = expirations.values().iterator();
+      while (values.hasNext()) {
+        final long expiresAtMillis = values.next();
+        if (expiresAtMillis <= now) {
+          values.remove();
+        } else {
+          nextExpiration = Math.min(nextExpiration, expiresAtMillis);
+        }
+      }
+      return nextExpiration;
+    }
+
+    private synchronized boolean isEmpty() {
+      return expirations.isEmpty();
+    }
+
+    private synchronized int size() {
+      return expirations.size();
+    }
+  }
+}
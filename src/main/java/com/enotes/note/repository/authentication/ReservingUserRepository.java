@@ -0,0 +1,95 @@
+package com.enotes.note.repository.authentication;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link UserRepository} decorator reserving user names for the users being signed up.
+ *
+ * <p>A user name is turned down if another sign up holds it or if it is taken. Taken names are looked up in a
+ * {@link BloomFilter} of the names of all the stored users first and only looked up in the decorated repository when
+ * the filter might contain them, so that reserving a new name does not read the repository whatever it is backed by.
+ * The filter is built from the decorated repository on the first reservation and every user stored through this
+ * repository is added to it. Users are never deleted, so the filter never holds stale names other than its false
+ * positives.
+ */
+public class ReservingUserRepository implements UserRepository, UserNameReservations {
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final UserRepository userRepository;
+  private final BloomFilter userNames;
+  private final Set<String> reservations;
+  private volatile boolean built;
+
+  /**
+   * @param expectedUsers the number of users the filter of user names is sized for, past that number more new names
+   * are looked up in the decorated repository
+   */
+  public ReservingUserRepository(final UserRepository userRepository, final int expectedUsers) {
+    this.userRepository = userRepository;
+    this.userNames = new BloomFilter(expectedUsers, FALSE_POSITIVE_RATE);
+    this.reservations = ConcurrentHashMap.newKeySet();
+  }
+
+  @Override
+  public boolean reserve(final String userName) {
+    ensureBuilt();
+    if (!reservations.add(userName)) {
+      return false;
+    }
+
+    if (userNames.mightContain(userName) && userRepository.findById(userName).isPresent()) {
+      reservations.remove(userName);
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void release(final String userName) {
+    reservations.remove(userName);
+  }
+
+  @Override
+  public boolean putIfAbsent(final String key, final UserDetails value) {
+    final boolean added = userRepository.putIfAbsent(key, value);
+
+    if (added) {
+      userNames.add(key);
+    }
+    return added;
+  }
+
+  @Override
+  public Optional<UserDetails> findById(final String key) {
+    return userRepository.findById(key);
+  }
+
+  @Override
+  public void put(final String key, final UserDetails value) {
+    userRepository.put(key, value);
+    userNames.add(key);
+  }
+
+  @Override
+  public Iterable<String> findAllUserNames() {
+    return userRepository.findAllUserNames();
+  }
+
+  private void ensureBuilt() {
+    if (built) {
+      return;
+    }
+
+    synchronized (userNames) {
+      if (!built) {
+        for (String userName : userRepository.findAllUserNames()) {
+          userNames.add(userName);
+        }
+        built = true;
+      }
+    }
+  }
+}
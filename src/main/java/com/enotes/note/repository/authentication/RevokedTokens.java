@@ -0,0 +1,96 @@
+package com.enotes.note.repository.authentication;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids of the tokens revoked before their expiration.
+ *
+ * <p>Revoked ids are grouped in buckets by the expiration of their token, {@link #BUCKET_MILLIS} wide. A bucket holds a
+ * {@link BloomFilter} of its ids in front of the exact set of them: a token is looked up in the bucket of its
+ * expiration only, in the filter first, and in the set only if the filter might contain it, so that checking a token
+ * that was not revoked takes a few bit tests. A bucket whose tokens have all expired is dropped on the next revocation,
+ * since expired tokens are turned down whether revoked or not.
+ */
+public class RevokedTokens {
+
+  static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final int expectedRevocationsPerBucket;
+  private final Clock clock;
+  private final ConcurrentMap<Long, Bucket> buckets;
+
+  /**
+   * @param expectedRevocationsPerBucket the number of revoked tokens expiring within {@link #BUCKET_MILLIS} the
+   * filters are sized for, past that number more lookups go to the exact sets
+   */
+  public RevokedTokens(final int expectedRevocationsPerBucket) {
+    this(expectedRevocationsPerBucket, Clock.systemUTC());
+  }
+
+  RevokedTokens(final int expectedRevocationsPerBucket, final Clock clock) {
+    this.expectedRevocationsPerBucket = expectedRevocationsPerBucket;
+    this.clock = clock;
+    this.buckets = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param tokenId the id of the token to revoke
+   * @param expiration the expiration of the token, the token is forgotten once it has expired
+   */
+  public void revoke(final String tokenId, final Date expiration) {
+    if (tokenId == null || expiration == null) {
+      return;
+    }
+
+    final long now = clock.millis();
+    buckets.keySet().removeIf(bucket -> (bucket + 1) * BUCKET_MILLIS <= now);
+    if (expiration.getTime() <= now) {
+      return;
+    }
+
+    final Bucket bucket = buckets.computeIfAbsent(expiration.getTime() / BUCKET_MILLIS,
+        key -> new Bucket(expectedRevocationsPerBucket));
+    // the exact set first, so that a reader finding the id in the filter finds it in the set
+    bucket.tokenIds.add(tokenId);
+    bucket.filter.add(tokenId);
+  }
+
+  /**
+   * @param tokenId the id of the token
+   * @param expiration the expiration of the token
+   * @return true if the token was revoked
+   */
+  public boolean isRevoked(final String tokenId, final Date expiration) {
+    if (tokenId == null || expiration == null) {
+      return false;
+    }
+
+    final Bucket bucket = buckets.get(expiration.getTime() / BUCKET_MILLIS);
+    return bucket != null && bucket.filter.mightContain(tokenId) && bucket.tokenIds.contains(tokenId);
+  }
+
+  /**
+   * @return the number of revoked tokens not yet forgotten
+   */
+  public int getSize() {
+    return buckets.values().stream().mapToInt(bucket -> bucket.tokenIds.size()).sum();
+  }
+
+  private static final class Bucket {
+
+    private final BloomFilter filter;
+    private final Set<String> tokenIds;
+
+    private Bucket(final int expectedRevocations) {
+      this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+      this.tokenIds = ConcurrentHashMap.newKeySet();
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.enotes.note.repository.authentication;
+
+/**
+ * Reserves user names for the time it takes to sign a user up, so that a user name already taken or being signed up
+ * is turned down before any work is done for it.
+ */
+public interface UserNameReservations {
+
+  /**
+   * @param userName the user name to sign up
+   * @return true if the user name is now reserved for the caller, which must {@link #release(String)} it once the
+   * user is stored or failed to be, false if a user with that name exists or is being signed up
+   */
+  boolean reserve(String userName);
+
+  /**
+   * @param userName a user name reserved with {@link #reserve(String)}
+   */
+  void release(String userName);
+}
@@ -3,4 +3,9 @@ package com.enotes.note.repository.authentication;
 import com.enotes.note.repository.Repository;
 
 public interface UserRepository extends Repository<String, UserDetails> {
+
+  /**
+   * @return the user names of all the users, read lazily
+   */
+  Iterable<String> findAllUserNames();
 }
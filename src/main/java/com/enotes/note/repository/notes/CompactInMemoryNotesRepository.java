@@ -0,0 +1,289 @@
+package com.enotes.note.repository.notes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link NotesRepository} that keeps every note as a single {@code byte[]} instead of a {@link NotesDetails}. The note
+ * id is only held by the map key, the user id is interned and replaced by its number and the title and body are
+ * written as UTF-8, every field being prefixed by its length as a variable length integer, 0 standing for
+ * {@code null}. Notes are decoded back to {@link NotesDetails} whenever they are read.
+ *
+ * <p>Locking follows {@link ConcurrentInMemoryNotesRepository}: the note ids of every user are guarded by that user's
+ * own monitor.
+ */
+public class CompactInMemoryNotesRepository implements NotesRepository {
+
+  private static final int INITIAL_USERS = 16;
+
+  private final ConcurrentMap<String, byte[]> notes;
+  private final ConcurrentMap<UserId, NoteIdIndex> noteIdsPerUserId;
+  private final Map<UserId, Integer> userNumbers;
+  // grown by doubling under the monitor of userNumbers, slots past userCount are not published yet
+  private volatile UserId[] users;
+  private int userCount;
+
+  public CompactInMemoryNotesRepository() {
+    notes = new ConcurrentHashMap<>();
+    noteIdsPerUserId = new ConcurrentHashMap<>();
+    userNumbers = new ConcurrentHashMap<>();
+    users = new UserId[INITIAL_USERS];
+  }
+
+  @Override
+  public boolean putIfAbsent(final String key, final NotesDetails value) {
+    final byte[] note = encode(value);
+    final NoteIdIndex noteIds = getOrCreateNoteIds(value.getUserId());
+
+    synchronized (noteIds) {
+      final boolean added = notes.putIfAbsent(key, note) == null;
+
+      if (added) {
+        noteIds.add(key);
+      }
+      return added;
+    }
+  }
+
+  @Override
+  public Optional<NotesDetails> findById(final String key) {
+    final byte[] note = notes.get(key);
+
+    return note == null ? Optional.empty() : Optional.of(decode(key, note, true));
+  }
+
+  @Override
+  public void put(final String key, final NotesDetails value) {
+    final byte[] note = encode(value);
+    final NoteIdIndex noteIds = getOrCreateNoteIds(value.getUserId());
+
+    final byte[] previous;
+    synchronized (noteIds) {
+      previous = notes.put(key, note);
+      noteIds.add(key);
+    }
+
+    if (previous != null && readUserNumber(previous) != readUserNumber(note)) {
+      removeNoteId(users[readUserNumber(previous)], key);
+    }
+  }
+
+  @Override
+  public Collection<NotesDetails> findAll(final UserId userId) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return Collections.emptyList();
+    }
+
+    final List<String> ids;
+    synchronized (noteIds) {
+      ids = noteIds.toList();
+    }
+
+    return decodeAll(ids, true);
+  }
+
+  @Override
+  public NotesDetailsPage findPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return NotesDetailsPage.empty();
+    }
+
+    final NoteIdIndex.Page page;
+    synchronized (noteIds) {
+      page = noteIds.page(cursor, limit);
+    }
+
+    return new NotesDetailsPage(decodeAll(page.getIds(), true), page.getNext().orElse(null));
+  }
+
+  @Override
+  public NotesDetailsPage findSummaryPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return NotesDetailsPage.empty();
+    }
+
+    final NoteIdIndex.Page page;
+    synchronized (noteIds) {
+      page = noteIds.page(cursor, limit);
+    }
+
+    return new NotesDetailsPage(decodeAll(page.getIds(), false), page.getNext().orElse(null));
+  }
+
+  @Override
+  public void delete(final String id) {
+    byte[] note;
+    while ((note = notes.get(id)) != null) {
+      final NoteIdIndex noteIds = getOrCreateNoteIds(users[readUserNumber(note)]);
+
+      synchronized (noteIds) {
+        // the note may have been replaced since it was read, in which case retry with the new owner's lock
+        if (notes.remove(id, note)) {
+          noteIds.remove(id);
+          return;
+        }
+      }
+    }
+  }
+
+  private byte[] encode(final NotesDetails notesDetails) {
+    final int userNumber = intern(notesDetails.getUserId());
+    final byte[] title = toBytes(notesDetails.getTitle());
+    final byte[] body = toBytes(notesDetails.getBody());
+
+    final byte[] note = new byte[varIntSize(userNumber) + fieldSize(title) + fieldSize(body)];
+    int offset = writeVarInt(note, 0, userNumber);
+    offset = writeField(note, offset, title);
+    writeField(note, offset, body);
+
+    return note;
+  }
+
+  private NotesDetails decode(final String id, final byte[] note, final boolean withBody) {
+    final int[] offset = new int[1];
+    final UserId userId = users[readVarInt(note, offset)];
+    final String title = readField(note, offset);
+    final String body = withBody ? readField(note, offset) : null;
+
+    return new NotesDetails.Builder(id, userId)
+        .withTitle(title)
+        .withBody(body)
+        .build();
+  }
+
+  private List<NotesDetails> decodeAll(final List<String> ids, final boolean withBody) {
+    return ids.stream()
+        .map(id -> {
+          final byte[] note = notes.get(id);
+          return note == null ? null : decode(id, note, withBody);
+        })
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  private int intern(final UserId userId) {
+    final Integer number = userNumbers.get(userId);
+    if (number != null) {
+      return number;
+    }
+
+    synchronized (userNumbers) {
+      final Integer existing = userNumbers.get(userId);
+      if (existing != null) {
+        return existing;
+      }
+      UserId[] current = users;
+      if (userCount == current.length) {
+        current = Arrays.copyOf(current, current.length * 2);
+      }
+      final int newNumber = userCount++;
+      current[newNumber] = userId;
+      // publish the user before its number so that every note encoded with it can be decoded, the volatile write
+      // publishes the slot even when the array was not grown
+      users = current;
+      userNumbers.put(userId, newNumber);
+
+      return newNumber;
+    }
+  }
+
+  private NoteIdIndex getOrCreateNoteIds(final UserId userId) {
+    return noteIdsPerUserId.computeIfAbsent(userId, (k) -> new NoteIdIndex());
+  }
+
+  private void removeNoteId(final UserId userId, final String id) {
+    final NoteIdIndex noteIds = getOrCreateNoteIds(userId);
+
+    synchronized (noteIds) {
+      final byte[] current = notes.get(id);
+
+      if (current == null || !users[readUserNumber(current)].equals(userId)) {
+        noteIds.remove(id);
+      }
+    }
+  }
+
+  private static int readUserNumber(final byte[] note) {
+    return readVarInt(note, new int[1]);
+  }
+
+  private static byte[] toBytes(final String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int fieldSize(final byte[] value) {
+    return value == null ? 1 : varIntSize(value.length + 1) + value.length;
+  }
+
+  private static int writeField(final byte[] note, final int offset, final byte[] value) {
+    if (value == null) {
+      return writeVarInt(note, offset, 0);
+    }
+    final int start = writeVarInt(note, offset, value.length + 1);
+    System.arraycopy(value, 0, note, start, value.length);
+
+    return start + value.length;
+  }
+
+  private static String readField(final byte[] note, final int[] offset) {
+    final int length = readVarInt(note, offset) - 1;
+    if (length < 0) {
+      return null;
+    }
+    final String value = new String(note, offset[0], length, StandardCharsets.UTF_8);
+    offset[0] += length;
+
+    return value;
+  }
+
+  private static int varIntSize(final int value) {
+    int size = 1;
+    for (int remaining = value >>> 7; remaining != 0; remaining >>>= 7) {
+      size++;
+    }
+    return size;
+  }
+
+  private static int writeVarInt(final byte[] note, final int offset, final int value) {
+    int position = offset;
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      note[position++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    note[position++] = (byte) remaining;
+
+    return position;
+  }
+
+  /**
+   * Reads a variable length integer at {@code offset[0]} and moves {@code offset[0]} right after it
+   */
+  private static int readVarInt(final byte[] note, final int[] offset) {
+    int value = 0;
+    int shift = 0;
+    byte current;
+    do {
+      current = note[offset[0]++];
+      value |= (current & 0x7F) << shift;
+      shift += 7;
+    } while ((current & 0x80) != 0);
+
+    return value;
+  }
+}
@@ -0,0 +1,141 @@
+package com.enotes.note.repository.notes;
+
+import com.enotes.note.repository.AbstractInMemoryRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link NotesRepository} that guards the note ids of every user with that user's own monitor instead of locking the
+ * whole repository. Notes themselves live in the {@link ConcurrentHashMap} of {@link AbstractInMemoryRepository}, so
+ * writes and reads of one user never wait on the writes of another user.
+ */
+public class ConcurrentInMemoryNotesRepository extends AbstractInMemoryRepository<String, NotesDetails>
+    implements NotesRepository {
+
+  private final ConcurrentMap<UserId, NoteIdIndex> noteIdsPerUserId;
+
+  public ConcurrentInMemoryNotesRepository() {
+    super();
+    noteIdsPerUserId = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public boolean putIfAbsent(final String key, final NotesDetails value) {
+    final NoteIdIndex noteIds = getOrCreateNoteIds(value.getUserId());
+
+    synchronized (noteIds) {
+      final boolean added = super.putIfAbsent(key, value);
+
+      if (added) {
+        noteIds.add(key);
+      }
+      return added;
+    }
+  }
+
+  @Override
+  public void put(final String key, final NotesDetails value) {
+    final NoteIdIndex noteIds = getOrCreateNoteIds(value.getUserId());
+
+    final NotesDetails previous;
+    synchronized (noteIds) {
+      previous = getCache().put(key, value);
+      noteIds.add(key);
+    }
+
+    if (previous != null && !previous.getUserId().equals(value.getUserId())) {
+      removeNoteId(previous.getUserId(), key);
+    }
+  }
+
+  @Override
+  public Collection<NotesDetails> findAll(final UserId userId) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return Collections.emptyList();
+    }
+
+    final List<String> ids;
+    synchronized (noteIds) {
+      ids = noteIds.toList();
+    }
+
+    final Map<String, NotesDetails> cache = getCache();
+    return ids.stream()
+        .map(cache::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public NotesDetailsPage findPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return NotesDetailsPage.empty();
+    }
+
+    final NoteIdIndex.Page page;
+    synchronized (noteIds) {
+      page = noteIds.page(cursor, limit);
+    }
+
+    final Map<String, NotesDetails> cache = getCache();
+    return new NotesDetailsPage(page.getIds()
+        .stream()
+        .map(cache::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList()), page.getNext().orElse(null));
+  }
+
+  /**
+   * Returns the ids of the users that own or owned notes
+   * @return a copy of the user ids
+   */
+  public Collection<UserId> findAllUserIds() {
+    return new ArrayList<>(noteIdsPerUserId.keySet());
+  }
+
+  @Override
+  public void delete(final String id) {
+    final Map<String, NotesDetails> cache = getCache();
+
+    NotesDetails note;
+    while ((note = cache.get(id)) != null) {
+      final NoteIdIndex noteIds = getOrCreateNoteIds(note.getUserId());
+
+      synchronized (noteIds) {
+        // the note may have been replaced since it was read, in which case retry with the new owner's lock
+        if (cache.remove(id, note)) {
+          noteIds.remove(id);
+          return;
+        }
+      }
+    }
+  }
+
+  private NoteIdIndex getOrCreateNoteIds(final UserId userId) {
+    return noteIdsPerUserId.computeIfAbsent(userId, (k) -> new NoteIdIndex());
+  }
+
+  private void removeNoteId(final UserId userId, final String id) {
+    final NoteIdIndex noteIds = getOrCreateNoteIds(userId);
+
+    synchronized (noteIds) {
+      final NotesDetails current = getCache().get(id);
+
+      if (current == null || !current.getUserId().equals(userId)) {
+        noteIds.remove(id);
+      }
+    }
+  }
+}
@@ -2,7 +2,6 @@ package com.enotes.note.repository.notes;
 
 import com.enotes.note.repository.AbstractInMemoryRepository;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,7 +9,7 @@ import java.util.stream.Collectors;
 
 public class InMemoryNotesRepository extends AbstractInMemoryRepository<String, NotesDetails> implements NotesRepository {
 
-  private final Map<UserId, Collection<String>> noteIdsPerUserId;
+  private final Map<UserId, NoteIdIndex> noteIdsPerUserId;
 
   public InMemoryNotesRepository() {
     super();
@@ -22,7 +21,7 @@ public class InMemoryNotesRepository extends AbstractInMemoryRepository<String,
     final boolean added = super.putIfAbsent(key, value);
 
     if (added) {
-      noteIdsPerUserId.computeIfAbsent(value.getUserId(), (k) -> new ArrayList<>()).add(value.getId());
+      noteIdsPerUserId.computeIfAbsent(value.getUserId(), (k) -> new NoteIdIndex()).add(value.getId());
     }
     return added;
   }
@@ -31,18 +30,34 @@ public class InMemoryNotesRepository extends AbstractInMemoryRepository<String,
   public synchronized void put(final String key, final NotesDetails value) {
     super.put(key, value);
 
-    noteIdsPerUserId.computeIfAbsent(value.getUserId(), (k) -> new ArrayList<>()).add(value.getId());
+    noteIdsPerUserId.computeIfAbsent(value.getUserId(), (k) -> new NoteIdIndex()).add(value.getId());
   }
 
   @Override
   public synchronized Collection<NotesDetails> findAll(final UserId userId) {
     final Map<String, NotesDetails> cache = getCache();
     return noteIdsPerUserId.get(userId)
+        .toList()
         .stream()
         .map(cache::get)
         .collect(Collectors.toList());
   }
 
+  @Override
+  public synchronized NotesDetailsPage findPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+    if (noteIds == null) {
+      return NotesDetailsPage.empty();
+    }
+
+    final NoteIdIndex.Page page = noteIds.page(cursor, limit);
+    final Map<String, NotesDetails> cache = getCache();
+    return new NotesDetailsPage(page.getIds()
+        .stream()
+        .map(cache::get)
+        .collect(Collectors.toList()), page.getNext().orElse(null));
+  }
+
   @Override
   public synchronized void delete(final String id) {
     final NotesDetails note = getCache().remove(id);
@@ -0,0 +1,158 @@
+package com.enotes.note.repository.notes;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * The note ids of a single user. Every id is given an increasing sequence when added, ids are hashed to their
+ * sequence and sequences are sorted to their id, so adding and removing an id are O(log n), an id is never held twice
+ * and iteration follows the order in which the ids were added. A page of ids resumes after a {@link NotesCursor} with
+ * a lookup of the sequence of the cursor, O(log n) whether its id is still indexed or was removed since, and then only
+ * touches the ids of the page.
+ *
+ * <p>Sequences only order the ids of a running index. The repositories rebuilding their index from a log or a store
+ * on start give the ids new sequences, so cursors do not survive a restart.
+ *
+ * <p>This class is not thread safe, callers guard every access with their own lock.
+ */
+public final class NoteIdIndex implements Iterable<String> {
+
+  private final Map<String, Long> sequences;
+  private final NavigableMap<Long, String> ids;
+  private int modCount;
+  private long nextSequence;
+
+  public NoteIdIndex() {
+    sequences = new HashMap<>();
+    ids = new TreeMap<>();
+  }
+
+  /**
+   * Appends {@code id} to the end of the index
+   * @param id the note id
+   * @return true if the id was added or false if it already exists
+   */
+  public boolean add(final String id) {
+    if (sequences.containsKey(id)) {
+      return false;
+    }
+    final long sequence = nextSequence++;
+    sequences.put(id, sequence);
+    ids.put(sequence, id);
+    modCount++;
+
+    return true;
+  }
+
+  /**
+   * Removes {@code id} from the index
+   * @param id the note id
+   * @return true if the id was removed or false if it does not exist
+   */
+  public boolean remove(final String id) {
+    final Long sequence = sequences.remove(id);
+    if (sequence == null) {
+      return false;
+    }
+    ids.remove(sequence);
+    modCount++;
+
+    return true;
+  }
+
+  public boolean contains(final String id) {
+    return sequences.containsKey(id);
+  }
+
+  public int size() {
+    return sequences.size();
+  }
+
+  public boolean isEmpty() {
+    return sequences.isEmpty();
+  }
+
+  /**
+   * @return a copy of the ids in creation order
+   */
+  public List<String> toList() {
+    return new ArrayList<>(ids.values());
+  }
+
+  /**
+   * Returns the ids that follow {@code cursor} in creation order. The page resumes right after the id of the cursor
+   * while that id is still indexed, otherwise after the last id added before it.
+   * @param cursor the position the page starts after or null to start from the first id
+   * @param limit the maximum number of ids of the page, at least 1
+   * @return the ids of the page and the cursor of the next page
+   */
+  public Page page(final NotesCursor cursor, final int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Page limit should be at least 1 but is " + limit);
+    }
+
+    // sequences increase with every id added, so the ids following the cursor are those of the later sequences
+    final Iterator<Map.Entry<Long, String>> entries = (cursor == null ? ids : ids.tailMap(cursor.getSequence(), false))
+        .entrySet().iterator();
+    Map.Entry<Long, String> last = null;
+    final List<String> pageIds = new ArrayList<>(Math.min(limit, ids.size()));
+    while (entries.hasNext() && pageIds.size() < limit) {
+      last = entries.next();
+      pageIds.add(last.getValue());
+    }
+
+    return new Page(pageIds, entries.hasNext() ? new NotesCursor(last.getValue(), last.getKey()) : null);
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private final Iterator<String> next = ids.values().iterator();
+      private final int expectedModCount = modCount;
+
+      @Override
+      public boolean hasNext() {
+        return next.hasNext();
+      }
+
+      @Override
+      public String next() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        return next.next();
+      }
+    };
+  }
+
+  /**
+   * A page of note ids
+   */
+  public static final class Page {
+    private final List<String> ids;
+    private final NotesCursor next;
+
+    private Page(final List<String> ids, final NotesCursor next) {
+      this.ids = ids;
+      this.next = next;
+    }
+
+    public List<String> getIds() {
+      return ids;
+    }
+
+    /**
+     * @return the cursor of the next page or {@link Optional#empty()} if this page is the last one
+     */
+    public Optional<NotesCursor> getNext() {
+      return Optional.ofNullable(next);
+    }
+  }
+}
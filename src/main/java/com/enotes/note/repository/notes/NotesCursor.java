@@ -0,0 +1,51 @@
+package com.enotes.note.repository.notes;
+
+import java.util.Objects;
+
+/**
+ * Position in the notes of a user: the id of the last note of a page and the sequence it was indexed with. Sequences
+ * are given again when the notes are recovered from a log or a store on start, so a cursor does not survive a restart
+ */
+public class NotesCursor {
+
+  private final String noteId;
+  private final long sequence;
+
+  public NotesCursor(final String noteId, final long sequence) {
+    this.noteId = noteId;
+    this.sequence = sequence;
+  }
+
+  public String getNoteId() {
+    return noteId;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final NotesCursor that = (NotesCursor) o;
+    return sequence == that.sequence && Objects.equals(noteId, that.noteId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(noteId, sequence);
+  }
+
+  @Override
+  public String toString() {
+    return "NotesCursor{" +
+        "noteId='" + noteId + '\'' +
+        ", sequence=" + sequence +
+        '}';
+  }
+}
@@ -0,0 +1,36 @@
+package com.enotes.note.repository.notes;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of the notes of a user in creation order
+ */
+public class NotesDetailsPage {
+
+  private static final NotesDetailsPage EMPTY = new NotesDetailsPage(Collections.emptyList(), null);
+
+  private final List<NotesDetails> notes;
+  private final NotesCursor next;
+
+  public NotesDetailsPage(final List<NotesDetails> notes, final NotesCursor next) {
+    this.notes = notes;
+    this.next = next;
+  }
+
+  public static NotesDetailsPage empty() {
+    return EMPTY;
+  }
+
+  public List<NotesDetails> getNotes() {
+    return notes;
+  }
+
+  /**
+   * @return the cursor of the next page or {@link Optional#empty()} if this page is the last one
+   */
+  public Optional<NotesCursor> getNext() {
+    return Optional.ofNullable(next);
+  }
+}
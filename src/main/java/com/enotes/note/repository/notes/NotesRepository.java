@@ -13,6 +13,28 @@ public interface NotesRepository extends Repository<String, NotesDetails> {
    */
   Collection<NotesDetails> findAll(UserId userId);
 
+  /**
+   * Returns a page of the notes corresponding to the user with id {@code userId} in creation order, only the notes of
+   * the page are read
+   * @param userId the user id
+   * @param cursor the cursor of the page returned by the previous call or null for the first page
+   * @param limit the maximum number of notes of the page, at least 1
+   * @return the notes of the page and the cursor of the next page
+   */
+  NotesDetailsPage findPage(UserId userId, NotesCursor cursor, int limit);
+
+  /**
+   * Same as {@link #findPage(UserId, NotesCursor, int)} for callers that only need the id and the title of the notes.
+   * Repositories that keep the notes encoded do not decode their bodies, the notes they return have no body.
+   * @param userId the user id
+   * @param cursor the cursor of the page returned by the previous call or null for the first page
+   * @param limit the maximum number of notes of the page, at least 1
+   * @return the notes of the page, possibly without their body, and the cursor of the next page
+   */
+  default NotesDetailsPage findSummaryPage(UserId userId, NotesCursor cursor, int limit) {
+    return findPage(userId, cursor, limit);
+  }
+
   /**
    * deletes the specified note from the repository
    * @param key is the note id to delete
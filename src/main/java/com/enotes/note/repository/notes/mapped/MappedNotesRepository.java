@@ -0,0 +1,479 @@
+package com.enotes.note.repository.notes.mapped;
+
+import com.enotes.note.repository.notes.NoteIdIndex;
+import com.enotes.note.repository.notes.NotesCursor;
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.NotesDetailsPage;
+import com.enotes.note.repository.notes.NotesRepository;
+import com.enotes.note.repository.notes.UserId;
+import com.enotes.note.service.InternalServerErrorException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link NotesRepository} that keeps the notes in append only {@link MappedSegment}s instead of the heap. The heap only
+ * holds the segment and offset of the latest record of every note and the note ids of every user, titles and bodies
+ * are decoded from the mapped region whenever a note is read.
+ *
+ * <p>Writes are serialised by a single lock which only covers copying the record to the current segment. Segments are
+ * written to the page cache and forced to disk when they are full and when the repository is closed, so notes
+ * survive a crash of the process but the latest ones may be lost on a crash of the machine.
+ *
+ * <p>A background compactor rewrites the live records of the segments whose share of overwritten and deleted records
+ * reaches the compaction threshold at the end of the current segment, then deletes them. On creation the segments
+ * are replayed in order to rebuild the offsets, the notes of every user being indexed in creation order.
+ */
+public class MappedNotesRepository implements NotesRepository, Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MappedNotesRepository.class);
+
+  private static final String LOCK_FILE = "store.lock";
+
+  private final Path directory;
+  private final int segmentSize;
+  private final double compactionThreshold;
+  private final FileChannel lockChannel;
+  private final FileLock directoryLock;
+  private final ScheduledExecutorService compactor;
+
+  private final ConcurrentMap<String, Location> locations;
+  private final ConcurrentMap<UserId, NoteIdIndex> noteIdsPerUserId;
+  private final ConcurrentNavigableMap<Long, MappedSegment> segments;
+  private final Object writeLock = new Object();
+
+  // guarded by writeLock
+  private MappedSegment currentSegment;
+  private long nextSequence;
+  private volatile boolean closed;
+
+  private MappedNotesRepository(final Builder builder) {
+    this.directory = Objects.requireNonNull(builder.directory, "segments directory should be configured");
+    if (builder.segmentSize <= 0 || builder.segmentSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Segment size should be between 1 and " + Integer.MAX_VALUE + " bytes");
+    }
+    this.segmentSize = (int) builder.segmentSize;
+    this.compactionThreshold = builder.compactionThreshold;
+    this.locations = new ConcurrentHashMap<>();
+    this.noteIdsPerUserId = new ConcurrentHashMap<>();
+    this.segments = new ConcurrentSkipListMap<>();
+
+    try {
+      Files.createDirectories(directory);
+      lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE);
+      directoryLock = lockChannel.tryLock();
+      if (directoryLock == null) {
+        lockChannel.close();
+        throw new InternalServerErrorException("Segments directory " + directory + " is used by another process");
+      }
+
+      recover();
+      final long currentSegmentId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+      currentSegment = MappedSegment.create(directory, currentSegmentId, segmentSize);
+      segments.put(currentSegmentId, currentSegment);
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+
+    if (builder.compactionIntervalMillis > 0) {
+      compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "notes-compactor");
+        thread.setDaemon(true);
+        return thread;
+      });
+      compactor.scheduleWithFixedDelay(this::compactInBackground, builder.compactionIntervalMillis,
+          builder.compactionIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      compactor = null;
+    }
+  }
+
+  @Override
+  public boolean putIfAbsent(final String key, final NotesDetails value) {
+    synchronized (writeLock) {
+      if (locations.containsKey(key)) {
+        return false;
+      }
+      write(key, value);
+
+      return true;
+    }
+  }
+
+  @Override
+  public Optional<NotesDetails> findById(final String key) {
+    final Location location = locations.get(key);
+
+    return location == null ? Optional.empty() : Optional.of(location.read());
+  }
+
+  @Override
+  public void put(final String key, final NotesDetails value) {
+    synchronized (writeLock) {
+      write(key, value);
+    }
+  }
+
+  @Override
+  public Collection<NotesDetails> findAll(final UserId userId) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return Collections.emptyList();
+    }
+
+    final List<String> ids;
+    synchronized (noteIds) {
+      ids = noteIds.toList();
+    }
+
+    return readAll(ids, Location::read);
+  }
+
+  @Override
+  public NotesDetailsPage findPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return NotesDetailsPage.empty();
+    }
+
+    final NoteIdIndex.Page page;
+    synchronized (noteIds) {
+      page = noteIds.page(cursor, limit);
+    }
+
+    return new NotesDetailsPage(readAll(page.getIds(), Location::read), page.getNext().orElse(null));
+  }
+
+  @Override
+  public NotesDetailsPage findSummaryPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    final NoteIdIndex noteIds = noteIdsPerUserId.get(userId);
+
+    if (noteIds == null) {
+      return NotesDetailsPage.empty();
+    }
+
+    final NoteIdIndex.Page page;
+    synchronized (noteIds) {
+      page = noteIds.page(cursor, limit);
+    }
+
+    return new NotesDetailsPage(readAll(page.getIds(), Location::readSummary), page.getNext().orElse(null));
+  }
+
+  @Override
+  public void delete(final String key) {
+    synchronized (writeLock) {
+      ensureOpen();
+
+      final Location previous = locations.get(key);
+      if (previous == null) {
+        return;
+      }
+      final UserId userId = previous.segment.readUserId(previous.offset);
+
+      append(MappedSegment.delete(key), false);
+      locations.remove(key);
+      release(previous);
+      removeNoteId(userId, key);
+    }
+  }
+
+  /**
+   * Rewrites the live records of the segments whose share of garbage reaches the compaction threshold and deletes
+   * them. Writers are only held while a single record is copied.
+   */
+  public void compact() {
+    final List<MappedSegment> candidates;
+    synchronized (writeLock) {
+      ensureOpen();
+      candidates = segments.values().stream()
+          .filter(segment -> segment != currentSegment && segment.getGarbageRatio() >= compactionThreshold)
+          .collect(Collectors.toList());
+    }
+
+    for (MappedSegment segment : candidates) {
+      compact(segment);
+    }
+  }
+
+  /**
+   * @return the number of segment files, the current one included
+   */
+  public int getSegmentCount() {
+    return segments.size();
+  }
+
+  @Override
+  public void close() {
+    if (compactor != null) {
+      compactor.shutdown();
+    }
+
+    synchronized (writeLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (currentSegment.getGarbageRatio() == 1 && currentSegment.remaining() == segmentSize) {
+        currentSegment.delete();
+      } else {
+        currentSegment.force();
+      }
+    }
+
+    try {
+      directoryLock.release();
+      lockChannel.close();
+    } catch (IOException e) {
+      LOGGER.warn("Unable to release the lock of segments directory {}", directory, e);
+    }
+  }
+
+  private List<NotesDetails> readAll(final List<String> ids, final Function<Location, NotesDetails> reader) {
+    return ids.stream()
+        .map(locations::get)
+        .filter(Objects::nonNull)
+        .map(reader)
+        .collect(Collectors.toList());
+  }
+
+  private void write(final String key, final NotesDetails value) {
+    ensureOpen();
+
+    final Location previous = locations.get(key);
+    final UserId previousUserId = previous == null ? null : previous.segment.readUserId(previous.offset);
+    // an overwritten note keeps its place among the notes of its user
+    final long sequence = value.getUserId().equals(previousUserId)
+        ? previous.segment.readSequence(previous.offset)
+        : nextSequence++;
+
+    locations.put(key, append(MappedSegment.put(sequence, value), true));
+    if (previous != null) {
+      release(previous);
+    }
+
+    final NoteIdIndex noteIds = getOrCreateNoteIds(value.getUserId());
+    synchronized (noteIds) {
+      noteIds.add(key);
+    }
+    if (previousUserId != null && !previousUserId.equals(value.getUserId())) {
+      removeNoteId(previousUserId, key);
+    }
+  }
+
+  private Location append(final byte[] frame, final boolean live) {
+    if (currentSegment.remaining() < frame.length) {
+      rollSegment(frame.length);
+    }
+
+    final int offset = currentSegment.append(frame);
+    if (live) {
+      currentSegment.addLiveBytes(frame.length);
+    }
+    return new Location(currentSegment, offset);
+  }
+
+  private void rollSegment(final int minimumCapacity) {
+    currentSegment.force();
+
+    final long segmentId = currentSegment.getId() + 1;
+    try {
+      currentSegment = MappedSegment.create(directory, segmentId, Math.max(segmentSize, minimumCapacity));
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+    segments.put(segmentId, currentSegment);
+  }
+
+  private void compact(final MappedSegment segment) {
+    final long start = System.nanoTime();
+
+    segment.scan((offset, type, noteId) -> {
+      synchronized (writeLock) {
+        if (closed) {
+          return;
+        }
+        if (type == MappedSegment.PUT) {
+          final Location location = locations.get(noteId);
+
+          if (location != null && location.segment == segment && location.offset == offset) {
+            locations.put(noteId, append(segment.copyFrame(offset), true));
+          }
+        } else if (!locations.containsKey(noteId) && segments.firstKey() < segment.getId()) {
+          // an older segment may still hold a put of this note which the delete has to keep hiding on recovery
+          append(segment.copyFrame(offset), false);
+        }
+      }
+    });
+
+    synchronized (writeLock) {
+      if (closed) {
+        return;
+      }
+      // the copies have to be on disk before the only other copy of them is deleted
+      currentSegment.force();
+      segments.remove(segment.getId());
+    }
+    segment.delete();
+
+    LOGGER.info("Segment {} compacted in {} ms", segment.getId(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private void compactInBackground() {
+    try {
+      compact();
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to compact notes segments", e);
+    }
+  }
+
+  private void recover() throws IOException {
+    final long start = System.nanoTime();
+
+    final List<Long> segmentIds;
+    try (Stream<Path> files = Files.list(directory)) {
+      segmentIds = files
+          .map(path -> path.getFileName().toString())
+          .filter(name -> name.endsWith(MappedSegment.SEGMENT_SUFFIX))
+          .map(name -> Long.parseLong(name.substring(0, name.length() - MappedSegment.SEGMENT_SUFFIX.length())))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+
+    for (long segmentId : segmentIds) {
+      final MappedSegment segment = MappedSegment.open(MappedSegment.segmentPath(directory, segmentId), segmentId);
+      segments.put(segmentId, segment);
+
+      segment.scan((offset, type, noteId) -> {
+        final Location previous;
+        if (type == MappedSegment.PUT) {
+          previous = locations.put(noteId, new Location(segment, offset));
+          segment.addLiveBytes(segment.frameSize(offset));
+        } else {
+          previous = locations.remove(noteId);
+        }
+        if (previous != null) {
+          release(previous);
+        }
+      });
+    }
+
+    final List<Map.Entry<String, Location>> notes = new ArrayList<>(locations.entrySet());
+    notes.sort(Comparator.comparingLong(note -> note.getValue().readSequence()));
+    for (Map.Entry<String, Location> note : notes) {
+      final Location location = note.getValue();
+      getOrCreateNoteIds(location.segment.readUserId(location.offset)).add(note.getKey());
+    }
+    nextSequence = notes.isEmpty() ? 0 : notes.get(notes.size() - 1).getValue().readSequence() + 1;
+
+    LOGGER.info("Recovered {} notes from {} segments in {} ms", notes.size(), segmentIds.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private void release(final Location location) {
+    location.segment.releaseLiveBytes(location.segment.frameSize(location.offset));
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new InternalServerErrorException("Notes segments " + directory + " are closed");
+    }
+  }
+
+  private NoteIdIndex getOrCreateNoteIds(final UserId userId) {
+    return noteIdsPerUserId.computeIfAbsent(userId, (k) -> new NoteIdIndex());
+  }
+
+  private void removeNoteId(final UserId userId, final String id) {
+    final NoteIdIndex noteIds = getOrCreateNoteIds(userId);
+
+    synchronized (noteIds) {
+      noteIds.remove(id);
+    }
+  }
+
+  private static final class Location {
+    private final MappedSegment segment;
+    private final int offset;
+
+    private Location(final MappedSegment segment, final int offset) {
+      this.segment = segment;
+      this.offset = offset;
+    }
+
+    private NotesDetails read() {
+      return segment.read(offset);
+    }
+
+    private NotesDetails readSummary() {
+      return segment.readSummary(offset);
+    }
+
+    private long readSequence() {
+      return segment.readSequence(offset);
+    }
+  }
+
+  public static final class Builder {
+    private final Path directory;
+    private long segmentSize = 64L * 1024 * 1024;
+    private long compactionIntervalMillis = 60 * 1000;
+    private double compactionThreshold = 0.5;
+
+    public Builder(final Path directory) {
+      this.directory = directory;
+    }
+
+    public Builder withSegmentSize(long segmentSize) {
+      this.segmentSize = segmentSize;
+
+      return this;
+    }
+
+    public Builder withCompactionIntervalMillis(long compactionIntervalMillis) {
+      this.compactionIntervalMillis = compactionIntervalMillis;
+
+      return this;
+    }
+
+    public Builder withCompactionThreshold(double compactionThreshold) {
+      this.compactionThreshold = compactionThreshold;
+
+      return this;
+    }
+
+    public MappedNotesRepository build() {
+      return new MappedNotesRepository(this);
+    }
+  }
+}
@@ -0,0 +1,331 @@
+package com.enotes.note.repository.notes.mapped;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append only segment file of note records mapped in memory. Every record is framed by its length and its CRC32,
+ * a put record holds the creation sequence of the note followed by its id, user id, title and body and a delete record
+ * holds the id of the deleted note. Strings are written as their UTF-8 length followed by their bytes, -1 standing for
+ * {@code null}.
+ *
+ * <p>Records are decoded straight from the mapped region. The mapping stays valid once the segment is deleted, so a
+ * reader holding an offset into a compacted segment still reads the note it was looking for.
+ *
+ * <p>Appends and the live byte count are guarded by the lock of the owning {@link MappedNotesRepository}, reads of
+ * records already appended need no lock.
+ */
+final class MappedSegment {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MappedSegment.class);
+
+  static final String SEGMENT_SUFFIX = ".segment";
+  static final byte PUT = 1;
+  static final byte DELETE = 2;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  private final long id;
+  private final Path path;
+  private final MappedByteBuffer buffer;
+  private int writePosition;
+  private long liveBytes;
+
+  private MappedSegment(final long id, final Path path, final MappedByteBuffer buffer, final int writePosition) {
+    this.id = id;
+    this.path = path;
+    this.buffer = buffer;
+    this.writePosition = writePosition;
+  }
+
+  /**
+   * Creates and maps a new empty segment
+   */
+  static MappedSegment create(final Path directory, final long id, final int capacity) throws IOException {
+    final Path path = segmentPath(directory, id);
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      return new MappedSegment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), 0);
+    }
+  }
+
+  /**
+   * Maps an existing segment read only, truncating it after its last valid record
+   */
+  static MappedSegment open(final Path path, final long id) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      final long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Segment " + path + " is larger than " + Integer.MAX_VALUE + " bytes");
+      }
+
+      final int end = validLength(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+      if (end < size) {
+        channel.truncate(end);
+      }
+      return new MappedSegment(id, path, channel.map(FileChannel.MapMode.READ_ONLY, 0, end), end);
+    }
+  }
+
+  static Path segmentPath(final Path directory, final long id) {
+    return directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+  }
+
+  static byte[] put(final long sequence, final NotesDetails notesDetails) {
+    final byte[] id = encode(notesDetails.getId());
+    final byte[] userId = encode(notesDetails.getUserId().getId());
+    final byte[] title = encode(notesDetails.getTitle());
+    final byte[] body = encode(notesDetails.getBody());
+
+    final ByteBuffer payload = ByteBuffer.allocate(1 + Long.BYTES + encodedSize(id) + encodedSize(userId)
+        + encodedSize(title) + encodedSize(body));
+    payload.put(PUT).putLong(sequence);
+    writeString(payload, id);
+    writeString(payload, userId);
+    writeString(payload, title);
+    writeString(payload, body);
+
+    return frame(payload.array());
+  }
+
+  static byte[] delete(final String noteId) {
+    final byte[] id = encode(noteId);
+
+    final ByteBuffer payload = ByteBuffer.allocate(1 + encodedSize(id));
+    payload.put(DELETE);
+    writeString(payload, id);
+
+    return frame(payload.array());
+  }
+
+  long getId() {
+    return id;
+  }
+
+  int remaining() {
+    return buffer.capacity() - writePosition;
+  }
+
+  /**
+   * Copies a framed record at the end of the segment, which must have room for it
+   * @return the offset of the record
+   */
+  int append(final byte[] frame) {
+    final int offset = writePosition;
+    final ByteBuffer target = buffer.duplicate();
+    target.position(offset);
+    target.put(frame);
+    writePosition += frame.length;
+
+    return offset;
+  }
+
+  /**
+   * Visits the records of the segment in the order they were appended
+   */
+  void scan(final RecordVisitor visitor) {
+    final ByteBuffer records = buffer.duplicate();
+    final int end = writePosition;
+
+    int offset = 0;
+    while (offset < end) {
+      final int frameSize = HEADER_SIZE + records.getInt(offset);
+      records.position(offset + HEADER_SIZE);
+
+      final byte type = records.get();
+      if (type == PUT) {
+        records.getLong();
+      }
+      visitor.visit(offset, type, readString(records));
+      offset += frameSize;
+    }
+  }
+
+  NotesDetails read(final int offset) {
+    return read(offset, true);
+  }
+
+  /**
+   * Reads a put record without its body, which is left in the mapped region
+   */
+  NotesDetails readSummary(final int offset) {
+    return read(offset, false);
+  }
+
+  UserId readUserId(final int offset) {
+    final ByteBuffer record = recordAt(offset);
+    record.getLong();
+    skipString(record);
+
+    return new UserId(readString(record));
+  }
+
+  long readSequence(final int offset) {
+    return recordAt(offset).getLong();
+  }
+
+  int frameSize(final int offset) {
+    return HEADER_SIZE + buffer.getInt(offset);
+  }
+
+  byte[] copyFrame(final int offset) {
+    final byte[] frame = new byte[frameSize(offset)];
+    final ByteBuffer source = buffer.duplicate();
+    source.position(offset);
+    source.get(frame);
+
+    return frame;
+  }
+
+  void addLiveBytes(final int bytes) {
+    liveBytes += bytes;
+  }
+
+  void releaseLiveBytes(final int bytes) {
+    liveBytes -= bytes;
+  }
+
+  /**
+   * @return the share of the appended bytes that no longer hold a live note, 1 for an empty segment
+   */
+  double getGarbageRatio() {
+    return writePosition == 0 ? 1 : 1 - (double) liveBytes / writePosition;
+  }
+
+  void force() {
+    if (!buffer.isReadOnly()) {
+      buffer.force();
+    }
+  }
+
+  void delete() {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to delete segment {}", path, e);
+    }
+  }
+
+  private NotesDetails read(final int offset, final boolean withBody) {
+    final ByteBuffer record = recordAt(offset);
+    record.getLong();
+    final String id = readString(record);
+    final UserId userId = new UserId(readString(record));
+    final String title = readString(record);
+
+    return new NotesDetails.Builder(id, userId)
+        .withTitle(title)
+        .withBody(withBody ? readString(record) : null)
+        .build();
+  }
+
+  private ByteBuffer recordAt(final int offset) {
+    final ByteBuffer record = buffer.duplicate();
+    // skip the frame header and the record type
+    record.position(offset + HEADER_SIZE + 1);
+
+    return record;
+  }
+
+  /**
+   * @return the offset right after the last valid record
+   */
+  private static int validLength(final Path path, final ByteBuffer segment) {
+    final int size = segment.capacity();
+    int offset = 0;
+
+    while (offset + HEADER_SIZE <= size) {
+      final int length = segment.getInt(offset);
+      if (length == 0) {
+        // the unused end of a segment that was mapped larger than its records
+        return offset;
+      }
+      if (length < 0 || offset + HEADER_SIZE + length > size || checksum(segment, offset) != segment.getInt(
+          offset + Integer.BYTES)) {
+        LOGGER.warn("Truncating torn tail of segment {} at {}", path, offset);
+        return offset;
+      }
+      offset += HEADER_SIZE + length;
+    }
+    return offset;
+  }
+
+  private static int checksum(final ByteBuffer segment, final int offset) {
+    final ByteBuffer payload = segment.duplicate();
+    payload.position(offset + HEADER_SIZE);
+    payload.limit(offset + HEADER_SIZE + segment.getInt(offset));
+
+    final CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  private static byte[] frame(final byte[] payload) {
+    final CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+
+    return ByteBuffer.allocate(HEADER_SIZE + payload.length)
+        .putInt(payload.length)
+        .putInt((int) crc.getValue())
+        .put(payload)
+        .array();
+  }
+
+  private static byte[] encode(final String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int encodedSize(final byte[] value) {
+    return Integer.BYTES + (value == null ? 0 : value.length);
+  }
+
+  private static void writeString(final ByteBuffer output, final byte[] value) {
+    if (value == null) {
+      output.putInt(-1);
+      return;
+    }
+    output.putInt(value.length);
+    output.put(value);
+  }
+
+  private static String readString(final ByteBuffer input) {
+    final int length = input.getInt();
+    if (length < 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    input.get(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void skipString(final ByteBuffer input) {
+    final int length = input.getInt();
+    if (length > 0) {
+      input.position(input.position() + length);
+    }
+  }
+
+  interface RecordVisitor {
+
+    /**
+     * @param offset the offset of the record in the segment
+     * @param type {@link #PUT} or {@link #DELETE}
+     * @param noteId the id of the note the record is about
+     */
+    void visit(int offset, byte type, String noteId);
+  }
+}
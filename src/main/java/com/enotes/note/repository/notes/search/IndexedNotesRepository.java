@@ -0,0 +1,180 @@
+package com.enotes.note.repository.notes.search;
+
+import com.enotes.note.repository.notes.NotesCursor;
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.NotesDetailsPage;
+import com.enotes.note.repository.notes.NotesRepository;
+import com.enotes.note.repository.notes.UserId;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link NotesRepository} decorator that keeps search indexes of the notes of every user and answers
+ * {@link NotesSearcher} queries from them: an inverted index of the titles and bodies, a trigram index of the
+ * titles and a trie of the titles.
+ *
+ * <p>The indexes of a user are built from the decorated repository the first time that user searches, so users that
+ * never search cost nothing. From then on they are updated on every {@link #put(String, NotesDetails)},
+ * {@link #putIfAbsent(String, NotesDetails)} and {@link #delete(String)}: under the monitor of the indexes, the note
+ * is read back from the decorated repository and re-indexed or removed. Re-reading rather than indexing the written
+ * value keeps the indexes in line with the repository whatever the order concurrent writes of a note reach them in.
+ */
+public class IndexedNotesRepository implements NotesRepository, NotesSearcher {
+
+  private static final int BUILD_PAGE_SIZE = 1024;
+
+  private final NotesRepository notesRepository;
+  private final ConcurrentMap<UserId, UserNotesIndex> indexPerUserId;
+
+  public IndexedNotesRepository(final NotesRepository notesRepository) {
+    this.notesRepository = notesRepository;
+    this.indexPerUserId = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public boolean putIfAbsent(final String key, final NotesDetails value) {
+    final boolean added = notesRepository.putIfAbsent(key, value);
+
+    if (added) {
+      refresh(value.getUserId(), key);
+    }
+    return added;
+  }
+
+  @Override
+  public Optional<NotesDetails> findById(final String key) {
+    return notesRepository.findById(key);
+  }
+
+  @Override
+  public void put(final String key, final NotesDetails value) {
+    final Optional<NotesDetails> previous = notesRepository.findById(key);
+    notesRepository.put(key, value);
+
+    refresh(value.getUserId(), key);
+    previous.map(NotesDetails::getUserId)
+        .filter(userId -> !userId.equals(value.getUserId()))
+        .ifPresent(userId -> refresh(userId, key));
+  }
+
+  @Override
+  public Collection<NotesDetails> findAll(final UserId userId) {
+    return notesRepository.findAll(userId);
+  }
+
+  @Override
+  public NotesDetailsPage findPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    return notesRepository.findPage(userId, cursor, limit);
+  }
+
+  @Override
+  public NotesDetailsPage findSummaryPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    return notesRepository.findSummaryPage(userId, cursor, limit);
+  }
+
+  @Override
+  public void delete(final String key) {
+    final Optional<NotesDetails> previous = notesRepository.findById(key);
+    notesRepository.delete(key);
+
+    previous.ifPresent(notesDetails -> refresh(notesDetails.getUserId(), key));
+  }
+
+  @Override
+  public List<NotesDetails> search(final UserId userId, final String query, final int limit) {
+    final Set<String> terms = Tokenizer.distinctTerms(query);
+    if (terms.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<String> ids = withIndex(userId, index -> index.getContentIndex().search(terms, limit));
+
+    return ids.stream()
+        .map(notesRepository::findById)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .filter(notesDetails -> notesDetails.getUserId().equals(userId))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<NotesDetails> findByTitleFragment(final UserId userId, final String fragment, final int limit) {
+    return withIndex(userId, index -> index.getTitleIndex().findContaining(fragment, limit));
+  }
+
+  @Override
+  public List<NotesDetails> findBySimilarTitle(final UserId userId, final String title, final int maxDistance,
+      final int limit) {
+    return withIndex(userId, index -> index.getTitleIndex().findSimilar(title, maxDistance, limit));
+  }
+
+  @Override
+  public List<NotesDetails> suggestByTitlePrefix(final UserId userId, final String prefix, final int limit) {
+    return withIndex(userId, index -> index.getTitlePrefixIndex().suggest(prefix, limit));
+  }
+
+  /**
+   * Queries the indexes of the user under their monitor, building them first if needed
+   */
+  private <T> T withIndex(final UserId userId, final Function<UserNotesIndex, T> query) {
+    final UserNotesIndex index = indexPerUserId.computeIfAbsent(userId, UserNotesIndex::new);
+
+    synchronized (index) {
+      if (!index.isBuilt()) {
+        build(userId, index);
+      }
+      return query.apply(index);
+    }
+  }
+
+  /**
+   * Indexes every note of the user, page by page. Writes racing with the build either reach the repository before the
+   * page holding their note is read or wait for the build to end to refresh the index
+   */
+  private void build(final UserId userId, final UserNotesIndex index) {
+    NotesDetailsPage page = notesRepository.findPage(userId, null, BUILD_PAGE_SIZE);
+    while (true) {
+      for (NotesDetails notesDetails : page.getNotes()) {
+        index.put(notesDetails);
+      }
+      if (!page.getNext().isPresent()) {
+        break;
+      }
+      page = notesRepository.findPage(userId, page.getNext().get(), BUILD_PAGE_SIZE);
+    }
+    index.markBuilt();
+  }
+
+  /**
+   * Brings the entry of the note in the indexes of the user in line with the repository, if those indexes were built
+   */
+  private void refresh(final UserId userId, final String noteId) {
+    final UserNotesIndex index = indexPerUserId.get(userId);
+    if (index == null) {
+      return;
+    }
+
+    synchronized (index) {
+      if (!index.isBuilt()) {
+        // the build has not read the notes yet and will pick this one up
+        return;
+      }
+
+      final Optional<NotesDetails> current = notesRepository.findById(noteId)
+          .filter(notesDetails -> notesDetails.getUserId().equals(userId));
+      if (current.isPresent()) {
+        index.put(current.get());
+      } else {
+        index.remove(noteId);
+      }
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package com.enotes.note.repository.notes.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Inverted index of the notes of a single user, ranking them with BM25.
+ *
+ * <p>Every indexed note gets a document number, numbers are handed out in increasing order and a note that is
+ * re-indexed gets a new one, so the posting list of every term stays sorted by document number. Removing a note only
+ * marks its number as dead: a posting list is purged once more than half of its entries are dead and all the numbers
+ * are reassigned once more than half of them are dead.
+ *
+ * <p>Not thread safe, callers guard every index with its own monitor.
+ */
+final class NotesSearchIndex {
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int MIN_RENUMBERING_SIZE = 1024;
+
+  private final Map<String, Integer> documents = new HashMap<>();
+  private final Map<String, Postings> postings = new HashMap<>();
+  // per document number, a null note id marks a removed note
+  private String[] noteIds = new String[INITIAL_CAPACITY];
+  private int[] lengths = new int[INITIAL_CAPACITY];
+  private String[][] terms = new String[INITIAL_CAPACITY][];
+  private int nextDocument;
+  private long totalLength;
+  // scratch space of search, reset after every query
+  private double[] scores = new double[INITIAL_CAPACITY];
+  private int[] scored = new int[INITIAL_CAPACITY];
+
+  int size() {
+    return documents.size();
+  }
+
+  /**
+   * Indexes {@code text} as the content of the note, replacing what was indexed for it before
+   */
+  void put(final String noteId, final String text) {
+    remove(noteId);
+
+    final Map<String, Integer> frequencies = new HashMap<>();
+    final List<String> noteTerms = Tokenizer.terms(text);
+    for (String term : noteTerms) {
+      frequencies.merge(term, 1, Integer::sum);
+    }
+
+    final int document = nextDocument++;
+    ensureCapacity(nextDocument);
+    noteIds[document] = noteId;
+    lengths[document] = noteTerms.size();
+    totalLength += noteTerms.size();
+
+    final String[] distinctTerms = new String[frequencies.size()];
+    int i = 0;
+    for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+      final Postings termPostings = postings.computeIfAbsent(frequency.getKey(), Postings::new);
+      termPostings.add(document, frequency.getValue());
+      // share the term instance of the postings rather than holding a copy of it per note
+      distinctTerms[i++] = termPostings.getTerm();
+    }
+    terms[document] = distinctTerms;
+    documents.put(noteId, document);
+  }
+
+  /**
+   * @return true if the note was indexed
+   */
+  boolean remove(final String noteId) {
+    final Integer document = documents.remove(noteId);
+    if (document == null) {
+      return false;
+    }
+
+    noteIds[document] = null;
+    totalLength -= lengths[document];
+    for (String term : terms[document]) {
+      final Postings termPostings = postings.get(term);
+      termPostings.markDead(noteIds);
+      if (termPostings.live() == 0) {
+        postings.remove(term);
+      }
+    }
+    terms[document] = null;
+
+    if (nextDocument > MIN_RENUMBERING_SIZE && nextDocument > 2 * documents.size()) {
+      renumber();
+    }
+    return true;
+  }
+
+  /**
+   * @return the ids of at most {@code limit} notes matching any of the terms, best match first
+   */
+  List<String> search(final Collection<String> queryTerms, final int limit) {
+    if (documents.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    final int documentCount = documents.size();
+    final double averageLength = Math.max(1, (double) totalLength / documentCount);
+    int scoredCount = 0;
+
+    for (String term : queryTerms) {
+      final Postings termPostings = postings.get(term);
+      if (termPostings == null) {
+        continue;
+      }
+
+      final int frequency = termPostings.live();
+      final double idf = Math.log(1 + (documentCount - frequency + 0.5) / (frequency + 0.5));
+      for (int i = 0; i < termPostings.size(); i++) {
+        final int document = termPostings.document(i);
+        if (noteIds[document] == null) {
+          continue;
+        }
+
+        final int termFrequency = termPostings.frequency(i);
+        final double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+        if (scores[document] == 0) {
+          scored[scoredCount++] = document;
+        }
+        scores[document] += idf * termFrequency * (K1 + 1) / (termFrequency + norm);
+      }
+    }
+
+    // min heap of the best matches so far, the worst of them at its head
+    final PriorityQueue<Match> best = new PriorityQueue<>(Math.min(limit, scoredCount) + 1);
+    for (int i = 0; i < scoredCount; i++) {
+      final int document = scored[i];
+      final Match match = new Match(document, scores[document]);
+      scores[document] = 0;
+
+      if (best.size() < limit) {
+        best.add(match);
+      } else if (match.compareTo(best.peek()) > 0) {
+        best.poll();
+        best.add(match);
+      }
+    }
+
+    final String[] ids = new String[best.size()];
+    for (int i = ids.length - 1; i >= 0; i--) {
+      ids[i] = noteIds[best.poll().document];
+    }
+    return Arrays.asList(ids);
+  }
+
+  private void ensureCapacity(final int capacity) {
+    if (capacity <= noteIds.length) {
+      return;
+    }
+
+    final int grown = Math.max(capacity, noteIds.length * 2);
+    noteIds = Arrays.copyOf(noteIds, grown);
+    lengths = Arrays.copyOf(lengths, grown);
+    terms = Arrays.copyOf(terms, grown);
+    scores = Arrays.copyOf(scores, grown);
+    scored = Arrays.copyOf(scored, grown);
+  }
+
+  /**
+   * Reassigns the document numbers of the live notes from 0, keeping their order
+   */
+  private void renumber() {
+    final int[] renumbered = new int[nextDocument];
+    int next = 0;
+    for (int document = 0; document < nextDocument; document++) {
+      if (noteIds[document] == null) {
+        renumbered[document] = -1;
+      } else {
+        renumbered[document] = next;
+        noteIds[next] = noteIds[document];
+        lengths[next] = lengths[document];
+        terms[next] = terms[document];
+        documents.put(noteIds[next], next);
+        next++;
+      }
+    }
+    Arrays.fill(noteIds, next, nextDocument, null);
+    Arrays.fill(terms, next, nextDocument, null);
+
+    for (Postings termPostings : postings.values()) {
+      termPostings.renumber(renumbered);
+    }
+    nextDocument = next;
+  }
+
+  private static final class Match implements Comparable<Match> {
+
+    private final int document;
+    private final double score;
+
+    private Match(final int document, final double score) {
+      this.document = document;
+      this.score = score;
+    }
+
+    /**
+     * Orders by score, older notes first on equal scores
+     */
+    @Override
+    public int compareTo(final Match other) {
+      final int byScore = Double.compare(score, other.score);
+
+      return byScore != 0 ? byScore : Integer.compare(other.document, document);
+    }
+  }
+}
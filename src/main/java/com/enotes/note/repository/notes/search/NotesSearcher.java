@@ -0,0 +1,58 @@
+package com.enotes.note.repository.notes.search;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import java.util.List;
+
+public interface NotesSearcher {
+
+  /**
+   * Beyond 2 edits the trigrams of most titles no longer narrow down the titles to compare with
+   */
+  int MAX_TITLE_DISTANCE = 2;
+
+  /**
+   * Number of suggestions kept for every prefix
+   */
+  int MAX_SUGGESTIONS = 10;
+
+  /**
+   * Returns the notes of the user with id {@code userId} whose title or body contain any of the terms of
+   * {@code query}, ranked by relevance
+   * @param userId the user id
+   * @param query free text, split in terms the same way the notes are
+   * @param limit the maximum number of notes returned, at least 1
+   * @return at most {@code limit} notes, best match first
+   */
+  List<NotesDetails> search(UserId userId, String query, int limit);
+
+  /**
+   * Returns the notes of the user with id {@code userId} whose title contains {@code fragment}, ignoring case
+   * @param userId the user id
+   * @param fragment the text to look for, not empty
+   * @param limit the maximum number of notes returned, at least 1
+   * @return at most {@code limit} notes without their body, most recently written first
+   */
+  List<NotesDetails> findByTitleFragment(UserId userId, String fragment, int limit);
+
+  /**
+   * Returns the notes of the user with id {@code userId} whose title is at most {@code maxDistance} insertions,
+   * deletions or substitutions of a character away from {@code title}, ignoring case
+   * @param userId the user id
+   * @param title the title to compare with, not empty
+   * @param maxDistance the maximum edit distance, between 0 and {@link #MAX_TITLE_DISTANCE}
+   * @param limit the maximum number of notes returned, at least 1
+   * @return at most {@code limit} notes without their body, closest title first
+   */
+  List<NotesDetails> findBySimilarTitle(UserId userId, String title, int maxDistance, int limit);
+
+  /**
+   * Returns the notes of the user with id {@code userId} whose title starts with {@code prefix}, ignoring case
+   * @param userId the user id
+   * @param prefix the start of the title, not empty
+   * @param limit the maximum number of notes returned, between 1 and {@link #MAX_SUGGESTIONS}
+   * @return at most {@code limit} notes without their body, most recently written first
+   */
+  List<NotesDetails> suggestByTitlePrefix(UserId userId, String prefix, int limit);
+}
@@ -0,0 +1,101 @@
+package com.enotes.note.repository.notes.search;
+
+import java.util.Arrays;
+
+/**
+ * Posting list of a term: the numbers of the documents holding it in increasing order, each with the number of times
+ * it holds the term. Entries of removed documents stay in the list, counted as dead, until the list is purged or
+ * renumbered by its index.
+ */
+final class Postings {
+
+  private final String term;
+  private int[] documents = new int[2];
+  private int[] frequencies = new int[2];
+  private int size;
+  private int dead;
+
+  Postings(final String term) {
+    this.term = term;
+  }
+
+  String getTerm() {
+    return term;
+  }
+
+  /**
+   * @return the number of entries, dead ones included
+   */
+  int size() {
+    return size;
+  }
+
+  int live() {
+    return size - dead;
+  }
+
+  int document(final int index) {
+    return documents[index];
+  }
+
+  int frequency(final int index) {
+    return frequencies[index];
+  }
+
+  /**
+   * Appends an entry, {@code document} being greater than every document of the list
+   */
+  void add(final int document, final int frequency) {
+    if (size == documents.length) {
+      documents = Arrays.copyOf(documents, size * 2);
+      frequencies = Arrays.copyOf(frequencies, size * 2);
+    }
+    documents[size] = document;
+    frequencies[size] = frequency;
+    size++;
+  }
+
+  /**
+   * Counts one more entry as dead, purging the list once more than half of its entries are
+   * @param noteIds the note id of every document number, null for removed documents
+   */
+  void markDead(final String[] noteIds) {
+    dead++;
+    if (dead > size / 2 && dead < size) {
+      purge(noteIds);
+    }
+  }
+
+  /**
+   * Maps every entry to its new document number, dropping the entries of removed notes which map to -1
+   */
+  void renumber(final int[] renumbered) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      final int document = renumbered[documents[i]];
+      if (document >= 0) {
+        documents[kept] = document;
+        frequencies[kept] = frequencies[i];
+        kept++;
+      }
+    }
+    size = kept;
+    dead = 0;
+  }
+
+  /**
+   * Drops the entries of removed notes
+   */
+  private void purge(final String[] noteIds) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      if (noteIds[documents[i]] != null) {
+        documents[kept] = documents[i];
+        frequencies[kept] = frequencies[i];
+        kept++;
+      }
+    }
+    size = kept;
+    dead = 0;
+  }
+}
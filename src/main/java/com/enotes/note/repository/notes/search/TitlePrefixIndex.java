@@ -0,0 +1,271 @@
+package com.enotes.note.repository.notes.search;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trie of the lower case titles of the notes of a single user, suggesting the most recently written titles starting
+ * with a prefix.
+ *
+ * <p>Every node keeps the {@link NotesSearcher#MAX_SUGGESTIONS} most recently written titles of its subtree, so a
+ * suggestion costs one step per character of the prefix whatever the number of notes. Writing a title puts it in
+ * front of the suggestions of every node on its path, removing one recomputes the suggestions of the nodes on its path
+ * that held it from the suggestions of their children. The trie stops at {@link #MAX_DEPTH} characters: the nodes at
+ * that depth hold every title going through them and longer prefixes are matched against those titles.
+ *
+ * <p>Children are kept in sorted arrays rather than maps and nodes left without titles are dropped.
+ *
+ * <p>Not thread safe, callers guard every index with its own monitor.
+ */
+final class TitlePrefixIndex {
+
+  private static final int MAX_DEPTH = 32;
+
+  private final UserId userId;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final Node root = new Node();
+  private long nextSequence;
+
+  TitlePrefixIndex(final UserId userId) {
+    this.userId = userId;
+  }
+
+  /**
+   * Indexes the title of the note as the most recently written one, replacing what was indexed for it before. Notes
+   * without a title are not indexed
+   */
+  void put(final String noteId, final String title) {
+    remove(noteId);
+    if (title == null) {
+      return;
+    }
+
+    final Entry entry = new Entry(noteId, title, title.toLowerCase(Locale.ROOT), nextSequence++);
+    entries.put(noteId, entry);
+
+    Node node = root;
+    node.addSuggestion(entry);
+    for (int depth = 0; depth < Math.min(entry.key.length(), MAX_DEPTH); depth++) {
+      node = node.getOrCreateChild(entry.key.charAt(depth));
+      node.addSuggestion(entry);
+    }
+    node.addEntry(entry);
+  }
+
+  /**
+   * @return true if the title of the note was indexed
+   */
+  boolean remove(final String noteId) {
+    final Entry entry = entries.remove(noteId);
+    if (entry == null) {
+      return false;
+    }
+
+    final int depth = Math.min(entry.key.length(), MAX_DEPTH);
+    final Node[] path = new Node[depth + 1];
+    path[0] = root;
+    for (int i = 0; i < depth; i++) {
+      path[i + 1] = path[i].getChild(entry.key.charAt(i));
+    }
+    path[depth].removeEntry(entry);
+
+    // bottom up, so that every node is recomputed from children that are already up to date
+    for (int i = depth; i >= 0; i--) {
+      final Node node = path[i];
+      if (i > 0 && node.isEmpty()) {
+        path[i - 1].removeChild(entry.key.charAt(i - 1));
+      } else if (node.hasSuggestion(entry)) {
+        node.recomputeSuggestions();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return at most {@code limit} notes, without their body, whose title starts with {@code prefix} whatever the
+   * case, most recently written first
+   */
+  List<NotesDetails> suggest(final String prefix, final int limit) {
+    final String key = prefix.toLowerCase(Locale.ROOT);
+
+    Node node = root;
+    for (int depth = 0; depth < Math.min(key.length(), MAX_DEPTH) && node != null; depth++) {
+      node = node.getChild(key.charAt(depth));
+    }
+    if (node == null) {
+      return new ArrayList<>();
+    }
+
+    final List<NotesDetails> suggestions = new ArrayList<>();
+    if (key.length() <= MAX_DEPTH) {
+      for (int i = 0; i < node.suggestionCount && suggestions.size() < limit; i++) {
+        suggestions.add(summary(node.suggestions[i]));
+      }
+    } else {
+      for (int i = node.entryCount - 1; i >= 0 && suggestions.size() < limit; i--) {
+        if (node.entries[i].key.startsWith(key)) {
+          suggestions.add(summary(node.entries[i]));
+        }
+      }
+    }
+    return suggestions;
+  }
+
+  private NotesDetails summary(final Entry entry) {
+    return new NotesDetails.Builder(entry.noteId, userId)
+        .withTitle(entry.title)
+        .build();
+  }
+
+  private static final class Entry {
+
+    private final String noteId;
+    private final String title;
+    private final String key;
+    private final long sequence;
+
+    private Entry(final String noteId, final String title, final String key, final long sequence) {
+      this.noteId = noteId;
+      this.title = title;
+      this.key = key;
+      this.sequence = sequence;
+    }
+  }
+
+  private static final class Node {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    // the titles ending at this node, or going through it at the maximum depth, oldest first
+    private Entry[] entries = NO_ENTRIES;
+    private int entryCount;
+    // the most recently written titles of the subtree, most recent first
+    private Entry[] suggestions = NO_ENTRIES;
+    private int suggestionCount;
+
+    Node getChild(final char key) {
+      final int index = Arrays.binarySearch(keys, key);
+
+      return index < 0 ? null : children[index];
+    }
+
+    Node getOrCreateChild(final char key) {
+      final int index = Arrays.binarySearch(keys, key);
+      if (index >= 0) {
+        return children[index];
+      }
+
+      final int insertion = -index - 1;
+      final Node child = new Node();
+      keys = insert(keys, insertion, key);
+      final Node[] grown = new Node[children.length + 1];
+      System.arraycopy(children, 0, grown, 0, insertion);
+      grown[insertion] = child;
+      System.arraycopy(children, insertion, grown, insertion + 1, children.length - insertion);
+      children = grown;
+
+      return child;
+    }
+
+    void removeChild(final char key) {
+      final int index = Arrays.binarySearch(keys, key);
+      if (index < 0) {
+        return;
+      }
+
+      final char[] shrunkKeys = new char[keys.length - 1];
+      System.arraycopy(keys, 0, shrunkKeys, 0, index);
+      System.arraycopy(keys, index + 1, shrunkKeys, index, keys.length - index - 1);
+      keys = shrunkKeys;
+      final Node[] shrunkChildren = new Node[children.length - 1];
+      System.arraycopy(children, 0, shrunkChildren, 0, index);
+      System.arraycopy(children, index + 1, shrunkChildren, index, children.length - index - 1);
+      children = shrunkChildren;
+    }
+
+    boolean isEmpty() {
+      return entryCount == 0 && children.length == 0;
+    }
+
+    void addEntry(final Entry entry) {
+      if (entryCount == entries.length) {
+        entries = Arrays.copyOf(entries, Math.max(1, entryCount * 2));
+      }
+      entries[entryCount++] = entry;
+    }
+
+    void removeEntry(final Entry entry) {
+      for (int i = 0; i < entryCount; i++) {
+        if (entries[i] == entry) {
+          System.arraycopy(entries, i + 1, entries, i, entryCount - i - 1);
+          entries[--entryCount] = null;
+          return;
+        }
+      }
+    }
+
+    /**
+     * Puts the entry, the most recently written of the subtree, in front of the suggestions
+     */
+    void addSuggestion(final Entry entry) {
+      if (suggestions.length < NotesSearcher.MAX_SUGGESTIONS) {
+        suggestions = Arrays.copyOf(suggestions, Math.min(NotesSearcher.MAX_SUGGESTIONS,
+            Math.max(1, suggestions.length * 2)));
+      }
+      final int kept = Math.min(suggestionCount, suggestions.length - 1);
+      System.arraycopy(suggestions, 0, suggestions, 1, kept);
+      suggestions[0] = entry;
+      suggestionCount = kept + 1;
+    }
+
+    boolean hasSuggestion(final Entry entry) {
+      for (int i = 0; i < suggestionCount; i++) {
+        if (suggestions[i] == entry) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Recomputes the suggestions from the titles of the node and the suggestions of its children
+     */
+    void recomputeSuggestions() {
+      final List<Entry> candidates = new ArrayList<>();
+      for (int i = Math.max(0, entryCount - NotesSearcher.MAX_SUGGESTIONS); i < entryCount; i++) {
+        candidates.add(entries[i]);
+      }
+      for (Node child : children) {
+        candidates.addAll(Arrays.asList(child.suggestions).subList(0, child.suggestionCount));
+      }
+      candidates.sort(Comparator.comparingLong((Entry candidate) -> candidate.sequence).reversed());
+
+      suggestionCount = Math.min(candidates.size(), NotesSearcher.MAX_SUGGESTIONS);
+      Arrays.fill(suggestions, null);
+      for (int i = 0; i < suggestionCount; i++) {
+        suggestions[i] = candidates.get(i);
+      }
+    }
+
+    private static char[] insert(final char[] keys, final int index, final char key) {
+      final char[] grown = new char[keys.length + 1];
+      System.arraycopy(keys, 0, grown, 0, index);
+      grown[index] = key;
+      System.arraycopy(keys, index, grown, index + 1, keys.length - index);
+
+      return grown;
+    }
+  }
+}
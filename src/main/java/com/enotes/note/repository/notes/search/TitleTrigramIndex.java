@@ -0,0 +1,338 @@
+package com.enotes.note.repository.notes.search;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trigram index of the titles of the notes of a single user, answering substring and edit distance lookups on lower
+ * case titles without comparing the query with every title.
+ *
+ * <p>Titles are padded with two {@link #PADDING} characters on both sides before being split in trigrams, so a title
+ * of n characters has n + 2 trigrams. A substring lookup intersects the posting lists of the trigrams of the fragment
+ * and checks the few remaining titles. An edit distance lookup relies on every edit changing at most 3 trigrams: a
+ * title within k edits of a query of n characters shares at least n + 2 - 3k trigrams with it, so only the titles
+ * reaching that count are compared with the query. Fragments shorter than a trigram and queries too short for that
+ * bound to filter anything fall back to checking every title.
+ *
+ * <p>Matches are returned most recently written first. Document numbers are handed out and reclaimed as in
+ * {@link NotesSearchIndex}.
+ *
+ * <p>Not thread safe, callers guard every index with its own monitor.
+ */
+final class TitleTrigramIndex {
+
+  private static final char PADDING = '\u0000';
+  private static final int GRAM = 3;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int MIN_RENUMBERING_SIZE = 1024;
+
+  private final UserId userId;
+  private final Map<String, Integer> documents = new HashMap<>();
+  private final Map<String, Postings> postings = new HashMap<>();
+  // per document number, a null note id marks a removed note
+  private String[] noteIds = new String[INITIAL_CAPACITY];
+  private String[] titles = new String[INITIAL_CAPACITY];
+  private String[] lowerCaseTitles = new String[INITIAL_CAPACITY];
+  private String[][] trigrams = new String[INITIAL_CAPACITY][];
+  private int nextDocument;
+  // scratch space of the edit distance lookup, reset after every query
+  private int[] counts = new int[INITIAL_CAPACITY];
+  private int[] counted = new int[INITIAL_CAPACITY];
+
+  TitleTrigramIndex(final UserId userId) {
+    this.userId = userId;
+  }
+
+  /**
+   * Indexes the title of the note, replacing what was indexed for it before. Notes without a title are not indexed
+   */
+  void put(final String noteId, final String title) {
+    remove(noteId);
+    if (title == null) {
+      return;
+    }
+
+    final String lowerCaseTitle = title.toLowerCase(Locale.ROOT);
+    final Map<String, Integer> frequencies = trigrams(lowerCaseTitle);
+
+    final int document = nextDocument++;
+    ensureCapacity(nextDocument);
+    noteIds[document] = noteId;
+    titles[document] = title;
+    lowerCaseTitles[document] = lowerCaseTitle;
+
+    final String[] distinctTrigrams = new String[frequencies.size()];
+    int i = 0;
+    for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+      final Postings trigramPostings = postings.computeIfAbsent(frequency.getKey(), Postings::new);
+      trigramPostings.add(document, frequency.getValue());
+      distinctTrigrams[i++] = trigramPostings.getTerm();
+    }
+    trigrams[document] = distinctTrigrams;
+    documents.put(noteId, document);
+  }
+
+  /**
+   * @return true if the title of the note was indexed
+   */
+  boolean remove(final String noteId) {
+    final Integer document = documents.remove(noteId);
+    if (document == null) {
+      return false;
+    }
+
+    noteIds[document] = null;
+    titles[document] = null;
+    lowerCaseTitles[document] = null;
+    for (String trigram : trigrams[document]) {
+      final Postings trigramPostings = postings.get(trigram);
+      trigramPostings.markDead(noteIds);
+      if (trigramPostings.live() == 0) {
+        postings.remove(trigram);
+      }
+    }
+    trigrams[document] = null;
+
+    if (nextDocument > MIN_RENUMBERING_SIZE && nextDocument > 2 * documents.size()) {
+      renumber();
+    }
+    return true;
+  }
+
+  /**
+   * @return at most {@code limit} notes, without their body, whose title contains {@code fragment} whatever the case
+   */
+  List<NotesDetails> findContaining(final String fragment, final int limit) {
+    final String lowerCaseFragment = fragment.toLowerCase(Locale.ROOT);
+    final List<NotesDetails> matches = new ArrayList<>();
+
+    if (lowerCaseFragment.length() < GRAM) {
+      for (int document = nextDocument - 1; document >= 0 && matches.size() < limit; document--) {
+        if (noteIds[document] != null && lowerCaseTitles[document].contains(lowerCaseFragment)) {
+          matches.add(summary(document));
+        }
+      }
+      return matches;
+    }
+
+    final int[] candidates = intersect(lowerCaseFragment);
+    for (int i = candidates.length - 1; i >= 0 && matches.size() < limit; i--) {
+      if (lowerCaseTitles[candidates[i]].contains(lowerCaseFragment)) {
+        matches.add(summary(candidates[i]));
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * @return at most {@code limit} notes, without their body, whose title is at most {@code maxDistance} edits away
+   * from {@code title} whatever the case, closest first
+   */
+  List<NotesDetails> findSimilar(final String title, final int maxDistance, final int limit) {
+    final String lowerCaseTitle = title.toLowerCase(Locale.ROOT);
+    final List<int[]> matches = new ArrayList<>();
+    final int threshold = lowerCaseTitle.length() + GRAM - 1 - GRAM * maxDistance;
+
+    if (threshold <= 0) {
+      for (int document = 0; document < nextDocument; document++) {
+        if (noteIds[document] != null) {
+          addIfSimilar(matches, document, lowerCaseTitle, maxDistance);
+        }
+      }
+    } else {
+      int countedSize = 0;
+      for (Map.Entry<String, Integer> frequency : trigrams(lowerCaseTitle).entrySet()) {
+        final Postings trigramPostings = postings.get(frequency.getKey());
+        if (trigramPostings == null) {
+          continue;
+        }
+        for (int i = 0; i < trigramPostings.size(); i++) {
+          final int document = trigramPostings.document(i);
+          if (noteIds[document] == null) {
+            continue;
+          }
+          if (counts[document] == 0) {
+            counted[countedSize++] = document;
+          }
+          counts[document] += Math.min(frequency.getValue(), trigramPostings.frequency(i));
+        }
+      }
+
+      for (int i = 0; i < countedSize; i++) {
+        final int document = counted[i];
+        if (counts[document] >= threshold) {
+          addIfSimilar(matches, document, lowerCaseTitle, maxDistance);
+        }
+        counts[document] = 0;
+      }
+    }
+
+    // closest first, most recently written first on equal distances
+    matches.sort(Comparator.<int[]>comparingInt(match -> match[1]).thenComparingInt(match -> -match[0]));
+    final List<NotesDetails> similar = new ArrayList<>();
+    for (int i = 0; i < matches.size() && i < limit; i++) {
+      similar.add(summary(matches.get(i)[0]));
+    }
+    return similar;
+  }
+
+  /**
+   * @return the live documents holding every trigram of the fragment, in increasing order
+   */
+  private int[] intersect(final String lowerCaseFragment) {
+    final List<Postings> lists = new ArrayList<>();
+    for (int i = 0; i + GRAM <= lowerCaseFragment.length(); i++) {
+      final Postings trigramPostings = postings.get(lowerCaseFragment.substring(i, i + GRAM));
+      if (trigramPostings == null) {
+        return new int[0];
+      }
+      lists.add(trigramPostings);
+    }
+    // start from the shortest list so that the candidates only shrink from there
+    lists.sort(Comparator.comparingInt(Postings::live));
+
+    final Postings shortest = lists.get(0);
+    int[] candidates = new int[shortest.size()];
+    int size = 0;
+    for (int i = 0; i < shortest.size(); i++) {
+      if (noteIds[shortest.document(i)] != null) {
+        candidates[size++] = shortest.document(i);
+      }
+    }
+
+    for (int list = 1; list < lists.size() && size > 0; list++) {
+      final Postings other = lists.get(list);
+      int kept = 0;
+      int j = 0;
+      for (int i = 0; i < size && j < other.size(); ) {
+        final int document = other.document(j);
+        if (document < candidates[i]) {
+          j++;
+        } else if (document > candidates[i]) {
+          i++;
+        } else {
+          candidates[kept++] = document;
+          i++;
+          j++;
+        }
+      }
+      size = kept;
+    }
+    return Arrays.copyOf(candidates, size);
+  }
+
+  private void addIfSimilar(final List<int[]> matches, final int document, final String lowerCaseTitle,
+      final int maxDistance) {
+    final int distance = distance(lowerCaseTitles[document], lowerCaseTitle, maxDistance);
+    if (distance <= maxDistance) {
+      matches.add(new int[]{document, distance});
+    }
+  }
+
+  private NotesDetails summary(final int document) {
+    return new NotesDetails.Builder(noteIds[document], userId)
+        .withTitle(titles[document])
+        .build();
+  }
+
+  private void ensureCapacity(final int capacity) {
+    if (capacity <= noteIds.length) {
+      return;
+    }
+
+    final int grown = Math.max(capacity, noteIds.length * 2);
+    noteIds = Arrays.copyOf(noteIds, grown);
+    titles = Arrays.copyOf(titles, grown);
+    lowerCaseTitles = Arrays.copyOf(lowerCaseTitles, grown);
+    trigrams = Arrays.copyOf(trigrams, grown);
+    counts = Arrays.copyOf(counts, grown);
+    counted = Arrays.copyOf(counted, grown);
+  }
+
+  /**
+   * Reassigns the document numbers of the live notes from 0, keeping their order
+   */
+  private void renumber() {
+    final int[] renumbered = new int[nextDocument];
+    int next = 0;
+    for (int document = 0; document < nextDocument; document++) {
+      if (noteIds[document] == null) {
+        renumbered[document] = -1;
+      } else {
+        renumbered[document] = next;
+        noteIds[next] = noteIds[document];
+        titles[next] = titles[document];
+        lowerCaseTitles[next] = lowerCaseTitles[document];
+        trigrams[next] = trigrams[document];
+        documents.put(noteIds[next], next);
+        next++;
+      }
+    }
+    Arrays.fill(noteIds, next, nextDocument, null);
+    Arrays.fill(titles, next, nextDocument, null);
+    Arrays.fill(lowerCaseTitles, next, nextDocument, null);
+    Arrays.fill(trigrams, next, nextDocument, null);
+
+    for (Postings trigramPostings : postings.values()) {
+      trigramPostings.renumber(renumbered);
+    }
+    nextDocument = next;
+  }
+
+  /**
+   * @return the trigrams of the padded text with the number of times each appears
+   */
+  private static Map<String, Integer> trigrams(final String text) {
+    final char[] padded = new char[text.length() + 2 * (GRAM - 1)];
+    Arrays.fill(padded, PADDING);
+    text.getChars(0, text.length(), padded, GRAM - 1);
+
+    final Map<String, Integer> frequencies = new HashMap<>();
+    for (int i = 0; i + GRAM <= padded.length; i++) {
+      frequencies.merge(new String(padded, i, GRAM), 1, Integer::sum);
+    }
+    return frequencies;
+  }
+
+  /**
+   * Levenshtein distance between the two strings, giving up with {@code maxDistance + 1} as soon as it is known to be
+   * larger than {@code maxDistance}
+   */
+  static int distance(final String first, final String second, final int maxDistance) {
+    if (Math.abs(first.length() - second.length()) > maxDistance) {
+      return maxDistance + 1;
+    }
+
+    int[] previous = new int[second.length() + 1];
+    int[] current = new int[second.length() + 1];
+    for (int j = 0; j <= second.length(); j++) {
+      previous[j] = j;
+    }
+
+    for (int i = 1; i <= first.length(); i++) {
+      current[0] = i;
+      int rowMinimum = current[0];
+      for (int j = 1; j <= second.length(); j++) {
+        final int substitution = previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+        current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+        rowMinimum = Math.min(rowMinimum, current[j]);
+      }
+      if (rowMinimum > maxDistance) {
+        return maxDistance + 1;
+      }
+
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return Math.min(previous[second.length()], maxDistance + 1);
+  }
+}
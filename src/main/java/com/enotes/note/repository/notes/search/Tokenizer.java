@@ -0,0 +1,61 @@
+package com.enotes.note.repository.notes.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower case terms made of letters and digits. Terms longer than {@link #MAX_TERM_LENGTH} characters
+ * are dropped, they are mostly encoded data nobody searches for.
+ */
+final class Tokenizer {
+
+  static final int MAX_TERM_LENGTH = 64;
+
+  private Tokenizer() {
+    //do nothing
+  }
+
+  /**
+   * @return the terms of {@code text} in the order they appear
+   */
+  static List<String> terms(final String text) {
+    final List<String> terms = new ArrayList<>();
+    if (text == null) {
+      return terms;
+    }
+
+    int start = -1;
+    for (int i = 0; i < text.length(); ) {
+      final int codePoint = text.codePointAt(i);
+      if (Character.isLetterOrDigit(codePoint)) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        addTerm(terms, text, start, i);
+        start = -1;
+      }
+      i += Character.charCount(codePoint);
+    }
+    if (start >= 0) {
+      addTerm(terms, text, start, text.length());
+    }
+    return terms;
+  }
+
+  /**
+   * @return the distinct terms of {@code text} in the order they first appear
+   */
+  static Set<String> distinctTerms(final String text) {
+    return new LinkedHashSet<>(terms(text));
+  }
+
+  private static void addTerm(final List<String> terms, final String text, final int start, final int end) {
+    if (end - start <= MAX_TERM_LENGTH) {
+      terms.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.enotes.note.repository.notes.search;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+/**
+ * The search indexes of the notes of a single user, built together and kept up to date together.
+ *
+ * <p>Not thread safe, callers guard every instance with its own monitor.
+ */
+final class UserNotesIndex {
+
+  private final NotesSearchIndex contentIndex;
+  private final TitleTrigramIndex titleIndex;
+  private final TitlePrefixIndex titlePrefixIndex;
+  private boolean built;
+
+  UserNotesIndex(final UserId userId) {
+    this.contentIndex = new NotesSearchIndex();
+    this.titleIndex = new TitleTrigramIndex(userId);
+    this.titlePrefixIndex = new TitlePrefixIndex(userId);
+  }
+
+  boolean isBuilt() {
+    return built;
+  }
+
+  void markBuilt() {
+    built = true;
+  }
+
+  NotesSearchIndex getContentIndex() {
+    return contentIndex;
+  }
+
+  TitleTrigramIndex getTitleIndex() {
+    return titleIndex;
+  }
+
+  TitlePrefixIndex getTitlePrefixIndex() {
+    return titlePrefixIndex;
+  }
+
+  void put(final NotesDetails notesDetails) {
+    contentIndex.put(notesDetails.getId(), text(notesDetails));
+    titleIndex.put(notesDetails.getId(), notesDetails.getTitle());
+    titlePrefixIndex.put(notesDetails.getId(), notesDetails.getTitle());
+  }
+
+  void remove(final String noteId) {
+    contentIndex.remove(noteId);
+    titleIndex.remove(noteId);
+    titlePrefixIndex.remove(noteId);
+  }
+
+  private static String text(final NotesDetails notesDetails) {
+    final String title = notesDetails.getTitle();
+    final String body = notesDetails.getBody();
+
+    if (title == null) {
+      return body;
+    }
+    return body == null ? title : title + "\n" + body;
+  }
+}
@@ -0,0 +1,24 @@
+package com.enotes.note.repository.notes.wal;
+
+/**
+ * When a write to the {@link WriteAheadLog} is acknowledged to the caller.
+ */
+public enum Durability {
+
+  /**
+   * The write returns once its record is fsynced. Writers that arrive while an fsync is running share the next one.
+   */
+  SYNC,
+
+  /**
+   * The write returns once its record is fsynced by the background flusher, which fsyncs once per sync interval for
+   * every writer that arrived in the meantime.
+   */
+  BATCHED,
+
+  /**
+   * The write returns as soon as its record is handed to the operating system. The background flusher fsyncs once per
+   * sync interval, so a machine crash may lose the writes of the last interval.
+   */
+  ASYNC
+}
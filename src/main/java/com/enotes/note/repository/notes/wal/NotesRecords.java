@@ -0,0 +1,113 @@
+package com.enotes.note.repository.notes.wal;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+import com.enotes.note.service.InternalServerErrorException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Binary encoding of the notes written to the {@link WriteAheadLog}. Strings are written as their UTF-8 length
+ * followed by their bytes, -1 standing for {@code null}.
+ */
+final class NotesRecords {
+
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+
+  private NotesRecords() {
+    //do nothing
+  }
+
+  static byte[] put(final NotesDetails notesDetails) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeByte(PUT);
+      writeNote(output, notesDetails);
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static byte[] delete(final String id) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeByte(DELETE);
+      writeString(output, id);
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes a record and passes it to the matching callback
+   * @param record the encoded record
+   * @param onPut receives the note of a put record
+   * @param onDelete receives the note id of a delete record
+   */
+  static void decode(final byte[] record, final Consumer<NotesDetails> onPut, final Consumer<String> onDelete) {
+    try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+      final byte type = input.readByte();
+      switch (type) {
+        case PUT:
+          onPut.accept(readNote(input));
+          break;
+        case DELETE:
+          onDelete.accept(readString(input));
+          break;
+        default:
+          throw new InternalServerErrorException("Unknown log record type " + type);
+      }
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  static void writeNote(final DataOutput output, final NotesDetails notesDetails) throws IOException {
+    writeString(output, notesDetails.getId());
+    writeString(output, notesDetails.getUserId().getId());
+    writeString(output, notesDetails.getTitle());
+    writeString(output, notesDetails.getBody());
+  }
+
+  static NotesDetails readNote(final DataInput input) throws IOException {
+    final String id = readString(input);
+    final UserId userId = new UserId(readString(input));
+
+    return new NotesDetails.Builder(id, userId)
+        .withTitle(readString(input))
+        .withBody(readString(input))
+        .build();
+  }
+
+  private static void writeString(final DataOutput output, final String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(final DataInput input) throws IOException {
+    final int length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    input.readFully(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
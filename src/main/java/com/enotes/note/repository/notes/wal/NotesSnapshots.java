@@ -0,0 +1,164 @@
+package com.enotes.note.repository.notes.wal;
+
+import com.enotes.note.repository.notes.ConcurrentInMemoryNotesRepository;
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+import com.enotes.note.service.InternalServerErrorException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact snapshots of a {@link ConcurrentInMemoryNotesRepository}. A snapshot is named after the first log segment
+ * it does not cover and holds the notes of every user in creation order, so loading it rebuilds both the notes and the
+ * per-user index. The whole file is protected by a trailing CRC32 and only becomes visible through an atomic rename
+ * once it is fsynced.
+ */
+final class NotesSnapshots {
+
+  private static final String SNAPSHOT_SUFFIX = ".snapshot";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+  private static final int MAGIC = 0x4E4F5445;
+  private static final int VERSION = 1;
+  private static final byte NOTE = 1;
+  private static final byte END = 0;
+
+  private NotesSnapshots() {
+    //do nothing
+  }
+
+  /**
+   * Writes a snapshot of {@code notes}, which must already contain every write logged before {@code segmentId}
+   * @return the number of notes written
+   */
+  static long write(final Path directory, final long segmentId, final ConcurrentInMemoryNotesRepository notes) {
+    final Path target = snapshotPath(directory, segmentId);
+    final Path temporary = directory.resolve(target.getFileName() + TEMPORARY_SUFFIX);
+
+    long count = 0;
+    try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+      final BufferedOutputStream buffered = new BufferedOutputStream(file);
+      final CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+      final DataOutputStream output = new DataOutputStream(checked);
+
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeLong(segmentId);
+      for (UserId userId : notes.findAllUserIds()) {
+        for (NotesDetails notesDetails : notes.findAll(userId)) {
+          output.writeByte(NOTE);
+          NotesRecords.writeNote(output, notesDetails);
+          count++;
+        }
+      }
+      output.writeByte(END);
+      output.writeLong(count);
+      output.flush();
+
+      new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+      buffered.flush();
+      file.getFD().sync();
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+
+    try {
+      Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+    return count;
+  }
+
+  /**
+   * Loads the latest snapshot of {@code directory}
+   * @param consumer receives the notes of the snapshot, the notes of each user in creation order
+   * @return the id of the first log segment the snapshot does not cover or {@link Optional#empty()} if there is none
+   */
+  static Optional<Long> loadLatest(final Path directory, final Consumer<NotesDetails> consumer) {
+    final List<Long> snapshots = list(directory);
+    if (snapshots.isEmpty()) {
+      return Optional.empty();
+    }
+    final long segmentId = snapshots.get(snapshots.size() - 1);
+    final Path path = snapshotPath(directory, segmentId);
+
+    try (InputStream file = Files.newInputStream(path)) {
+      final BufferedInputStream buffered = new BufferedInputStream(file);
+      final CheckedInputStream checked = new CheckedInputStream(buffered, new CRC32());
+      final DataInputStream input = new DataInputStream(checked);
+
+      if (input.readInt() != MAGIC || input.readInt() != VERSION || input.readLong() != segmentId) {
+        throw new InternalServerErrorException("Snapshot " + path + " has an unexpected header");
+      }
+      long count = 0;
+      while (input.readByte() == NOTE) {
+        consumer.accept(NotesRecords.readNote(input));
+        count++;
+      }
+      final long expectedCount = input.readLong();
+      final int checksum = (int) checked.getChecksum().getValue();
+
+      if (count != expectedCount || new DataInputStream(buffered).readInt() != checksum) {
+        throw new InternalServerErrorException("Snapshot " + path + " is corrupted");
+      }
+    } catch (IOException e) {
+      throw new InternalServerErrorException("Unable to read snapshot " + path, e);
+    }
+    return Optional.of(segmentId);
+  }
+
+  /**
+   * Deletes the snapshots older than {@code segmentId} and the leftovers of interrupted snapshots
+   */
+  static void deleteBefore(final Path directory, final long segmentId) {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path path : files.collect(Collectors.toList())) {
+        final String name = path.getFileName().toString();
+        if (name.endsWith(SNAPSHOT_SUFFIX + TEMPORARY_SUFFIX)
+            || name.endsWith(SNAPSHOT_SUFFIX) && parseId(name) < segmentId) {
+          Files.deleteIfExists(path);
+        }
+      }
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  private static List<Long> list(final Path directory) {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(path -> path.getFileName().toString())
+          .filter(name -> name.endsWith(SNAPSHOT_SUFFIX))
+          .map(NotesSnapshots::parseId)
+          .sorted()
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  private static long parseId(final String name) {
+    return Long.parseLong(name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()));
+  }
+
+  private static Path snapshotPath(final Path directory, final long segmentId) {
+    return directory.resolve(String.format("%020d%s", segmentId, SNAPSHOT_SUFFIX));
+  }
+}
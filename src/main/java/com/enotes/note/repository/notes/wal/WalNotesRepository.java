@@ -0,0 +1,243 @@
+package com.enotes.note.repository.notes.wal;
+
+import com.enotes.note.repository.notes.ConcurrentInMemoryNotesRepository;
+import com.enotes.note.repository.notes.NotesCursor;
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.NotesDetailsPage;
+import com.enotes.note.repository.notes.NotesRepository;
+import com.enotes.note.repository.notes.UserId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link NotesRepository} that serves reads from a {@link ConcurrentInMemoryNotesRepository} and appends every write
+ * to a {@link WriteAheadLog}. The in-memory maps are rebuilt on creation from the latest snapshot and the log
+ * segments written after it.
+ *
+ * <p>Writes of the same note are ordered by a striped lock so the log replays them in the order they were applied.
+ * The lock only covers the in-memory update and the append, waiting for the log to be durable happens outside of it so
+ * concurrent writers share fsyncs.
+ *
+ * <p>Snapshots are taken in the background: the log is rolled to a new segment and the notes are then copied while
+ * writers keep going. Every write is applied in memory before it is appended, so a write logged before the roll is
+ * always in the snapshot and a write logged after it is replayed on top of it.
+ */
+public class WalNotesRepository implements NotesRepository, Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WalNotesRepository.class);
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final ConcurrentInMemoryNotesRepository notes;
+  private final WriteAheadLog log;
+  private final Object[] locks;
+  private final Object snapshotLock = new Object();
+  private final ScheduledExecutorService snapshotter;
+
+  private final long recoveryTimeMillis;
+  private final long snapshotNotes;
+  private final long replayedRecords;
+
+  // guarded by snapshotLock
+  private long lastSnapshotSegmentId;
+
+  public WalNotesRepository(final WriteAheadLog log) {
+    this(log, 0);
+  }
+
+  /**
+   * @param log the log to recover from and to append to
+   * @param snapshotIntervalMillis how often to snapshot the notes in the background, 0 to never snapshot them
+   */
+  public WalNotesRepository(final WriteAheadLog log, final long snapshotIntervalMillis) {
+    final long start = System.nanoTime();
+
+    this.notes = new ConcurrentInMemoryNotesRepository();
+    this.log = log;
+    this.locks = new Object[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+
+    final AtomicLong snapshotCount = new AtomicLong();
+    lastSnapshotSegmentId = NotesSnapshots.loadLatest(log.getDirectory(), note -> {
+      notes.put(note.getId(), note);
+      snapshotCount.incrementAndGet();
+    }).orElse(0L);
+
+    final AtomicLong replayedCount = new AtomicLong();
+    log.replay(lastSnapshotSegmentId, record -> {
+      NotesRecords.decode(record, note -> notes.put(note.getId(), note), notes::delete);
+      replayedCount.incrementAndGet();
+    });
+
+    snapshotNotes = snapshotCount.get();
+    replayedRecords = replayedCount.get();
+    recoveryTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    LOGGER.info("Recovered {} notes from snapshot and {} log records in {} ms", snapshotNotes, replayedRecords,
+        recoveryTimeMillis);
+
+    if (snapshotIntervalMillis > 0) {
+      snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "notes-snapshotter");
+        thread.setDaemon(true);
+        return thread;
+      });
+      snapshotter.scheduleWithFixedDelay(this::snapshotInBackground, snapshotIntervalMillis, snapshotIntervalMillis,
+          TimeUnit.MILLISECONDS);
+    } else {
+      snapshotter = null;
+    }
+  }
+
+  /**
+   * @return the time it took to load the latest snapshot and replay the log, in milliseconds
+   */
+  public long getRecoveryTimeMillis() {
+    return recoveryTimeMillis;
+  }
+
+  /**
+   * @return the number of notes loaded from the latest snapshot on recovery
+   */
+  public long getSnapshotNotes() {
+    return snapshotNotes;
+  }
+
+  /**
+   * @return the number of log records replayed on recovery
+   */
+  public long getReplayedRecords() {
+    return replayedRecords;
+  }
+
+  @Override
+  public boolean putIfAbsent(final String key, final NotesDetails value) {
+    final long position;
+    synchronized (lockFor(key)) {
+      if (!notes.putIfAbsent(key, value)) {
+        return false;
+      }
+      try {
+        position = log.append(NotesRecords.put(value));
+      } catch (RuntimeException e) {
+        notes.delete(key);
+        throw e;
+      }
+    }
+    log.awaitDurable(position);
+
+    return true;
+  }
+
+  @Override
+  public Optional<NotesDetails> findById(final String key) {
+    return notes.findById(key);
+  }
+
+  @Override
+  public void put(final String key, final NotesDetails value) {
+    final long position;
+    synchronized (lockFor(key)) {
+      final Optional<NotesDetails> previous = notes.findById(key);
+      notes.put(key, value);
+      try {
+        position = log.append(NotesRecords.put(value));
+      } catch (RuntimeException e) {
+        restore(key, previous);
+        throw e;
+      }
+    }
+    log.awaitDurable(position);
+  }
+
+  @Override
+  public Collection<NotesDetails> findAll(final UserId userId) {
+    return notes.findAll(userId);
+  }
+
+  @Override
+  public NotesDetailsPage findPage(final UserId userId, final NotesCursor cursor, final int limit) {
+    return notes.findPage(userId, cursor, limit);
+  }
+
+  @Override
+  public void delete(final String key) {
+    final long position;
+    synchronized (lockFor(key)) {
+      final Optional<NotesDetails> previous = notes.findById(key);
+      if (!previous.isPresent()) {
+        return;
+      }
+      notes.delete(key);
+      try {
+        position = log.append(NotesRecords.delete(key));
+      } catch (RuntimeException e) {
+        restore(key, previous);
+        throw e;
+      }
+    }
+    log.awaitDurable(position);
+  }
+
+  /**
+   * Writes a snapshot of the notes and deletes the log segments and snapshots it makes obsolete. Writers are only held
+   * while the log rolls to a new segment.
+   */
+  public void snapshot() {
+    synchronized (snapshotLock) {
+      final long segmentId = log.roll();
+      if (segmentId == lastSnapshotSegmentId) {
+        return;
+      }
+
+      final long start = System.nanoTime();
+      final long count = NotesSnapshots.write(log.getDirectory(), segmentId, notes);
+      log.deleteSegmentsBefore(segmentId);
+      NotesSnapshots.deleteBefore(log.getDirectory(), segmentId);
+      lastSnapshotSegmentId = segmentId;
+
+      LOGGER.info("Snapshot of {} notes written in {} ms", count,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+  }
+
+  @Override
+  public void close() {
+    if (snapshotter != null) {
+      snapshotter.shutdown();
+    }
+    synchronized (snapshotLock) {
+      log.close();
+    }
+  }
+
+  private void snapshotInBackground() {
+    try {
+      snapshot();
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to snapshot notes", e);
+    }
+  }
+
+  private void restore(final String key, final Optional<NotesDetails> previous) {
+    if (previous.isPresent()) {
+      notes.put(key, previous.get());
+    } else {
+      notes.delete(key);
+    }
+  }
+
+  private Object lockFor(final String key) {
+    return locks[(key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+  }
+}
@@ -0,0 +1,600 @@
+package com.enotes.note.repository.notes.wal;
+
+import com.enotes.note.service.InternalServerErrorException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log of opaque records split into numbered segment files. Every record is framed by its length and its
+ * CRC32 so a torn tail left by a crash is detected and truncated when the log is opened.
+ *
+ * <p>Appends are serialised by a short lock that only copies the record to the current segment, fsyncs run outside of
+ * it. Writers waiting for durability use group commit: one of them becomes the leader and fsyncs everything written
+ * so far while the others wait for that fsync instead of issuing their own. See {@link Durability} for the supported
+ * acknowledgement modes.
+ *
+ * <p>Appends and fsyncs run on the request threads, whose interruption closes the segment channel. Only the
+ * interrupted caller fails then: the segment is reopened, dropping what an interrupted append wrote of its record, and
+ * forced so that the records written before stay durable.
+ */
+public final class WriteAheadLog implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteAheadLog.class);
+
+  static final String SEGMENT_SUFFIX = ".wal";
+  private static final String LOCK_FILE = "wal.lock";
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  private final Path directory;
+  private final Durability durability;
+  private final long segmentSize;
+  private final FileChannel lockChannel;
+  private final FileLock directoryLock;
+  private final ScheduledExecutorService flusher;
+
+  private final LongAdder syncs = new LongAdder();
+  private final Object appendLock = new Object();
+  private final Object syncMonitor = new Object();
+
+  // guarded by appendLock
+  private FileChannel channel;
+  private long segmentId;
+  private long segmentPosition;
+  private boolean closed;
+  private IOException writeFailure;
+  private volatile long writtenPosition;
+
+  // guarded by syncMonitor
+  private long syncedPosition;
+  private boolean syncing;
+  private IOException syncFailure;
+
+  private WriteAheadLog(final Builder builder) {
+    this.directory = Objects.requireNonNull(builder.directory, "log directory should be configured");
+    this.durability = builder.durability;
+    this.segmentSize = builder.segmentSize;
+
+    FileChannel openedLockChannel = null;
+    FileLock lock = null;
+    try {
+      Files.createDirectories(directory);
+      openedLockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE);
+      lock = openedLockChannel.tryLock();
+      if (lock == null) {
+        throw new InternalServerErrorException("Log directory " + directory + " is used by another process");
+      }
+
+      final List<Long> segments = listSegments();
+      if (segments.isEmpty()) {
+        segmentId = 1;
+        channel = openSegment(segmentId);
+      } else {
+        segmentId = segments.get(segments.size() - 1);
+        channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.WRITE);
+        segmentPosition = readRecords(segmentPath(segmentId), record -> { });
+        if (channel.size() > segmentPosition) {
+          LOGGER.warn("Truncating torn tail of log segment {} at {}", segmentId, segmentPosition);
+          channel.truncate(segmentPosition);
+        }
+        channel.position(segmentPosition);
+      }
+    } catch (IOException | RuntimeException e) {
+      // the log is not handed out, so nothing else would ever release the directory
+      if (channel != null) {
+        closeQuietly(channel);
+      }
+      if (lock != null) {
+        releaseQuietly(lock);
+      }
+      if (openedLockChannel != null) {
+        closeQuietly(openedLockChannel);
+      }
+      throw e instanceof RuntimeException ? (RuntimeException) e : new InternalServerErrorException(e);
+    }
+    this.lockChannel = openedLockChannel;
+    this.directoryLock = lock;
+
+    if (durability == Durability.SYNC) {
+      flusher = null;
+    } else {
+      flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "notes-wal-flusher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      flusher.scheduleWithFixedDelay(this::flush, builder.syncIntervalMillis, builder.syncIntervalMillis,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public Durability getDurability() {
+    return durability;
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @return the number of fsyncs issued so far, fewer than the records made durable when writers share them
+   */
+  public long getSyncCount() {
+    return syncs.sum();
+  }
+
+  /**
+   * Reads back every record of the log in the order they were appended
+   * @param consumer receives the payload of every record
+   */
+  public void replay(final Consumer<byte[]> consumer) {
+    replay(0, consumer);
+  }
+
+  /**
+   * Reads back the records of the segments numbered {@code fromSegmentId} and above in the order they were appended
+   * @param fromSegmentId the first segment to read
+   * @param consumer receives the payload of every record
+   */
+  public void replay(final long fromSegmentId, final Consumer<byte[]> consumer) {
+    final long currentSegmentId;
+    synchronized (appendLock) {
+      currentSegmentId = segmentId;
+    }
+
+    try {
+      for (long id : listSegments()) {
+        if (id < fromSegmentId) {
+          continue;
+        }
+        final Path path = segmentPath(id);
+        final long validLength = readRecords(path, consumer);
+
+        if (id != currentSegmentId && validLength < Files.size(path)) {
+          throw new InternalServerErrorException("Log segment " + path + " is corrupted at offset " + validLength);
+        }
+      }
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  /**
+   * Closes the current segment, if it holds any record, so that later appends go to a new segment
+   * @return the id of the segment that receives the next appends
+   */
+  public long roll() {
+    synchronized (appendLock) {
+      ensureWritable();
+      if (segmentPosition > 0) {
+        try {
+          rollSegment();
+        } catch (IOException e) {
+          writeFailure = e;
+          throw new InternalServerErrorException(e);
+        }
+      }
+      return segmentId;
+    }
+  }
+
+  /**
+   * Deletes the segments that precede {@code segmentId}, once their records are no longer needed for recovery
+   * @param segmentId the first segment to keep
+   */
+  public void deleteSegmentsBefore(final long segmentId) {
+    try {
+      for (long id : listSegments()) {
+        if (id < segmentId) {
+          Files.deleteIfExists(segmentPath(id));
+        }
+      }
+    } catch (IOException e) {
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  /**
+   * Appends a record to the log without waiting for it to be durable
+   * @param payload the record payload
+   * @return the log position right after the record which is to be passed to {@link #awaitDurable(long)}
+   */
+  public long append(final byte[] payload) {
+    final CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+
+    final ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+    frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    frame.flip();
+    final int frameSize = frame.remaining();
+
+    synchronized (appendLock) {
+      ensureWritable();
+
+      try {
+        if (segmentPosition > 0 && segmentPosition + frameSize > segmentSize) {
+          rollSegment();
+        }
+        writeFrame(frame);
+      } catch (ClosedByInterruptException e) {
+        reopenAfterInterrupt();
+        throw new InternalServerErrorException("Interrupted while appending to log " + directory, e);
+      } catch (IOException e) {
+        // a partially written record would hide every later record from replay, so stop accepting writes
+        writeFailure = e;
+        throw new InternalServerErrorException(e);
+      }
+
+      segmentPosition += frameSize;
+      writtenPosition += frameSize;
+      return writtenPosition;
+    }
+  }
+
+  /**
+   * Blocks until the record ending at {@code position} is as durable as the configured {@link Durability} requires
+   * @param position a position returned by {@link #append(byte[])}
+   */
+  public void awaitDurable(final long position) {
+    switch (durability) {
+      case SYNC:
+        sync(position);
+        break;
+      case BATCHED:
+        awaitSynced(position);
+        break;
+      case ASYNC:
+        break;
+      default:
+        throw new UnsupportedOperationException("Durability " + durability + " is not yet supported");
+    }
+  }
+
+  @Override
+  public void close() {
+    if (flusher != null) {
+      flusher.shutdown();
+    }
+
+    synchronized (appendLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+
+    try {
+      if (writeFailure == null) {
+        sync(writtenPosition);
+      }
+    } finally {
+      synchronized (appendLock) {
+        closeQuietly(channel);
+      }
+      releaseQuietly(directoryLock);
+      closeQuietly(lockChannel);
+    }
+  }
+
+  private void ensureWritable() {
+    if (closed) {
+      throw new InternalServerErrorException("Log " + directory + " is closed");
+    }
+    if (writeFailure != null) {
+      throw new InternalServerErrorException("Log " + directory + " failed earlier", writeFailure);
+    }
+  }
+
+  private void writeFrame(final ByteBuffer frame) throws IOException {
+    try {
+      while (frame.hasRemaining()) {
+        channel.write(frame);
+      }
+    } catch (ClosedByInterruptException e) {
+      throw e;
+    } catch (ClosedChannelException e) {
+      // an interrupted fsync closed the segment under this append
+      reopenSegment();
+      frame.rewind();
+      while (frame.hasRemaining()) {
+        channel.write(frame);
+      }
+    }
+  }
+
+  private void rollSegment() throws IOException {
+    try {
+      channel.force(false);
+      syncs.increment();
+    } catch (ClosedByInterruptException e) {
+      throw e;
+    } catch (ClosedChannelException e) {
+      // an interrupted fsync closed the segment, reopening it forces it
+      reopenSegment();
+    }
+    channel.close();
+
+    segmentId++;
+    channel = openSegment(segmentId);
+    segmentPosition = 0;
+
+    markSynced(writtenPosition);
+  }
+
+  private void flush() {
+    try {
+      sync(writtenPosition);
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to sync log {}", directory, e);
+    }
+  }
+
+  private void sync(final long position) {
+    synchronized (syncMonitor) {
+      while (true) {
+        if (syncFailure != null) {
+          throw new InternalServerErrorException("Log " + directory + " failed to sync", syncFailure);
+        }
+        if (syncedPosition >= position) {
+          return;
+        }
+        if (!syncing) {
+          break;
+        }
+        waitForSync();
+      }
+      syncing = true;
+    }
+
+    long target = -1;
+    try {
+      target = force();
+    } catch (ClosedByInterruptException e) {
+      // the segment was reopened, only the interrupted caller gives up
+      throw new InternalServerErrorException("Interrupted while syncing log " + directory, e);
+    } catch (IOException e) {
+      synchronized (syncMonitor) {
+        syncFailure = e;
+      }
+      throw new InternalServerErrorException(e);
+    } finally {
+      synchronized (syncMonitor) {
+        syncing = false;
+        if (target > syncedPosition) {
+          syncedPosition = target;
+        }
+        syncMonitor.notifyAll();
+      }
+    }
+  }
+
+  private long force() throws IOException {
+    final FileChannel current;
+    final long target;
+    synchronized (appendLock) {
+      current = channel;
+      target = writtenPosition;
+    }
+
+    try {
+      current.force(false);
+      syncs.increment();
+    } catch (ClosedByInterruptException e) {
+      reopenIfClosed(current);
+      throw e;
+    } catch (ClosedChannelException e) {
+      // the segment was rolled, reopened after an interrupt or the log closed, all of which force the segment
+      reopenIfClosed(current);
+    }
+    return target;
+  }
+
+  /**
+   * Reopens the segment if an interrupt closed it and no other thread has reopened or rolled it since
+   */
+  private void reopenIfClosed(final FileChannel current) throws IOException {
+    synchronized (appendLock) {
+      if (!closed && writeFailure == null && channel == current && !current.isOpen()) {
+        reopenSegment();
+      }
+    }
+  }
+
+  /**
+   * Reopens the segment after the interrupt of an append closed it, failing the log if it cannot be reopened
+   */
+  private void reopenAfterInterrupt() {
+    try {
+      reopenSegment();
+    } catch (IOException e) {
+      writeFailure = e;
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  /**
+   * Reopens the current segment closed by an interrupt, truncated to its last whole record and forced, with the
+   * interrupt status of the calling thread put aside so that it does not close the segment again
+   */
+  private void reopenSegment() throws IOException {
+    final boolean interrupted = Thread.interrupted();
+    try {
+      closeQuietly(channel);
+      final FileChannel reopened = FileChannel.open(segmentPath(segmentId), StandardOpenOption.WRITE);
+      try {
+        reopened.truncate(segmentPosition);
+        reopened.position(segmentPosition);
+        reopened.force(false);
+      } catch (IOException e) {
+        closeQuietly(reopened);
+        throw e;
+      }
+      channel = reopened;
+      syncs.increment();
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    LOGGER.warn("Reopened log segment {} closed by an interrupted thread", segmentId);
+    markSynced(writtenPosition);
+  }
+
+  private void awaitSynced(final long position) {
+    synchronized (syncMonitor) {
+      while (syncedPosition < position) {
+        if (syncFailure != null) {
+          throw new InternalServerErrorException("Log " + directory + " failed to sync", syncFailure);
+        }
+        waitForSync();
+      }
+    }
+  }
+
+  private void markSynced(final long position) {
+    synchronized (syncMonitor) {
+      if (position > syncedPosition) {
+        syncedPosition = position;
+        syncMonitor.notifyAll();
+      }
+    }
+  }
+
+  private void waitForSync() {
+    try {
+      syncMonitor.wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InternalServerErrorException("Interrupted while waiting for log " + directory + " to sync", e);
+    }
+  }
+
+  private List<Long> listSegments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(path -> path.getFileName().toString())
+          .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+          .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private Path segmentPath(final long id) {
+    return directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+  }
+
+  private FileChannel openSegment(final long id) throws IOException {
+    return FileChannel.open(segmentPath(id), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Reads the valid records of a segment
+   * @return the offset right after the last valid record
+   */
+  private static long readRecords(final Path path, final Consumer<byte[]> consumer) throws IOException {
+    final long size = Files.size(path);
+    long offset = 0;
+
+    try (InputStream inputStream = Files.newInputStream(path);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream))) {
+      while (offset + HEADER_SIZE <= size) {
+        final int length = input.readInt();
+        final int checksum = input.readInt();
+        if (length < 0 || offset + HEADER_SIZE + length > size) {
+          break;
+        }
+
+        final byte[] payload = new byte[length];
+        input.readFully(payload);
+
+        final CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+
+        consumer.accept(payload);
+        offset += HEADER_SIZE + length;
+      }
+    } catch (EOFException e) {
+      // torn record at the end of the segment
+    }
+    return offset;
+  }
+
+  private void releaseQuietly(final FileLock lock) {
+    try {
+      lock.release();
+    } catch (IOException e) {
+      LOGGER.warn("Unable to release the lock of log directory {}", directory, e);
+    }
+  }
+
+  private static void closeQuietly(final Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      LOGGER.warn("Unable to close {}", closeable, e);
+    }
+  }
+
+  public static final class Builder {
+    private final Path directory;
+    private Durability durability = Durability.BATCHED;
+    private long syncIntervalMillis = 10;
+    private long segmentSize = 64L * 1024 * 1024;
+
+    public Builder(final Path directory) {
+      this.directory = directory;
+    }
+
+    public Builder withDurability(Durability durability) {
+      this.durability = durability;
+
+      return this;
+    }
+
+    public Builder withSyncIntervalMillis(long syncIntervalMillis) {
+      this.syncIntervalMillis = syncIntervalMillis;
+
+      return this;
+    }
+
+    public Builder withSegmentSize(long segmentSize) {
+      this.segmentSize = segmentSize;
+
+      return this;
+    }
+
+    public WriteAheadLog build() {
+      return new WriteAheadLog(this);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.enotes.note.service;
+
+/**
+ * Requests that are well formed but ask for more than is allowed, built without a stack trace as it is answered to the
+ * client rather than investigated
+ */
+public class BadRequestException extends RuntimeException {
+
+  private static final long serialVersionUID = 1762196437438739628L;
+
+  public BadRequestException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,14 @@
+package com.enotes.note.service;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+  private static final long serialVersionUID = 1762196437438739628L;
+
+  public ServiceUnavailableException(String message) {
+    super(message);
+  }
+
+  public ServiceUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
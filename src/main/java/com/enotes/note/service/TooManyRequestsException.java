@@ -0,0 +1,23 @@
+package com.enotes.note.service;
+
+/**
+ * Requests past a rate limit, built without a stack trace so that turning down a flood of requests stays cheap
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+  private static final long serialVersionUID = 1762196437438739628L;
+
+  private final long retryAfterSeconds;
+
+  /**
+   * @param retryAfterSeconds the time after which the request may succeed
+   */
+  public TooManyRequestsException(String message, long retryAfterSeconds) {
+    super(message, null, false, false);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -1,14 +1,17 @@
 package com.enotes.note.service.authentication;
 
+/**
+ * Sign up of a user name that is taken, built without a stack trace as it is an expected answer
+ */
 public class AlreadyExistsException extends RuntimeException {
 
   private static final long serialVersionUID = 1762196437438739628L;
 
   public AlreadyExistsException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 
   public AlreadyExistsException(String message, Throwable cause) {
-    super(message, cause);
+    super(message, cause, false, false);
   }
 }
@@ -1,18 +1,22 @@
 package com.enotes.note.service.authentication;
 
+/**
+ * Wrong credentials and refused tokens. Built without a stack trace since it is answered to the client rather than
+ * investigated, and a client retrying wrong credentials should cost little
+ */
 public class AuthenticationException extends RuntimeException {
 
   private static final long serialVersionUID = 1762196437438739628L;
 
   public AuthenticationException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 
   public AuthenticationException(String message, Throwable cause) {
-    super(message, cause);
+    super(message, cause, false, false);
   }
 
   public AuthenticationException(Throwable cause) {
-    super(cause);
+    super(cause == null ? null : cause.toString(), cause, false, false);
   }
 }
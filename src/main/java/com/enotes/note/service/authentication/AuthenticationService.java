@@ -1,19 +1,43 @@
 package com.enotes.note.service.authentication;
 
+import com.enotes.note.repository.authentication.RefreshSessions;
+import com.enotes.note.repository.authentication.RevokedTokens;
 import com.enotes.note.repository.authentication.UserDetails;
+import com.enotes.note.repository.authentication.UserNameReservations;
 import com.enotes.note.repository.authentication.UserRepository;
 import com.enotes.note.service.authentication.util.Password;
+import com.enotes.note.service.authentication.util.PasswordHasher;
 import com.enotes.note.service.authentication.util.TokenProvider;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 public class AuthenticationService {
 
+  // without a stack trace hence immutable, shared by every request failing for the same reason
+  private static final AuthenticationException INCORRECT_CREDENTIALS =
+      new AuthenticationException("The username or password is incorrect");
+  private static final AuthenticationException UNKNOWN_USER =
+      new AuthenticationException("The object you requested does not exist");
+  private static final AuthenticationException SESSION_CLOSED =
+      new AuthenticationException("The provided Refresh Token is either expired or has been revoked");
+
   private final UserRepository userRepository;
   private final TokenProvider tokenProvider;
+  private final PasswordHasher passwordHasher;
+  private final UserNameReservations userNameReservations;
+  private final RevokedTokens revokedTokens;
+  private final RefreshSessions refreshSessions;
 
-  public AuthenticationService(final UserRepository userRepository,
-      final TokenProvider tokenProvider) {
-    this.userRepository = userRepository;
-    this.tokenProvider = tokenProvider;
+  private AuthenticationService(final Builder builder) {
+    this.userRepository = builder.userRepository;
+    this.tokenProvider = builder.tokenProvider;
+    this.passwordHasher = builder.passwordHasher != null ? builder.passwordHasher : new PasswordHasher.Builder()
+        .withExecutor(Runnable::run)
+        .build();
+    this.userNameReservations = builder.userNameReservations;
+    this.revokedTokens = builder.revokedTokens;
+    this.refreshSessions = builder.refreshSessions;
   }
 
   /**
@@ -23,8 +47,43 @@ public class AuthenticationService {
    * @throws AlreadyExistsException if the same user name for the user exists
    */
   public AuthenticationToken signUp(User user) {
-    UserDetails storedUser = hashUserInfo(user);
+    return join(signUpAsync(user));
+  }
+
+  /**
+   * SignUp the given user once its password is hashed by the {@link PasswordHasher}. The user name is reserved
+   * first, so that signing up a user name that is taken or being signed up fails before hashing the password
+   * @param user user to signUp
+   * @return valid token unique for the user, completed exceptionally with {@link AlreadyExistsException} if the same
+   * user name for the user exists
+   * @throws AlreadyExistsException if the same user name for the user exists or is being signed up
+   * @throws com.enotes.note.service.ServiceUnavailableException if too many passwords are being hashed
+   */
+  public CompletableFuture<AuthenticationToken> signUpAsync(User user) {
+    if (userNameReservations == null) {
+      return hashAndSignUp(user);
+    }
+
+    final String userName = user.getUserName();
+    if (!userNameReservations.reserve(userName)) {
+      throw alreadyExists(user);
+    }
+    try {
+      return hashAndSignUp(user)
+          .whenComplete((authenticationToken, e) -> userNameReservations.release(userName));
+    } catch (RuntimeException e) {
+      userNameReservations.release(userName);
+      throw e;
+    }
+  }
+
+  private CompletableFuture<AuthenticationToken> hashAndSignUp(User user) {
+    return passwordHasher.hashPassword(user.getPassword())
+        .thenApply(hashedPassword -> completeSignUp(user,
+            new UserDetails.Builder(user.getUserName(), hashedPassword).build()));
+  }
 
+  private AuthenticationToken completeSignUp(User user, UserDetails storedUser) {
     final String accessToken = this.tokenProvider.generateToken(storedUser, TokenProvider.TokenType.ACCESS).getToken();
     final TokenInfo refreshToken = this.tokenProvider.generateToken(storedUser, TokenProvider.TokenType.REFRESH);
 
@@ -35,11 +94,16 @@ public class AuthenticationService {
     final boolean added = userRepository.putIfAbsent(storedUser.getUserName(), storedUser);
 
     if (!added) {
-      throw new AlreadyExistsException("Account with user name " + user.getUserName() + " already exist");
+      throw alreadyExists(user);
     }
+    openSession(refreshToken);
     return new AuthenticationToken(accessToken, refreshToken.getToken());
   }
 
+  private static AlreadyExistsException alreadyExists(User user) {
+    return new AlreadyExistsException("Account with user name " + user.getUserName() + " already exist");
+  }
+
   static UserDetails hashUserInfo(User user) {
     return new UserDetails.Builder(user.getUserName(), Password.hashPassword(user.getPassword()))
         .build();
@@ -52,20 +116,47 @@ public class AuthenticationService {
    * @throws AuthenticationException if the user name or password is incorrect
    */
   public AuthenticationToken signIn(User user) {
-    UserDetails storedUser = authenticate(user);
+    return join(signInAsync(user));
+  }
+
+  /**
+   * Sign in the given user once its password is checked by the {@link PasswordHasher}. The password is hashed again
+   * and stored if its hash was computed at another workload than the one of the {@link PasswordHasher}
+   * @param user user to signIn
+   * @return valid token unique for the user, completed exceptionally with {@link AuthenticationException} if the
+   * password is incorrect
+   * @throws AuthenticationException if the user name is incorrect
+   * @throws com.enotes.note.service.ServiceUnavailableException if too many passwords are being checked
+   */
+  public CompletableFuture<AuthenticationToken> signInAsync(User user) {
+    final UserDetails storedUser = userRepository.findById(user.getUserName())
+        .orElseThrow(() -> INCORRECT_CREDENTIALS);
+
+    return passwordHasher.verifyPassword(user.getPassword(), storedUser.getPassword())
+        .thenApply(password -> completeSignIn(storedUser, password
+            .orElseThrow(() -> INCORRECT_CREDENTIALS)));
+  }
 
+  private AuthenticationToken completeSignIn(UserDetails storedUser, String password) {
     final TokenInfo accessToken = this.tokenProvider.generateToken(storedUser, TokenProvider.TokenType.ACCESS);
     final TokenInfo refreshToken = this.tokenProvider.generateToken(storedUser, TokenProvider.TokenType.REFRESH);
 
-    storedUser = storedUser.toBuilder()
+    storedUser = new UserDetails.Builder(storedUser.getUserName(), password)
         .isTokenValid(true)
         .withRefreshTokenId(refreshToken.getId())
         .build();
     this.userRepository.put(storedUser.getUserName(), storedUser);
+    openSession(refreshToken);
 
     return new AuthenticationToken(accessToken.getToken(), refreshToken.getToken());
   }
 
+  private void openSession(final TokenInfo refreshToken) {
+    if (refreshSessions != null) {
+      refreshSessions.add(refreshToken.getUserName(), refreshToken.getId(), refreshToken.getExpiration());
+    }
+  }
+
   /**
    * Given the {@link AuthenticationToken} it tries to generate a new access token if the refresh token is valid
    * @param authenticationToken the authentication token that contains that is used to generate the new token
@@ -84,7 +175,9 @@ public class AuthenticationService {
   }
 
   /**
-   * Given the {@link AuthenticationToken} it tries to sign out the user if the refresh token is valid
+   * Given the {@link AuthenticationToken} it tries to sign out the user if the refresh token is valid. With
+   * {@link RefreshSessions} only the session of the refresh token is closed, the other devices of the user stay signed
+   * in. The access token is revoked too if it belongs to the user
    * @param authenticationToken the authentication token that contains that is used to generate the new token
    * @return return a {@link UserStatus} containing the user name and log out status set to true if the incoming
    * {@code authenticationToken} is valid
@@ -92,29 +185,120 @@ public class AuthenticationService {
    */
   public UserStatus signOut(AuthenticationToken authenticationToken) {
     final String refreshToken = authenticationToken.getRefreshToken();
-    UserDetails storedUser = getUserDetailsAndValidate(refreshToken);
+    final TokenInfo tokenInfo = tokenProvider.extractTokenInfo(refreshToken, TokenProvider.TokenType.REFRESH);
+    UserDetails storedUser = validate(tokenInfo);
 
-    storedUser = storedUser.toBuilder().isTokenValid(false).build();
-    userRepository.put(storedUser.getUserName(), storedUser);
+    if (refreshSessions != null) {
+      refreshSessions.revoke(tokenInfo.getUserName(), tokenInfo.getId());
+    } else {
+      storedUser = storedUser.toBuilder().isTokenValid(false).build();
+      userRepository.put(storedUser.getUserName(), storedUser);
+    }
+    revokeAccessToken(authenticationToken.getAccessToken(), storedUser.getUserName());
 
     return new UserStatus(storedUser.getUserName(), true);
   }
 
-  private UserDetails authenticate(User user) {
-    return userRepository.findById(user.getUserName())
-        .filter(hashedUser -> Password.checkPassword(user.getPassword(), hashedUser.getPassword()))
-    .orElseThrow(() -> new AuthenticationException("The username or password is incorrect"));
+  private void revokeAccessToken(final String accessToken, final String userName) {
+    if (revokedTokens == null || accessToken == null) {
+      return;
+    }
+
+    final TokenInfo tokenInfo = tokenProvider.extractTokenInfo(accessToken, TokenProvider.TokenType.ACCESS);
+    if (tokenInfo.isValid() && userName.equals(tokenInfo.getUserName())) {
+      revokedTokens.revoke(tokenInfo.getId(), tokenInfo.getExpiration());
+    }
+  }
+
+  private static <T> T join(final CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
   }
 
   private UserDetails getUserDetailsAndValidate(final String refreshToken) {
-    final TokenInfo tokenInfo = tokenProvider.extractTokenInfo(refreshToken, TokenProvider.TokenType.REFRESH);
+    return validate(tokenProvider.extractTokenInfo(refreshToken, TokenProvider.TokenType.REFRESH));
+  }
+
+  private UserDetails validate(final TokenInfo tokenInfo) {
+    // a token turned down carries no user name to look up
+    if (!tokenInfo.isValid()) {
+      throw SESSION_CLOSED;
+    }
     final UserDetails storedUser = userRepository.findById(tokenInfo.getUserName())
-        .orElseThrow(() -> new AuthenticationException("The object you requested does not exist"));
+        .orElseThrow(() -> UNKNOWN_USER);
 
-    if (!tokenInfo.isValid() || storedUser.isTokenInValidated()
-        || !storedUser.getRefreshTokenId().equals(tokenInfo.getId())) {
-      throw new AuthenticationException("The provided Refresh Token is either expired or has been revoked");
+    if (!isSessionOpen(storedUser, tokenInfo)) {
+      throw SESSION_CLOSED;
     }
     return storedUser;
   }
+
+  private boolean isSessionOpen(final UserDetails storedUser, final TokenInfo tokenInfo) {
+    if (refreshSessions != null) {
+      return refreshSessions.isActive(storedUser.getUserName(), tokenInfo.getId());
+    }
+    return !storedUser.isTokenInValidated() && storedUser.getRefreshTokenId().equals(tokenInfo.getId());
+  }
+
+  public static class Builder {
+    private final UserRepository userRepository;
+    private final TokenProvider tokenProvider;
+    private PasswordHasher passwordHasher;
+    private UserNameReservations userNameReservations;
+    private RevokedTokens revokedTokens;
+    private RefreshSessions refreshSessions;
+
+    public Builder(UserRepository userRepository, TokenProvider tokenProvider) {
+      this.userRepository = userRepository;
+      this.tokenProvider = tokenProvider;
+    }
+
+    /**
+     * @param passwordHasher hashes the passwords, null to hash them on the calling thread
+     */
+    public Builder withPasswordHasher(PasswordHasher passwordHasher) {
+      this.passwordHasher = passwordHasher;
+
+      return this;
+    }
+
+    /**
+     * @param userNameReservations reserves the user names being signed up, null to find out that a user name is
+     * taken only when storing the user
+     */
+    public Builder withUserNameReservations(UserNameReservations userNameReservations) {
+      this.userNameReservations = userNameReservations;
+
+      return this;
+    }
+
+    /**
+     * @param revokedTokens records the access tokens revoked on sign out, null to let them live until they expire
+     */
+    public Builder withRevokedTokens(RevokedTokens revokedTokens) {
+      this.revokedTokens = revokedTokens;
+
+      return this;
+    }
+
+    /**
+     * @param refreshSessions holds the refresh tokens of the open sessions of every user, null to keep only the
+     * refresh token of the last sign in of a user, which signs out its other devices
+     */
+    public Builder withRefreshSessions(RefreshSessions refreshSessions) {
+      this.refreshSessions = refreshSessions;
+
+      return this;
+    }
+
+    public AuthenticationService build() {
+      return new AuthenticationService(this);
+    }
+  }
 }
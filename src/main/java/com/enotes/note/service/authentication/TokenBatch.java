@@ -0,0 +1,64 @@
+package com.enotes.note.service.authentication;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Access and refresh tokens to introspect at once, see {@link TokenIntrospector}
+ */
+public class TokenBatch {
+
+  private final List<String> accessTokens;
+  private final List<String> refreshTokens;
+
+  private TokenBatch() {
+    this.accessTokens = null;
+    this.refreshTokens = null;
+  }
+
+  public TokenBatch(final List<String> accessTokens, final List<String> refreshTokens) {
+    this.accessTokens = accessTokens;
+    this.refreshTokens = refreshTokens;
+  }
+
+  /**
+   * @return the access tokens, empty if there are none
+   */
+  public List<String> getAccessTokens() {
+    return accessTokens != null ? accessTokens : Collections.emptyList();
+  }
+
+  /**
+   * @return the refresh tokens, empty if there are none
+   */
+  public List<String> getRefreshTokens() {
+    return refreshTokens != null ? refreshTokens : Collections.emptyList();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final TokenBatch that = (TokenBatch) o;
+    return Objects.equals(getAccessTokens(), that.getAccessTokens())
+        && Objects.equals(getRefreshTokens(), that.getRefreshTokens());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getAccessTokens(), getRefreshTokens());
+  }
+
+  @Override
+  public String toString() {
+    return "TokenBatch{" +
+        "accessTokens=" + getAccessTokens().size() +
+        ", refreshTokens=" + getRefreshTokens().size() +
+        '}';
+  }
+}
@@ -0,0 +1,57 @@
+package com.enotes.note.service.authentication;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The introspection of every token of a {@link TokenBatch}, in the order of the tokens of the batch
+ */
+public class TokenBatchIntrospection {
+
+  private final List<TokenIntrospection> accessTokens;
+  private final List<TokenIntrospection> refreshTokens;
+
+  private TokenBatchIntrospection() {
+    this.accessTokens = null;
+    this.refreshTokens = null;
+  }
+
+  public TokenBatchIntrospection(final List<TokenIntrospection> accessTokens,
+      final List<TokenIntrospection> refreshTokens) {
+    this.accessTokens = accessTokens;
+    this.refreshTokens = refreshTokens;
+  }
+
+  public List<TokenIntrospection> getAccessTokens() {
+    return accessTokens;
+  }
+
+  public List<TokenIntrospection> getRefreshTokens() {
+    return refreshTokens;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final TokenBatchIntrospection that = (TokenBatchIntrospection) o;
+    return Objects.equals(accessTokens, that.accessTokens) && Objects.equals(refreshTokens, that.refreshTokens);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(accessTokens, refreshTokens);
+  }
+
+  @Override
+  public String toString() {
+    return "TokenBatchIntrospection{" +
+        "accessTokens=" + accessTokens +
+        ", refreshTokens=" + refreshTokens +
+        '}';
+  }
+}
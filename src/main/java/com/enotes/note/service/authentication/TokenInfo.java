@@ -1,17 +1,21 @@
 package com.enotes.note.service.authentication;
 
+import java.util.Date;
+
 public class TokenInfo {
 
   private final String id;
   private final String userName;
   private final boolean isValid;
   private final String token;
+  private final Date expiration;
 
   public TokenInfo(Builder builder) {
     this.id = builder.id;
     this.userName = builder.userName;
     this.isValid = builder.isValid;
     this.token = builder.token;
+    this.expiration = builder.expiration;
   }
 
   public String getId() {
@@ -30,11 +34,16 @@ public class TokenInfo {
     return token;
   }
 
+  public Date getExpiration() {
+    return expiration;
+  }
+
   public static final class Builder {
     private String id;
     private String userName;
     private boolean isValid;
     private String token;
+    private Date expiration;
 
     public Builder(String token) {
       this.token = token;
@@ -55,6 +64,11 @@ public class TokenInfo {
       return this;
     }
 
+    public Builder expiration(Date expiration) {
+      this.expiration = expiration;
+      return this;
+    }
+
     public TokenInfo build() {
       return new TokenInfo(this);
     }
@@ -0,0 +1,75 @@
+package com.enotes.note.service.authentication;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Whether a token is active, along with its user and expiration if it is. Inactive tokens tell nothing else, whether
+ * they are malformed, expired or revoked
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+
+  static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null);
+
+  private final boolean active;
+  private final String userName;
+  private final Long expiration;
+
+  private TokenIntrospection() {
+    this(false, null, null);
+  }
+
+  public TokenIntrospection(final boolean active, final String userName, final Long expiration) {
+    this.active = active;
+    this.userName = userName;
+    this.expiration = expiration;
+  }
+
+  @JsonProperty(value="active")
+  public boolean isActive() {
+    return active;
+  }
+
+  @JsonProperty(value="userName")
+  public String getUserName() {
+    return userName;
+  }
+
+  /**
+   * @return the expiration of the token in seconds since the epoch, as in its exp claim, null if it is inactive
+   */
+  @JsonProperty(value="exp")
+  public Long getExpiration() {
+    return expiration;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final TokenIntrospection that = (TokenIntrospection) o;
+    return active == that.active && Objects.equals(userName, that.userName)
+        && Objects.equals(expiration, that.expiration);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(active, userName, expiration);
+  }
+
+  @Override
+  public String toString() {
+    return "TokenIntrospection{" +
+        "active=" + active +
+        ", userName='" + userName + '\'' +
+        ", expiration=" + expiration +
+        '}';
+  }
+}
@@ -0,0 +1,271 @@
+package com.enotes.note.service.authentication;
+
+import com.enotes.note.repository.authentication.RefreshSessions;
+import com.enotes.note.repository.authentication.RevokedTokens;
+import com.enotes.note.repository.authentication.UserRepository;
+import com.enotes.note.service.BadRequestException;
+import com.enotes.note.service.ServiceUnavailableException;
+import com.enotes.note.service.authentication.util.TokenProvider;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tells whether the tokens of a batch are active, for the services that cannot verify the tokens on their own.
+ *
+ * <p>An access token is active if its signature holds, it has not expired and it was not revoked on sign out. A refresh
+ * token is active if its signature holds, it has not expired and its session is still open.
+ *
+ * <p>The batch is cut into as many contiguous slices as there are workers, with at least {@link #MIN_SLICE_SIZE}
+ * tokens per slice, and every slice is verified by a worker writing straight into its range of the results, so that
+ * a large batch keeps every processor busy and a small one costs a single hand-off. Like the {@code PasswordHasher},
+ * slices arriving when every worker is busy and the queue is full are rejected with
+ * {@link ServiceUnavailableException} rather than waiting, and the slices of the batch already submitted are
+ * abandoned.
+ */
+public class TokenIntrospector implements AutoCloseable {
+
+  static final int MIN_SLICE_SIZE = 16;
+
+  private static final String OVERLOADED_MESSAGE = "Too many introspection requests, try again later";
+
+  private final TokenProvider tokenProvider;
+  private final UserRepository userRepository;
+  private final RevokedTokens revokedTokens;
+  private final RefreshSessions refreshSessions;
+  private final Executor executor;
+  private final int parallelism;
+  private final int maxBatchSize;
+
+  private TokenIntrospector(final Builder builder) {
+    this.tokenProvider = builder.tokenProvider;
+    this.userRepository = builder.userRepository;
+    this.revokedTokens = builder.revokedTokens;
+    this.refreshSessions = builder.refreshSessions;
+    this.executor = builder.executor != null ? builder.executor
+        : new ThreadPoolExecutor(builder.threads, builder.threads, 0, TimeUnit.MILLISECONDS,
+            createQueue(builder.queueSize), new IntrospectorThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    this.parallelism = Math.max(1, builder.threads);
+    this.maxBatchSize = builder.maxBatchSize;
+  }
+
+  /**
+   * @param batch the tokens to introspect
+   * @return the introspection of every token, in the order of the batch
+   * @throws BadRequestException if the batch holds more than the maximum number of tokens
+   * @throws ServiceUnavailableException if there is no room left to verify the tokens
+   */
+  public CompletableFuture<TokenBatchIntrospection> introspect(final TokenBatch batch) {
+    final List<String> accessTokens = batch.getAccessTokens();
+    final List<String> refreshTokens = batch.getRefreshTokens();
+    final int accessCount = accessTokens.size();
+    final int size = accessCount + refreshTokens.size();
+
+    if (size > maxBatchSize) {
+      throw new BadRequestException("At most " + maxBatchSize + " tokens can be introspected at once");
+    }
+
+    final TokenIntrospection[] results = new TokenIntrospection[size];
+    final int slices = Math.min(parallelism, (size + MIN_SLICE_SIZE - 1) / MIN_SLICE_SIZE);
+    final CompletableFuture<?>[] futures = new CompletableFuture<?>[slices];
+    // set when a slice is rejected, the slices already submitted then stop instead of verifying tokens for a batch
+    // answered with 503
+    final AtomicBoolean abandoned = new AtomicBoolean();
+
+    for (int slice = 0; slice < slices; slice++) {
+      final int from = (int) ((long) size * slice / slices);
+      final int to = (int) ((long) size * (slice + 1) / slices);
+
+      try {
+        futures[slice] = submit(() -> {
+          for (int i = from; i < to && !abandoned.get(); i++) {
+            results[i] = i < accessCount ? introspectAccessToken(accessTokens.get(i))
+                : introspectRefreshToken(refreshTokens.get(i - accessCount));
+          }
+        });
+      } catch (ServiceUnavailableException e) {
+        abandoned.set(true);
+        throw e;
+      }
+    }
+
+    // completing every slice publishes the results they wrote
+    final List<TokenIntrospection> introspections = Arrays.asList(results);
+    return CompletableFuture.allOf(futures)
+        .thenApply(done -> new TokenBatchIntrospection(introspections.subList(0, accessCount),
+            introspections.subList(accessCount, size)));
+  }
+
+  private TokenIntrospection introspectAccessToken(final String accessToken) {
+    if (accessToken == null) {
+      return TokenIntrospection.INACTIVE;
+    }
+
+    final TokenInfo tokenInfo = tokenProvider.extractTokenInfo(accessToken, TokenProvider.TokenType.ACCESS);
+    if (!tokenInfo.isValid()
+        || revokedTokens != null && revokedTokens.isRevoked(tokenInfo.getId(), tokenInfo.getExpiration())) {
+      return TokenIntrospection.INACTIVE;
+    }
+    return active(tokenInfo);
+  }
+
+  private TokenIntrospection introspectRefreshToken(final String refreshToken) {
+    if (refreshToken == null) {
+      return TokenIntrospection.INACTIVE;
+    }
+
+    final TokenInfo tokenInfo = tokenProvider.extractTokenInfo(refreshToken, TokenProvider.TokenType.REFRESH);
+    if (!tokenInfo.isValid() || !isSessionOpen(tokenInfo)) {
+      return TokenIntrospection.INACTIVE;
+    }
+    return active(tokenInfo);
+  }
+
+  private boolean isSessionOpen(final TokenInfo tokenInfo) {
+    if (refreshSessions != null) {
+      return refreshSessions.isActive(tokenInfo.getUserName(), tokenInfo.getId());
+    }
+    if (userRepository == null) {
+      return true;
+    }
+    return userRepository.findById(tokenInfo.getUserName())
+        .filter(storedUser -> !storedUser.isTokenInValidated())
+        .filter(storedUser -> tokenInfo.getId() != null && tokenInfo.getId().equals(storedUser.getRefreshTokenId()))
+        .isPresent();
+  }
+
+  private static TokenIntrospection active(final TokenInfo tokenInfo) {
+    final Long expiration = tokenInfo.getExpiration() != null
+        ? TimeUnit.MILLISECONDS.toSeconds(tokenInfo.getExpiration().getTime()) : null;
+
+    return new TokenIntrospection(true, tokenInfo.getUserName(), expiration);
+  }
+
+  @Override
+  public void close() {
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  private CompletableFuture<Void> submit(final Runnable task) {
+    try {
+      return CompletableFuture.runAsync(task, executor);
+    } catch (RejectedExecutionException e) {
+      throw new ServiceUnavailableException(OVERLOADED_MESSAGE, e);
+    }
+  }
+
+  private static BlockingQueue<Runnable> createQueue(final int queueSize) {
+    return queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>();
+  }
+
+  public static class Builder {
+    private final TokenProvider tokenProvider;
+    private UserRepository userRepository;
+    private RevokedTokens revokedTokens;
+    private RefreshSessions refreshSessions;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueSize = 64;
+    private Executor executor;
+    private int maxBatchSize = 1_000;
+
+    public Builder(TokenProvider tokenProvider) {
+      this.tokenProvider = tokenProvider;
+    }
+
+    /**
+     * @param userRepository looks up the refresh token of the last sign in of a user when there are no
+     * {@link RefreshSessions}, null to deem every well signed refresh token active
+     */
+    public Builder withUserRepository(UserRepository userRepository) {
+      this.userRepository = userRepository;
+
+      return this;
+    }
+
+    /**
+     * @param revokedTokens the access tokens revoked on sign out, null to deem every well signed access token active
+     */
+    public Builder withRevokedTokens(RevokedTokens revokedTokens) {
+      this.revokedTokens = revokedTokens;
+
+      return this;
+    }
+
+    /**
+     * @param refreshSessions the open sessions of every user, checked before the {@link UserRepository}
+     */
+    public Builder withRefreshSessions(RefreshSessions refreshSessions) {
+      this.refreshSessions = refreshSessions;
+
+      return this;
+    }
+
+    /**
+     * @param threads the number of slices of a batch verified at the same time
+     */
+    public Builder withThreads(int threads) {
+      this.threads = threads;
+
+      return this;
+    }
+
+    /**
+     * @param queueSize the number of slices waiting for a worker before new batches are rejected
+     */
+    public Builder withQueueSize(int queueSize) {
+      this.queueSize = queueSize;
+
+      return this;
+    }
+
+    /**
+     * @param executor verifies the slices instead of a pool of {@link #withThreads(int)} workers, rejecting with
+     * {@link RejectedExecutionException} the slices it has no room for
+     */
+    public Builder withExecutor(Executor executor) {
+      this.executor = executor;
+
+      return this;
+    }
+
+    /**
+     * @param maxBatchSize the number of access and refresh tokens a batch holds at most
+     */
+    public Builder withMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+
+      return this;
+    }
+
+    public TokenIntrospector build() {
+      return new TokenIntrospector(this);
+    }
+  }
+
+  private static final class IntrospectorThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, "token-introspector-" + count.incrementAndGet());
+      thread.setDaemon(true);
+
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.service.TooManyRequestsException;
+
+/**
+ * Limits the sign ups and sign ins by client address and by user name, so that neither a single client nor attempts
+ * on a single account from many clients can keep the password hashing busy. Likewise limits the tokens a client
+ * address has introspected, so that a client cannot keep the signature verification busy.
+ */
+public class AuthenticationRateLimiter {
+
+  private static final String TOO_MANY_REQUESTS_MESSAGE = "Too many authentication requests, try again later";
+
+  private final TokenBucketRateLimiter addressRateLimiter;
+  private final TokenBucketRateLimiter userRateLimiter;
+  private final TokenBucketRateLimiter introspectionRateLimiter;
+
+  public AuthenticationRateLimiter(final TokenBucketRateLimiter addressRateLimiter,
+      final TokenBucketRateLimiter userRateLimiter) {
+    this(addressRateLimiter, userRateLimiter, null);
+  }
+
+  /**
+   * @param addressRateLimiter limits the requests of every client address, null for no limit
+   * @param userRateLimiter limits the requests for every user name, null for no limit
+   * @param introspectionRateLimiter limits the tokens introspected by every client address, a token per token of a
+   * batch, null for no limit
+   */
+  public AuthenticationRateLimiter(final TokenBucketRateLimiter addressRateLimiter,
+      final TokenBucketRateLimiter userRateLimiter, final TokenBucketRateLimiter introspectionRateLimiter) {
+    this.addressRateLimiter = addressRateLimiter;
+    this.userRateLimiter = userRateLimiter;
+    this.introspectionRateLimiter = introspectionRateLimiter;
+  }
+
+  /**
+   * @param userName the user name to sign up or sign in, may be null
+   * @param address the address of the client
+   * @throws TooManyRequestsException if the client or the user name went over its rate
+   */
+  public void acquire(final String userName, final String address) {
+    acquire(addressRateLimiter, address);
+    acquire(userRateLimiter, userName);
+  }
+
+  /**
+   * @param address the address of the client
+   * @param tokens the number of tokens the client asks to introspect
+   * @throws TooManyRequestsException if the client went over its rate
+   */
+  public void acquireIntrospection(final String address, final int tokens) {
+    acquire(introspectionRateLimiter, address, tokens);
+  }
+
+  private static void acquire(final TokenBucketRateLimiter rateLimiter, final String key) {
+    acquire(rateLimiter, key, 1);
+  }
+
+  private static void acquire(final TokenBucketRateLimiter rateLimiter, final String key, final int permits) {
+    if (rateLimiter == null || key == null) {
+      return;
+    }
+
+    final long waitMillis = rateLimiter.tryAcquire(key, permits);
+    if (waitMillis > 0) {
+      // rounded up to whole seconds
+      throw new TooManyRequestsException(TOO_MANY_REQUESTS_MESSAGE, (waitMillis + 999) / 1000);
+    }
+  }
+}
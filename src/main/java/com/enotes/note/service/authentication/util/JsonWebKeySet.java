@@ -0,0 +1,160 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.service.InternalServerErrorException;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * The public keys verifying access tokens as a JSON Web Key Set (RFC 7517), for other services to verify the tokens
+ * without calling this service.
+ *
+ * <p>The set is serialized once per set of keys of the {@link KeyMaterial}, along with a strong entity tag computed from
+ * its bytes, and served as is until the keys are reloaded.
+ */
+public class JsonWebKeySet {
+
+  private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+  private static final int ENTITY_TAG_BYTES = 16;
+
+  private final KeyMaterial keyMaterial;
+  private volatile Document document;
+
+  public JsonWebKeySet(final KeyMaterial keyMaterial) {
+    this.keyMaterial = keyMaterial;
+  }
+
+  /**
+   * @return the serialized set of the current public keys
+   */
+  public Document getDocument() {
+    final KeyMaterial.PublicKeys publicKeys = keyMaterial.getPublicKeys();
+
+    Document current = document;
+    if (current == null || current.publicKeys != publicKeys) {
+      // racing threads serialize the same keys to the same bytes, whichever wins
+      current = new Document(publicKeys, serialize(publicKeys));
+      document = current;
+    }
+    return current;
+  }
+
+  static byte[] serialize(final KeyMaterial.PublicKeys publicKeys) {
+    final StringBuilder json = new StringBuilder("{\"keys\":[");
+
+    boolean first = true;
+    for (Map.Entry<String, PublicKey> key : publicKeys.getKeys().entrySet()) {
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+
+      final String algorithm = key.getKey().equals(publicKeys.getSigningKeyId())
+          ? publicKeys.getSigningAlgorithm().getValue() : null;
+      appendKey(json, key.getKey(), key.getValue(), algorithm);
+    }
+    return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void appendKey(final StringBuilder json, final String keyId, final PublicKey key,
+      final String algorithm) {
+    if (key instanceof RSAPublicKey) {
+      final RSAPublicKey rsaKey = (RSAPublicKey) key;
+
+      json.append("{\"kty\":\"RSA\"");
+      appendMember(json, "kid", keyId);
+      appendMember(json, "use", "sig");
+      appendMember(json, "alg", algorithm);
+      appendMember(json, "n", encode(rsaKey.getModulus(), 0));
+      appendMember(json, "e", encode(rsaKey.getPublicExponent(), 0));
+    } else if (key instanceof ECPublicKey) {
+      final ECPublicKey ecKey = (ECPublicKey) key;
+      final int fieldSize = ecKey.getParams().getCurve().getField().getFieldSize();
+      final int coordinateBytes = (fieldSize + 7) / 8;
+
+      json.append("{\"kty\":\"EC\"");
+      appendMember(json, "kid", keyId);
+      appendMember(json, "use", "sig");
+      appendMember(json, "alg", algorithm);
+      appendMember(json, "crv", "P-" + fieldSize);
+      appendMember(json, "x", encode(ecKey.getW().getAffineX(), coordinateBytes));
+      appendMember(json, "y", encode(ecKey.getW().getAffineY(), coordinateBytes));
+    } else {
+      throw new IllegalArgumentException("Keys of type " + key.getAlgorithm() + " are not supported");
+    }
+    json.append('}');
+  }
+
+  /**
+   * Appends the member unless its value is null, the values are base64url or plain ASCII and need no escaping
+   */
+  private static void appendMember(final StringBuilder json, final String name, final String value) {
+    if (value != null) {
+      json.append(",\"").append(name).append("\":\"").append(value).append('"');
+    }
+  }
+
+  /**
+   * @param length the number of bytes to left pad the value to, 0 for its minimal unsigned length
+   */
+  private static String encode(final BigInteger value, final int length) {
+    byte[] bytes = value.toByteArray();
+    if (bytes.length > 1 && bytes[0] == 0) {
+      bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+    }
+    if (bytes.length < length) {
+      final byte[] padded = new byte[length];
+      System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+      bytes = padded;
+    }
+    return BASE64_URL.encodeToString(bytes);
+  }
+
+  /**
+   * A serialized key set with its entity tag
+   */
+  public static final class Document {
+
+    private final KeyMaterial.PublicKeys publicKeys;
+    private final byte[] json;
+    private final String entityTag;
+
+    private Document(final KeyMaterial.PublicKeys publicKeys, final byte[] json) {
+      this.publicKeys = publicKeys;
+      this.json = json;
+      this.entityTag = entityTag(json);
+    }
+
+    /**
+     * @return the UTF-8 JSON of the key set, not to be modified
+     */
+    public byte[] getJson() {
+      return json;
+    }
+
+    /**
+     * @return the strong entity tag of the JSON, quoted
+     */
+    public String getEntityTag() {
+      return entityTag;
+    }
+
+    private static String entityTag(final byte[] json) {
+      try {
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+
+        return '"' + BASE64_URL.encodeToString(Arrays.copyOf(digest, ENTITY_TAG_BYTES)) + '"';
+      } catch (GeneralSecurityException e) {
+        throw new InternalServerErrorException(e);
+      }
+    }
+  }
+}
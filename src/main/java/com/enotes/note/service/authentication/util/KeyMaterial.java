@@ -0,0 +1,604 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.application.authentication.StoreConfigProperties;
+import com.enotes.note.service.InternalServerErrorException;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECKey;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+
+import static com.enotes.note.service.authentication.util.P12Stores.createKeyStore;
+import static com.enotes.note.service.authentication.util.P12Stores.readKeyStore;
+import static com.enotes.note.service.authentication.util.P12Stores.storeKeyPair;
+import static com.enotes.note.service.authentication.util.P12Stores.storeSecretKey;
+
+/**
+ * Keys signing and verifying the tokens, loaded once from the key store and shared by the issuers and the verifiers of
+ * the tokens.
+ *
+ * <p>Tokens are signed by the keys stored under {@link JwtTokenProvider#SECRET_KEY} and
+ * {@link JwtTokenProvider#PRIVATE_KEY}, and carry the id of their key in their {@code kid} header: the first 16 bytes
+ * of the SHA-256 digest of the encoded key, or of the public key for a key pair. Every other key of the store verifies
+ * tokens too, so that keys being retired can be kept in the store under another alias.
+ *
+ * <p>The key store file is checked for changes every {@code reloadIntervalMillis} and its keys are loaded again when it
+ * has changed, a store that cannot be read or lacks a signing key leaving the keys as they are. Keys that are no longer
+ * in the store keep verifying tokens until the tokens they signed have expired, and are dropped from the published
+ * public keys on the first check past that. The keys are held in an immutable
+ * snapshot swapped on every reload, so that finding the key of a token takes a volatile read and a hash lookup.
+ */
+public final class KeyMaterial implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KeyMaterial.class);
+  private static final int KEY_ID_BYTES = 16;
+
+  private final StoreConfigProperties properties;
+  private final Clock clock;
+  private final ScheduledExecutorService watcher;
+  private volatile Snapshot snapshot;
+  private FileTime lastModified;
+
+  /**
+   * Reads the keys from the key store, creating and storing the keys that are missing or that do not fit the
+   * configured algorithms. Changing an algorithm hence replaces its key, invalidating the tokens already issued with it
+   */
+  public KeyMaterial(final StoreConfigProperties properties) {
+    this(properties, 0);
+  }
+
+  /**
+   * @param reloadIntervalMillis if positive, how often the key store file is checked for new keys
+   */
+  public KeyMaterial(final StoreConfigProperties properties, final long reloadIntervalMillis) {
+    this(properties, reloadIntervalMillis, Clock.systemUTC());
+  }
+
+  KeyMaterial(final StoreConfigProperties properties, final long reloadIntervalMillis, final Clock clock) {
+    this.properties = properties;
+    this.clock = clock;
+    this.snapshot = createKeys(properties).toSnapshot(null, clock.millis());
+    this.lastModified = getLastModified();
+
+    if (reloadIntervalMillis > 0 && lastModified != null) {
+      watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "key-store-watcher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      watcher.scheduleWithFixedDelay(this::refresh, reloadIntervalMillis, reloadIntervalMillis,
+          TimeUnit.MILLISECONDS);
+    } else {
+      watcher = null;
+    }
+  }
+
+  /**
+   * Fixed keys, signing and verifying with these keys only
+   */
+  KeyMaterial(final JwtTokenProvider.Keys keys) {
+    this.properties = null;
+    this.clock = Clock.systemUTC();
+    this.watcher = null;
+    this.snapshot = new StoreKeys(keys.getSecretKey(), keys.getPublicKey(), keys.getPrivateKey(),
+        keys.getAccessTokenAlgorithm(), keys.getRefreshTokenAlgorithm())
+        .toSnapshot(null, clock.millis());
+  }
+
+  /**
+   * @return the key new tokens of the type are signed with
+   */
+  public SigningKey getSigningKey(final TokenProvider.TokenType type) {
+    return snapshot.getSigningKey(type);
+  }
+
+  /**
+   * @param keyId the {@code kid} header of the token, null for the tokens issued before keys had ids
+   * @return the key verifying the tokens of the type signed by the key {@code keyId}, the key currently signing them
+   * if {@code keyId} is null, null if there is no such key
+   */
+  public Key getVerificationKey(final TokenProvider.TokenType type, final String keyId) {
+    final Snapshot keys = snapshot;
+    if (keyId == null) {
+      return keys.getSigningKey(type).getVerificationKey();
+    }
+    final VerificationKey verificationKey = keys.getVerificationKeys(type).get(keyId);
+
+    return verificationKey != null && verificationKey.retainUntilMillis > clock.millis() ? verificationKey.key : null;
+  }
+
+  /**
+   * @return the public keys verifying access tokens, the same instance until the keys are reloaded
+   */
+  public PublicKeys getPublicKeys() {
+    return snapshot.publicKeys;
+  }
+
+  /**
+   * @return resolves the key of a token of the type from its {@code kid} header, failing with
+   * {@link SignatureException} if the key is unknown
+   */
+  public SigningKeyResolver getSigningKeyResolver(final TokenProvider.TokenType type) {
+    return new SigningKeyResolverAdapter() {
+      @Override
+      @SuppressWarnings("rawtypes")
+      public Key resolveSigningKey(final JwsHeader header, final Claims claims) {
+        return resolve(header);
+      }
+
+      @Override
+      @SuppressWarnings("rawtypes")
+      public Key resolveSigningKey(final JwsHeader header, final String plaintext) {
+        return resolve(header);
+      }
+
+      @SuppressWarnings("rawtypes")
+      private Key resolve(final JwsHeader header) {
+        final Key key = getVerificationKey(type, header.getKeyId());
+        if (key == null) {
+          throw new SignatureException("No key with id " + header.getKeyId() + " verifies " + type + " tokens");
+        }
+        return key;
+      }
+    };
+  }
+
+  /**
+   * Loads the keys of the key store again if its file has changed, drops the retired keys past their retention if not
+   */
+  void refresh() {
+    if (!reloadIfModified()) {
+      pruneExpiredKeys();
+    }
+  }
+
+  /**
+   * Drops the keys no longer in the store whose tokens have all expired
+   * @return true if any key was dropped
+   */
+  synchronized boolean pruneExpiredKeys() {
+    final Snapshot keys = snapshot;
+    final Snapshot pruned = keys.withoutExpiredKeys(clock.millis());
+    if (pruned == keys) {
+      return false;
+    }
+
+    snapshot = pruned;
+    LOGGER.info("Dropped the retired keys of {} whose tokens have expired", properties.getLocation());
+    return true;
+  }
+
+  /**
+   * Loads the keys of the key store again if its file has changed since it was last loaded
+   * @return true if the keys were loaded
+   */
+  synchronized boolean reloadIfModified() {
+    final FileTime modified = getLastModified();
+    if (modified == null || modified.equals(lastModified)) {
+      return false;
+    }
+
+    try {
+      final StoreKeys storeKeys = readKeys(properties);
+      lastModified = modified;
+      snapshot = storeKeys.toSnapshot(snapshot, clock.millis());
+      LOGGER.info("Reloaded the keys of {}, signing access tokens with key {} and refresh tokens with key {}",
+          properties.getLocation(), snapshot.accessSigningKey.getKeyId(), snapshot.refreshSigningKey.getKeyId());
+      return true;
+    } catch (IOException | GeneralSecurityException | IllegalStateException e) {
+      LOGGER.error("Failed to reload the keys of {}, keeping the current keys", properties.getLocation(), e);
+      return false;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (watcher != null) {
+      watcher.shutdownNow();
+    }
+  }
+
+  private FileTime getLastModified() {
+    if (properties == null || properties.getLocation() == null) {
+      return null;
+    }
+
+    final Path location = Paths.get(properties.getLocation());
+    try {
+      return Files.isRegularFile(location) ? Files.getLastModifiedTime(location) : null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static StoreKeys createKeys(final StoreConfigProperties properties) {
+    final String storeLocation = properties.getLocation();
+    final String storePwd = properties.getPwd();
+    final String keyPwd = properties.getKeyPwd();
+    final SignatureAlgorithm accessTokenAlgorithm = properties.getAccessTokenAlgorithm();
+    final SignatureAlgorithm refreshTokenAlgorithm = properties.getRefreshTokenAlgorithm();
+
+    Objects.requireNonNull(storeLocation, "store location should be configured");
+    Objects.requireNonNull(storePwd, "store password should be configured");
+    Objects.requireNonNull(keyPwd, "secret key password should be configured");
+    Objects.requireNonNull(accessTokenAlgorithm, "access token algorithm should be configured");
+    Objects.requireNonNull(refreshTokenAlgorithm, "refresh token algorithm should be configured");
+    if (!accessTokenAlgorithm.isRsa() && !accessTokenAlgorithm.isEllipticCurve()) {
+      throw new IllegalArgumentException("access token algorithm should be RSA or elliptic curve based but was "
+          + accessTokenAlgorithm);
+    }
+    if (!refreshTokenAlgorithm.isHmac()) {
+      throw new IllegalArgumentException("refresh token algorithm should be HMAC based but was "
+          + refreshTokenAlgorithm);
+    }
+
+    try {
+      KeyStore keyStore;
+      Key secretKey = null;
+      Key privateKey = null;
+      Key publicKey = null;
+      try {
+        keyStore = readKeyStore(storeLocation, storePwd);
+        secretKey = P12Stores.readKey(keyStore, JwtTokenProvider.SECRET_KEY, keyPwd);
+        privateKey = P12Stores.readKey(keyStore, JwtTokenProvider.PRIVATE_KEY, keyPwd);
+        if (privateKey != null) {
+          publicKey = P12Stores.readCertificate(keyStore, JwtTokenProvider.PRIVATE_KEY).getPublicKey();
+        }
+      } catch (IOException e) {
+        keyStore = createKeyStore();
+        keyStore.load(null, null);
+      }
+
+      boolean created = false;
+      if (secretKey == null || !fits(secretKey, refreshTokenAlgorithm)) {
+        secretKey = createAndStoreSecretKey(keyStore, JwtTokenProvider.SECRET_KEY, keyPwd, refreshTokenAlgorithm);
+        created = true;
+      }
+      if (privateKey == null || !fits(privateKey, accessTokenAlgorithm)) {
+        final KeyPair keyPair = createAndStoreKeyPair(keyStore, JwtTokenProvider.PRIVATE_KEY, keyPwd,
+            accessTokenAlgorithm);
+        privateKey = keyPair.getPrivate();
+        publicKey = keyPair.getPublic();
+        created = true;
+      }
+      if (created) {
+        P12Stores.saveKeyStore(keyStore, storeLocation, storePwd);
+      }
+
+      final StoreKeys storeKeys = new StoreKeys(secretKey, publicKey, privateKey, accessTokenAlgorithm,
+          refreshTokenAlgorithm);
+      storeKeys.addRetiredKeys(keyStore, keyPwd);
+      return storeKeys;
+    } catch (IOException | GeneralSecurityException e) {
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  /**
+   * Reads the keys of the key store without creating any
+   * @throws IllegalStateException if a signing key is missing or does not fit its algorithm
+   */
+  private static StoreKeys readKeys(final StoreConfigProperties properties)
+      throws IOException, GeneralSecurityException {
+    final String keyPwd = properties.getKeyPwd();
+    final KeyStore keyStore = readKeyStore(properties.getLocation(), properties.getPwd());
+
+    final Key secretKey = P12Stores.readKey(keyStore, JwtTokenProvider.SECRET_KEY, keyPwd);
+    final Key privateKey = P12Stores.readKey(keyStore, JwtTokenProvider.PRIVATE_KEY, keyPwd);
+    if (secretKey == null || !fits(secretKey, properties.getRefreshTokenAlgorithm())) {
+      throw new IllegalStateException("No " + properties.getRefreshTokenAlgorithm() + " key under "
+          + JwtTokenProvider.SECRET_KEY);
+    }
+    if (privateKey == null || !fits(privateKey, properties.getAccessTokenAlgorithm())) {
+      throw new IllegalStateException("No " + properties.getAccessTokenAlgorithm() + " key under "
+          + JwtTokenProvider.PRIVATE_KEY);
+    }
+    final PublicKey publicKey = P12Stores.readCertificate(keyStore, JwtTokenProvider.PRIVATE_KEY).getPublicKey();
+
+    final StoreKeys storeKeys = new StoreKeys(secretKey, publicKey, privateKey, properties.getAccessTokenAlgorithm(),
+        properties.getRefreshTokenAlgorithm());
+    storeKeys.addRetiredKeys(keyStore, keyPwd);
+    return storeKeys;
+  }
+
+  /**
+   * @return true if the key can sign tokens with the algorithm, elliptic curve keys having to be on the very curve of
+   * the algorithm
+   */
+  static boolean fits(final Key key, final SignatureAlgorithm algorithm) {
+    if (key instanceof ECKey) {
+      return algorithm.isEllipticCurve()
+          && ((ECKey) key).getParams().getCurve().getField().getFieldSize() == algorithm.getMinKeyLength();
+    }
+    try {
+      algorithm.assertValidSigningKey(key);
+      return true;
+    } catch (InvalidKeyException e) {
+      return false;
+    }
+  }
+
+  private static Key createAndStoreSecretKey(final KeyStore keyStore, final String keyAlias,
+      final String keyPwd, final SignatureAlgorithm algorithm) throws KeyStoreException {
+    SecretKey secretKey = io.jsonwebtoken.security.Keys.secretKeyFor(algorithm);
+    storeSecretKey(keyStore, keyAlias, keyPwd, secretKey);
+    return secretKey;
+  }
+
+  private static KeyPair createAndStoreKeyPair(final KeyStore keyStore, final String keyAlias,
+      final String keyPwd, final SignatureAlgorithm algorithm) throws IOException, GeneralSecurityException {
+    KeyPair keyPair = io.jsonwebtoken.security.Keys.keyPairFor(algorithm);
+    storeKeyPair(keyStore, keyPwd, keyPair, keyAlias);
+
+    try(FileOutputStream fos = new FileOutputStream("publicKey")) {
+      fos.write(keyPair.getPublic().getEncoded());
+    }
+    return keyPair;
+  }
+
+  /**
+   * @return the id of the key, the first bytes of the SHA-256 digest of its encoded form
+   */
+  static String keyId(final Key key) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, KEY_ID_BYTES));
+    } catch (GeneralSecurityException e) {
+      throw new InternalServerErrorException(e);
+    }
+  }
+
+  /**
+   * A key signing tokens with its id and algorithm
+   */
+  public static final class SigningKey {
+
+    private final String keyId;
+    private final Key key;
+    private final Key verificationKey;
+    private final SignatureAlgorithm algorithm;
+
+    private SigningKey(final Key key, final Key verificationKey, final SignatureAlgorithm algorithm) {
+      this.keyId = keyId(verificationKey);
+      this.key = key;
+      this.verificationKey = verificationKey;
+      this.algorithm = algorithm;
+    }
+
+    public String getKeyId() {
+      return keyId;
+    }
+
+    public Key getKey() {
+      return key;
+    }
+
+    public Key getVerificationKey() {
+      return verificationKey;
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+      return algorithm;
+    }
+  }
+
+  /**
+   * The public keys verifying access tokens by key id, the key signing new tokens first
+   */
+  public static final class PublicKeys {
+
+    private final SigningKey signingKey;
+    private final Map<String, PublicKey> keys;
+
+    private PublicKeys(final SigningKey signingKey, final Map<String, PublicKey> keys) {
+      this.signingKey = signingKey;
+      this.keys = keys;
+    }
+
+    public String getSigningKeyId() {
+      return signingKey.getKeyId();
+    }
+
+    public SignatureAlgorithm getSigningAlgorithm() {
+      return signingKey.getAlgorithm();
+    }
+
+    public Map<String, PublicKey> getKeys() {
+      return keys;
+    }
+  }
+
+  /**
+   * The keys read from the key store
+   */
+  private static final class StoreKeys {
+
+    private final SigningKey accessSigningKey;
+    private final SigningKey refreshSigningKey;
+    private final Map<String, Key> accessKeys = new HashMap<>();
+    private final Map<String, Key> refreshKeys = new HashMap<>();
+
+    private StoreKeys(final Key secretKey, final Key publicKey, final Key privateKey,
+        final SignatureAlgorithm accessTokenAlgorithm, final SignatureAlgorithm refreshTokenAlgorithm) {
+      this.accessSigningKey = new SigningKey(privateKey, publicKey, accessTokenAlgorithm);
+      this.refreshSigningKey = new SigningKey(secretKey, secretKey, refreshTokenAlgorithm);
+      accessKeys.put(accessSigningKey.getKeyId(), publicKey);
+      refreshKeys.put(refreshSigningKey.getKeyId(), secretKey);
+    }
+
+    /**
+     * Adds the keys stored under other aliases than the signing ones, which only verify tokens
+     */
+    private void addRetiredKeys(final KeyStore keyStore, final String keyPwd) throws KeyStoreException {
+      final Enumeration<String> aliases = keyStore.aliases();
+      while (aliases.hasMoreElements()) {
+        final String alias = aliases.nextElement();
+        if (JwtTokenProvider.SECRET_KEY.equals(alias) || JwtTokenProvider.PRIVATE_KEY.equals(alias)
+            || !keyStore.isKeyEntry(alias)) {
+          continue;
+        }
+
+        try {
+          final Key key = P12Stores.readKey(keyStore, alias, keyPwd);
+          if (key instanceof SecretKey) {
+            refreshKeys.put(keyId(key), key);
+          } else if (key instanceof PrivateKey) {
+            final Certificate certificate = P12Stores.readCertificate(keyStore, alias);
+            if (certificate != null) {
+              accessKeys.put(keyId(certificate.getPublicKey()), certificate.getPublicKey());
+            }
+          }
+        } catch (GeneralSecurityException e) {
+          LOGGER.warn("Skipping the key {} of the key store, it cannot be read", alias, e);
+        }
+      }
+    }
+
+    /**
+     * @param previous the keys loaded before, whose keys missing from the store keep verifying the tokens they signed
+     * until these expire
+     */
+    private Snapshot toSnapshot(final Snapshot previous, final long now) {
+      return new Snapshot(accessSigningKey, refreshSigningKey,
+          merge(accessKeys, previous != null ? previous.accessKeys : null,
+              now + JwtTokenProvider.ACCESS_TOKEN_EXPIRY_TIME, now),
+          merge(refreshKeys, previous != null ? previous.refreshKeys : null,
+              now + JwtTokenProvider.REFRESH_TOKEN_EXPIRY_TIME, now));
+    }
+
+    private static Map<String, VerificationKey> merge(final Map<String, Key> keys,
+        final Map<String, VerificationKey> previous, final long retainUntilMillis, final long now) {
+      final Map<String, VerificationKey> merged = new HashMap<>();
+      if (previous != null) {
+        previous.forEach((keyId, verificationKey) -> {
+          final long until = Math.min(verificationKey.retainUntilMillis, retainUntilMillis);
+          if (until > now) {
+            merged.put(keyId, new VerificationKey(verificationKey.key, until));
+          }
+        });
+      }
+      keys.forEach((keyId, key) -> merged.put(keyId, new VerificationKey(key, Long.MAX_VALUE)));
+
+      return Collections.unmodifiableMap(merged);
+    }
+  }
+
+  private static final class Snapshot {
+
+    private final SigningKey accessSigningKey;
+    private final SigningKey refreshSigningKey;
+    private final Map<String, VerificationKey> accessKeys;
+    private final Map<String, VerificationKey> refreshKeys;
+    private final PublicKeys publicKeys;
+
+    private Snapshot(final SigningKey accessSigningKey, final SigningKey refreshSigningKey,
+        final Map<String, VerificationKey> accessKeys, final Map<String, VerificationKey> refreshKeys) {
+      this.accessSigningKey = accessSigningKey;
+      this.refreshSigningKey = refreshSigningKey;
+      this.accessKeys = accessKeys;
+      this.refreshKeys = refreshKeys;
+
+      final Map<String, PublicKey> keys = new LinkedHashMap<>();
+      keys.put(accessSigningKey.getKeyId(), (PublicKey) accessSigningKey.getVerificationKey());
+      accessKeys.forEach((keyId, verificationKey) -> keys.putIfAbsent(keyId, (PublicKey) verificationKey.key));
+      this.publicKeys = new PublicKeys(accessSigningKey, Collections.unmodifiableMap(keys));
+    }
+
+    /**
+     * @return the snapshot without the keys retained until {@code now} or before, this very snapshot if there are none
+     */
+    private Snapshot withoutExpiredKeys(final long now) {
+      final Map<String, VerificationKey> retainedAccessKeys = retained(accessKeys, now);
+      final Map<String, VerificationKey> retainedRefreshKeys = retained(refreshKeys, now);
+      if (retainedAccessKeys == accessKeys && retainedRefreshKeys == refreshKeys) {
+        return this;
+      }
+
+      return new Snapshot(accessSigningKey, refreshSigningKey, retainedAccessKeys, retainedRefreshKeys);
+    }
+
+    private static Map<String, VerificationKey> retained(final Map<String, VerificationKey> keys, final long now) {
+      if (keys.values().stream().allMatch(verificationKey -> verificationKey.retainUntilMillis > now)) {
+        return keys;
+      }
+
+      final Map<String, VerificationKey> retained = new HashMap<>();
+      keys.forEach((keyId, verificationKey) -> {
+        if (verificationKey.retainUntilMillis > now) {
+          retained.put(keyId, verificationKey);
+        }
+      });
+      return Collections.unmodifiableMap(retained);
+    }
+
+    private SigningKey getSigningKey(final TokenProvider.TokenType type) {
+      switch (type) {
+        case ACCESS:
+          return accessSigningKey;
+        case REFRESH:
+          return refreshSigningKey;
+        default:
+          throw new UnsupportedOperationException("Token of type " + type + "is not yet supported");
+      }
+    }
+
+    private Map<String, VerificationKey> getVerificationKeys(final TokenProvider.TokenType type) {
+      switch (type) {
+        case ACCESS:
+          return accessKeys;
+        case REFRESH:
+          return refreshKeys;
+        default:
+          throw new UnsupportedOperationException("Token of type " + type + "is not yet supported");
+      }
+    }
+  }
+
+  private static final class VerificationKey {
+
+    private final Key key;
+    // the keys still in the store are kept for ever, the others until the tokens they signed have expired
+    private final long retainUntilMillis;
+
+    private VerificationKey(final Key key, final long retainUntilMillis) {
+      this.key = key;
+      this.retainUntilMillis = retainUntilMillis;
+    }
+  }
+}
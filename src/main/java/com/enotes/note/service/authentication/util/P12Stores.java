@@ -29,6 +29,7 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.security.interfaces.ECKey;
 import java.util.Date;
 import javax.crypto.SecretKey;
 
@@ -65,12 +66,19 @@ public final class P12Stores {
 
   public static void storeKeyPair(KeyStore keyStore, final String secretKey, KeyPair keyPair, final String keyAlias) throws GeneralSecurityException, IOException {
     final X509Certificate certificate = generateCertificate("CN=auth", keyPair, 365,
-        SignatureAlgorithm.RS256.getJcaName());
+        certificateSignatureAlgorithm(keyPair));
     Certificate[] chain = {certificate};
 
     keyStore.setKeyEntry(keyAlias, keyPair.getPrivate(), secretKey.toCharArray(), chain);
   }
 
+  /**
+   * The self signed certificate only carries the public key, SHA-256 suits any key size
+   */
+  private static String certificateSignatureAlgorithm(final KeyPair keyPair) {
+    return keyPair.getPrivate() instanceof ECKey ? "SHA256withECDSA" : SignatureAlgorithm.RS256.getJcaName();
+  }
+
   private static X509Certificate generateCertificate(String dn, KeyPair keyPair, int validity, String sigAlgName) throws
       GeneralSecurityException, IOException {
     PrivateKey privateKey = keyPair.getPrivate();
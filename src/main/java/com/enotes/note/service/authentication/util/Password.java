@@ -4,6 +4,7 @@ import org.mindrot.jbcrypt.BCrypt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 public final class Password {
@@ -16,7 +17,12 @@ public final class Password {
   }
 
   // Define the BCrypt workload to use when generating password hashes. 10-31 is a valid value.
-  private static int WORKLOAD = 12;
+  public static final int DEFAULT_WORKLOAD = 12;
+  public static final int MIN_WORKLOAD = 10;
+  public static final int MAX_WORKLOAD = 31;
+
+  private static final String CALIBRATION_PASSWORD = "calibration";
+  private static final int CALIBRATION_ROUNDS = 3;
 
   /**
    * This method can be used to generate a string representing an account password
@@ -30,11 +36,70 @@ public final class Password {
    * @return String - a string of length 60 that is the bcrypt hashed password in crypt(3) format.
    */
   public static String hashPassword(String passwordPlaintext) {
-    String salt = BCrypt.gensalt(WORKLOAD);
+    return hashPassword(passwordPlaintext, DEFAULT_WORKLOAD);
+  }
+
+  /**
+   * Same as {@link #hashPassword(String)} with the given bcrypt workload, every extra unit doubles the time to hash
+   * @param passwordPlaintext The account's plaintext password
+   * @param workload the bcrypt workload, from 10 to 31
+   * @return String - a string of length 60 that is the bcrypt hashed password in crypt(3) format.
+   */
+  public static String hashPassword(String passwordPlaintext, int workload) {
+    String salt = BCrypt.gensalt(workload);
 
     return BCrypt.hashpw(passwordPlaintext, salt);
   }
 
+  /**
+   * @param encodedPassword a password hash in crypt(3) format
+   * @return the bcrypt workload the hash was computed with, -1 if it does not look like BCrypt
+   */
+  public static int getWorkload(String encodedPassword) {
+    if (encodedPassword == null || !BCRYPT_PATTERN.matcher(encodedPassword).matches()) {
+      return -1;
+    }
+    final int start = encodedPassword.indexOf('$', 1) + 1;
+
+    return Integer.parseInt(encodedPassword.substring(start, start + 2));
+  }
+
+  /**
+   * Finds the highest bcrypt workload hashing a password in at most {@code targetMillis} on this machine. A hash is
+   * timed at {@link #MIN_WORKLOAD} only, every extra unit of workload doubling the time to hash, so that calibrating
+   * does not take longer than a few hashes at the minimum workload.
+   * @param targetMillis the acceptable time to hash a password
+   * @return the workload, {@link #MIN_WORKLOAD} if even that takes longer than {@code targetMillis}
+   */
+  public static Calibration calibrate(long targetMillis) {
+    return calibrate(targetMillis, MIN_WORKLOAD);
+  }
+
+  /**
+   * Same as {@link #calibrate(long)}, never going below {@code minWorkload} however slow hashing is on this machine
+   * @param targetMillis the acceptable time to hash a password
+   * @param minWorkload the least workload to pick
+   * @return the workload, {@code minWorkload} if even that takes longer than {@code targetMillis}
+   */
+  public static Calibration calibrate(long targetMillis, int minWorkload) {
+    hashPassword(CALIBRATION_PASSWORD, MIN_WORKLOAD);
+
+    long nanos = Long.MAX_VALUE;
+    for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+      final long start = System.nanoTime();
+      hashPassword(CALIBRATION_PASSWORD, MIN_WORKLOAD);
+      nanos = Math.min(nanos, System.nanoTime() - start);
+    }
+
+    final long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+    int workload = MIN_WORKLOAD;
+    while (workload < MAX_WORKLOAD && (workload < minWorkload || nanos * 2 <= targetNanos)) {
+      workload++;
+      nanos *= 2;
+    }
+    return new Calibration(workload, nanos / 1_000_000d);
+  }
+
   /**
    * This method can be used to verify a computed hash from a plaintext (e.g. during a login
    * request) with that of a stored hash from a database. The password hash from the database
@@ -62,4 +127,26 @@ public final class Password {
 
     return BCrypt.checkpw(passwordPlaintext, encodedPassword);
   }
+
+  public static final class Calibration {
+
+    private final int workload;
+    private final double hashMillis;
+
+    private Calibration(final int workload, final double hashMillis) {
+      this.workload = workload;
+      this.hashMillis = hashMillis;
+    }
+
+    public int getWorkload() {
+      return workload;
+    }
+
+    /**
+     * @return the expected time to hash a password at the workload
+     */
+    public double getHashMillis() {
+      return hashMillis;
+    }
+  }
 }
@@ -0,0 +1,225 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.service.ServiceUnavailableException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the BCrypt hashing of {@link Password} off the request threads.
+ *
+ * <p>Passwords are hashed by a fixed number of workers with room for a bounded number of waiting passwords. A password
+ * arriving when every worker is busy and the queue is full is rejected right away with
+ * {@link ServiceUnavailableException} rather than waiting, so that a burst of sign ins cannot hold the threads serving
+ * the notes.
+ *
+ * <p>New passwords are hashed at the workload of the hasher, either configured or calibrated on creation to match a
+ * target time to hash without going below the configured one, and {@link #verifyPassword(String, String)} hashes again
+ * the passwords whose hash was computed at a lower workload. Stored hashes are never weakened.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PasswordHasher.class);
+  private static final String OVERLOADED_MESSAGE = "Too many authentication requests, try again later";
+
+  private final Executor executor;
+  private final int workload;
+  private final double calibratedHashMillis;
+  private final CheckListener checkListener;
+
+  private PasswordHasher(final Builder builder) {
+    this.executor = builder.executor != null ? builder.executor
+        : new ThreadPoolExecutor(builder.threads, builder.threads, 0, TimeUnit.MILLISECONDS,
+            createQueue(builder.queueSize), new HasherThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    this.checkListener = builder.checkListener;
+
+    if (builder.targetHashMillis > 0) {
+      final Password.Calibration calibration = Password.calibrate(builder.targetHashMillis, builder.workload);
+      LOGGER.info("Hashing passwords with a workload of {}, about {} ms per hash for a target of {} ms",
+          calibration.getWorkload(), Math.round(calibration.getHashMillis()), builder.targetHashMillis);
+
+      this.workload = calibration.getWorkload();
+      this.calibratedHashMillis = calibration.getHashMillis();
+    } else {
+      this.workload = builder.workload;
+      this.calibratedHashMillis = Double.NaN;
+    }
+  }
+
+  /**
+   * @return the BCrypt workload new passwords are hashed with
+   */
+  public int getWorkload() {
+    return workload;
+  }
+
+  /**
+   * @return the expected time to hash a password at {@link #getWorkload()} as calibrated on creation, NaN if the
+   * workload was configured
+   */
+  public double getCalibratedHashMillis() {
+    return calibratedHashMillis;
+  }
+
+  /**
+   * @return the BCrypt hash of the password at {@link #getWorkload()}, see {@link Password#hashPassword(String, int)}
+   * @throws ServiceUnavailableException if there is no room left to hash the password
+   */
+  public CompletableFuture<String> hashPassword(final String passwordPlaintext) {
+    return submit(() -> Password.hashPassword(passwordPlaintext, workload));
+  }
+
+  /**
+   * Checks the password against the stored hash, see {@link Password#checkPassword(String, String)}, and hashes it
+   * again at {@link #getWorkload()} if the stored hash was computed at a lower workload
+   * @return empty if the password does not match, otherwise the hash to store from now on: either
+   * {@code encodedPassword} or a new hash at {@link #getWorkload()}
+   * @throws ServiceUnavailableException if there is no room left to check the password
+   */
+  public CompletableFuture<Optional<String>> verifyPassword(final String passwordPlaintext,
+      final String encodedPassword) {
+    return submit(() -> {
+      final int encodedWorkload = Password.getWorkload(encodedPassword);
+
+      final long start = System.nanoTime();
+      final boolean matches = Password.checkPassword(passwordPlaintext, encodedPassword);
+      if (encodedWorkload > 0) {
+        checkListener.onChecked(encodedWorkload, System.nanoTime() - start);
+      }
+
+      if (!matches) {
+        return Optional.empty();
+      }
+      return Optional.of(encodedWorkload >= workload ? encodedPassword
+          : Password.hashPassword(passwordPlaintext, workload));
+    });
+  }
+
+  @Override
+  public void close() {
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  private <T> CompletableFuture<T> submit(final Supplier<T> task) {
+    try {
+      return CompletableFuture.supplyAsync(task, executor);
+    } catch (RejectedExecutionException e) {
+      throw new ServiceUnavailableException(OVERLOADED_MESSAGE, e);
+    }
+  }
+
+  private static BlockingQueue<Runnable> createQueue(final int queueSize) {
+    return queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>();
+  }
+
+  /**
+   * Notified of the time taken to check every password against a BCrypt hash
+   */
+  @FunctionalInterface
+  public interface CheckListener {
+
+    /**
+     * @param workload the workload of the hash the password was checked against
+     * @param nanos the time taken to check the password
+     */
+    void onChecked(int workload, long nanos);
+  }
+
+  public static class Builder {
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueSize = 64;
+    private Executor executor;
+    private int workload = Password.DEFAULT_WORKLOAD;
+    private long targetHashMillis;
+    private CheckListener checkListener = (checkedWorkload, nanos) -> {
+      //do nothing
+    };
+
+    /**
+     * @param threads the number of passwords hashed at the same time
+     */
+    public Builder withThreads(int threads) {
+      this.threads = threads;
+
+      return this;
+    }
+
+    /**
+     * @param queueSize the number of passwords waiting for a worker before new ones are rejected
+     */
+    public Builder withQueueSize(int queueSize) {
+      this.queueSize = queueSize;
+
+      return this;
+    }
+
+    /**
+     * @param executor runs the hashing instead of a pool of {@link #withThreads(int)} workers, rejecting with
+     * {@link RejectedExecutionException} the passwords it has no room for
+     */
+    public Builder withExecutor(Executor executor) {
+      this.executor = executor;
+
+      return this;
+    }
+
+    /**
+     * @param workload the BCrypt workload of new hashes, the least one when calibrated with
+     * {@link #withTargetHashMillis(long)}
+     */
+    public Builder withWorkload(int workload) {
+      this.workload = workload;
+
+      return this;
+    }
+
+    /**
+     * @param targetHashMillis if positive, the workload is calibrated on creation as the highest one hashing a
+     * password in at most that time, and at least {@link #withWorkload(int)}
+     */
+    public Builder withTargetHashMillis(long targetHashMillis) {
+      this.targetHashMillis = targetHashMillis;
+
+      return this;
+    }
+
+    public Builder withCheckListener(CheckListener checkListener) {
+      this.checkListener = checkListener;
+
+      return this;
+    }
+
+    public PasswordHasher build() {
+      return new PasswordHasher(this);
+    }
+  }
+
+  private static final class HasherThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+      thread.setDaemon(true);
+
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package com.enotes.note.service.authentication.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the tokens turned down, by type of token and reason, and logs them at a bounded rate.
+ *
+ * <p>Every rejection is counted in a {@link LongAdder} of its type and reason, so that a flood of bad tokens costs a
+ * few uncontended increments. A line is logged for a type and reason at most once per {@code logIntervalMillis}, by
+ * the thread that wins the race for the slot of the interval, with the number of tokens turned down since the
+ * previous line. Lines are {@code key=value} pairs without stack traces, which tell nothing more for a token that is
+ * expired or forged.
+ */
+public class SecurityEvents {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SecurityEvents.class);
+
+  public static final long DEFAULT_LOG_INTERVAL_MILLIS = 10_000;
+
+  private static final long NEVER = Long.MIN_VALUE;
+
+  private final long logIntervalMillis;
+  private final Clock clock;
+  private final Slot[] slots;
+
+  /**
+   * @param logIntervalMillis the least time between two lines logged for the same type of token and reason
+   */
+  public SecurityEvents(final long logIntervalMillis) {
+    this(logIntervalMillis, Clock.systemUTC());
+  }
+
+  SecurityEvents(final long logIntervalMillis, final Clock clock) {
+    this.logIntervalMillis = logIntervalMillis;
+    this.clock = clock;
+    this.slots = new Slot[TokenProvider.TokenType.values().length * Reason.values().length];
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = new Slot();
+    }
+  }
+
+  /**
+   * Records that a token was turned down
+   * @param type the type of the token
+   * @param reason why the token was turned down
+   */
+  public void tokenRejected(final TokenProvider.TokenType type, final Reason reason) {
+    final Slot slot = slots[index(type, reason)];
+    slot.count.increment();
+
+    final long now = clock.millis();
+    final long lastLogMillis = slot.lastLogMillis.get();
+    if ((lastLogMillis == NEVER || now - lastLogMillis >= logIntervalMillis)
+        && slot.lastLogMillis.compareAndSet(lastLogMillis, now)) {
+      final long count = slot.count.sum();
+      final long rejected = count - slot.loggedCount;
+      slot.loggedCount = count;
+
+      LOGGER.warn("event=token_rejected token_type={} reason={} count={} since_ms={}", type, reason, rejected,
+          lastLogMillis == NEVER ? 0 : now - lastLogMillis);
+    }
+  }
+
+  /**
+   * Parses a signed token, recording why it is turned down if it is
+   * @param parser verifies the signature of the token with the keys of its type
+   * @return the claims of the token, null if it is turned down
+   */
+  public Claims parse(final JwtParser parser, final String token, final TokenProvider.TokenType type) {
+    final Reason formError = checkCompactForm(token);
+    if (formError != null) {
+      tokenRejected(type, formError);
+      return null;
+    }
+
+    try {
+      return parser.parseClaimsJws(token).getBody();
+    } catch (io.jsonwebtoken.security.SecurityException e) {
+      tokenRejected(type, Reason.INVALID_SIGNATURE);
+    } catch (MalformedJwtException e) {
+      tokenRejected(type, Reason.MALFORMED);
+    } catch (ExpiredJwtException e) {
+      tokenRejected(type, Reason.EXPIRED);
+    } catch (UnsupportedJwtException e) {
+      tokenRejected(type, Reason.UNSUPPORTED);
+    } catch (IllegalArgumentException e) {
+      tokenRejected(type, Reason.MALFORMED);
+    }
+    return null;
+  }
+
+  /**
+   * Checks that the token looks like a compact signed JWT, three base64url parts separated by dots with a header and a
+   * signature, so that most garbage is turned down without the parser building an exception for it
+   * @return why the token is turned down, null if it is worth parsing
+   */
+  static Reason checkCompactForm(final String authToken) {
+    if (authToken == null || authToken.isEmpty()) {
+      return Reason.MISSING;
+    }
+
+    final int firstDot = authToken.indexOf('.');
+    final int secondDot = firstDot < 0 ? -1 : authToken.indexOf('.', firstDot + 1);
+    if (firstDot <= 0 || secondDot < 0 || secondDot == authToken.length() - 1
+        || authToken.indexOf('.', secondDot + 1) >= 0) {
+      return Reason.MALFORMED;
+    }
+    for (int i = 0; i < authToken.length(); i++) {
+      final char c = authToken.charAt(i);
+      if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_'
+          || c == '.')) {
+        return Reason.MALFORMED;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the number of tokens of the type turned down for the reason
+   */
+  public long getCount(final TokenProvider.TokenType type, final Reason reason) {
+    return slots[index(type, reason)].count.sum();
+  }
+
+  private static int index(final TokenProvider.TokenType type, final Reason reason) {
+    return type.ordinal() * Reason.values().length + reason.ordinal();
+  }
+
+  /**
+   * Why a token was turned down
+   */
+  public enum Reason {
+    /**
+     * No token at all, or an empty one
+     */
+    MISSING,
+    /**
+     * Not a compact signed JWT
+     */
+    MALFORMED,
+    /**
+     * A signature that does not hold, or made with a key that is not known
+     */
+    INVALID_SIGNATURE,
+    EXPIRED,
+    /**
+     * A JWT of another kind than a signed one, such as an unsigned one
+     */
+    UNSUPPORTED
+  }
+
+  private static final class Slot {
+
+    private final LongAdder count = new LongAdder();
+    private final AtomicLong lastLogMillis = new AtomicLong(NEVER);
+    // only written by the thread logging for the interval
+    private volatile long loggedCount;
+  }
+}
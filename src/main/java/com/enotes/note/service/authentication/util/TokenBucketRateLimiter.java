@@ -0,0 +1,96 @@
+package com.enotes.note.service.authentication.util;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key, refilled with {@code permitsPerMinute} tokens a minute and holding at most {@code burst}.
+ *
+ * <p>A bucket is a single {@link AtomicLong} holding the time at which it will be full again, acquiring a token pushes
+ * that time by the interval between two tokens unless it would go further than {@code burst} intervals ahead of now.
+ * Tokens are therefore acquired with a compare and swap, without locks. A bucket past its time is full, the same as a
+ * missing one, so once {@code maxKeys} keys are tracked the full buckets are dropped and, if that is not enough,
+ * arbitrary ones until a tenth of the room is free again: memory stays bounded whatever the number of keys, at the
+ * price of forgetting some buckets when more than {@code maxKeys} keys are active at once.
+ */
+public class TokenBucketRateLimiter {
+
+  private final long intervalMillis;
+  private final long burstMillis;
+  private final int maxKeys;
+  private final Clock clock;
+  private final ConcurrentMap<String, AtomicLong> buckets;
+
+  public TokenBucketRateLimiter(final int permitsPerMinute, final int burst, final int maxKeys) {
+    this(permitsPerMinute, burst, maxKeys, Clock.systemUTC());
+  }
+
+  TokenBucketRateLimiter(final int permitsPerMinute, final int burst, final int maxKeys, final Clock clock) {
+    this.intervalMillis = Math.max(1, 60_000L / permitsPerMinute);
+    this.burstMillis = Math.max(1, burst) * intervalMillis;
+    this.maxKeys = maxKeys;
+    this.clock = clock;
+    this.buckets = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Takes a token from the bucket of the key
+   * @return 0 if a token was taken, otherwise the time in milliseconds until the bucket holds a token
+   */
+  public long tryAcquire(final String key) {
+    return tryAcquire(key, 1);
+  }
+
+  /**
+   * Takes {@code permits} tokens at once from the bucket of the key, never more than the burst of the bucket
+   * @return 0 if the tokens were taken, otherwise the time in milliseconds until the bucket holds them
+   */
+  public long tryAcquire(final String key, final int permits) {
+    final long now = clock.millis();
+    final long permitsMillis = Math.min(Math.max(1, permits) * intervalMillis, burstMillis);
+
+    AtomicLong bucket = buckets.get(key);
+    if (bucket == null) {
+      makeRoom(now);
+      final AtomicLong created = new AtomicLong(now);
+      bucket = buckets.putIfAbsent(key, created);
+      if (bucket == null) {
+        bucket = created;
+      }
+    }
+
+    while (true) {
+      final long fullAt = bucket.get();
+      final long nextFullAt = Math.max(fullAt, now) + permitsMillis;
+      final long waitMillis = nextFullAt - now - burstMillis;
+
+      if (waitMillis > 0) {
+        return waitMillis;
+      }
+      if (bucket.compareAndSet(fullAt, nextFullAt)) {
+        return 0;
+      }
+    }
+  }
+
+  public int getSize() {
+    return buckets.size();
+  }
+
+  private void makeRoom(final long now) {
+    if (buckets.size() < maxKeys) {
+      return;
+    }
+
+    buckets.values().removeIf(bucket -> bucket.get() <= now);
+
+    final Iterator<String> keys = buckets.keySet().iterator();
+    while (buckets.size() > maxKeys - Math.max(1, maxKeys / 10) && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+}
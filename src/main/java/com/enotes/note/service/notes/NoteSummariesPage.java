@@ -0,0 +1,56 @@
+package com.enotes.note.service.notes;
+
+import java.util.List;
+import java.util.Objects;
+
+public class NoteSummariesPage {
+
+  private final List<NoteSummary> summaries;
+  private final String nextCursor;
+
+  public NoteSummariesPage(final List<NoteSummary> summaries, final String nextCursor) {
+    this.summaries = summaries;
+    this.nextCursor = nextCursor;
+  }
+
+  private NoteSummariesPage() {
+    summaries = null;
+    nextCursor = null;
+  }
+
+  public List<NoteSummary> getSummaries() {
+    return summaries;
+  }
+
+  /**
+   * @return the opaque cursor to pass to get the next page or null if this page is the last one
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final NoteSummariesPage that = (NoteSummariesPage) o;
+    return Objects.equals(summaries, that.summaries) && Objects.equals(nextCursor, that.nextCursor);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(summaries, nextCursor);
+  }
+
+  @Override
+  public String toString() {
+    return "NoteSummariesPage{" +
+        "summaries=" + summaries +
+        ", nextCursor='" + nextCursor + '\'' +
+        '}';
+  }
+}
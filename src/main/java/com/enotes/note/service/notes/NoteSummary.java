@@ -0,0 +1,52 @@
+package com.enotes.note.service.notes;
+
+import java.util.Objects;
+
+public class NoteSummary {
+
+  private final String id;
+  private final String title;
+
+  public NoteSummary(final String id, final String title) {
+    this.id = id;
+    this.title = title;
+  }
+
+  private NoteSummary() {
+    id = null;
+    title = null;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final NoteSummary that = (NoteSummary) o;
+    return Objects.equals(id, that.id) && Objects.equals(title, that.title);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, title);
+  }
+
+  @Override
+  public String toString() {
+    return "NoteSummary{" +
+        "id='" + id + '\'' +
+        ", title='" + title + '\'' +
+        '}';
+  }
+}
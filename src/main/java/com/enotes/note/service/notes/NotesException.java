@@ -1,18 +1,22 @@
 package com.enotes.note.service.notes;
 
+/**
+ * Invalid requests and missing notes, a frequent and expected outcome. Built without a stack trace, which would tell
+ * nothing more than the message and costs more than the lookup that failed
+ */
 public class NotesException extends RuntimeException {
 
   private static final long serialVersionUID = 1762196437438739628L;
 
   public NotesException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 
   public NotesException(String message, Throwable cause) {
-    super(message, cause);
+    super(message, cause, false, false);
   }
 
   public NotesException(Throwable cause) {
-    super(cause);
+    super(cause == null ? null : cause.toString(), cause, false, false);
   }
 }
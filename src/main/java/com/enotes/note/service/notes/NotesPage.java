@@ -0,0 +1,56 @@
+package com.enotes.note.service.notes;
+
+import java.util.List;
+import java.util.Objects;
+
+public class NotesPage {
+
+  private final List<Note> notes;
+  private final String nextCursor;
+
+  public NotesPage(final List<Note> notes, final String nextCursor) {
+    this.notes = notes;
+    this.nextCursor = nextCursor;
+  }
+
+  private NotesPage() {
+    notes = null;
+    nextCursor = null;
+  }
+
+  public List<Note> getNotes() {
+    return notes;
+  }
+
+  /**
+   * @return the opaque cursor to pass to get the next page or null if this page is the last one
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final NotesPage notesPage = (NotesPage) o;
+    return Objects.equals(notes, notesPage.notes) && Objects.equals(nextCursor, notesPage.nextCursor);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(notes, nextCursor);
+  }
+
+  @Override
+  public String toString() {
+    return "NotesPage{" +
+        "notes=" + notes +
+        ", nextCursor='" + nextCursor + '\'' +
+        '}';
+  }
+}
@@ -1,19 +1,45 @@
 package com.enotes.note.service.notes;
 
+import com.enotes.note.repository.notes.NotesCursor;
 import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.NotesDetailsPage;
 import com.enotes.note.repository.notes.NotesRepository;
 import com.enotes.note.repository.notes.UserId;
+import com.enotes.note.repository.notes.search.NotesSearcher;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class NotesService {
 
+  public static final int MAX_PAGE_LIMIT = 1000;
+
+  static final int ITERATION_PAGE_SIZE = 256;
+
+  private static final String CURSOR_SEPARATOR = ":";
+
   private final NotesRepository notesRepository;
+  private final NotesSearcher notesSearcher;
 
   public NotesService(final NotesRepository notesRepository) {
+    this(notesRepository, null);
+  }
+
+  /**
+   * @param notesSearcher answers {@link #searchNotes(Object, String, int)}, null if notes cannot be searched, searches
+   * then failing with {@link NotesException}
+   */
+  public NotesService(final NotesRepository notesRepository, final NotesSearcher notesSearcher) {
     this.notesRepository = notesRepository;
+    this.notesSearcher = notesSearcher;
   }
 
   /**
@@ -66,6 +92,159 @@ public class NotesService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Iterates over all notes for the user with user id {@code userId} in creation order. Notes are read lazily
+   * from the repository one page at a time, so only a page of notes is held in memory whatever the number of notes.
+   * @param userId user id for which the notes belongs
+   * @return the notes for the user with user id {@code userId}, which can be iterated once
+   */
+  public Iterator<Note> iterateAllNotes(final Object userId) {
+    final UserId uId = createValidUserId(userId);
+
+    return new Iterator<Note>() {
+      private Iterator<NotesDetails> page = Collections.emptyIterator();
+      private Optional<NotesCursor> next = Optional.empty();
+      private boolean started;
+
+      @Override
+      public boolean hasNext() {
+        while (!page.hasNext() && (!started || next.isPresent())) {
+          final NotesDetailsPage notesDetailsPage = notesRepository.findPage(uId, next.orElse(null),
+              ITERATION_PAGE_SIZE);
+          page = notesDetailsPage.getNotes().iterator();
+          next = notesDetailsPage.getNext();
+          started = true;
+        }
+        return page.hasNext();
+      }
+
+      @Override
+      public Note next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final NotesDetails notesDetails = page.next();
+
+        return new Note(notesDetails.getId(), notesDetails.getTitle(), notesDetails.getBody());
+      }
+    };
+  }
+
+  /**
+   * Retrieves a page of the notes for the user with user id {@code userId} in creation order
+   * @param userId user id for which the notes belongs
+   * @param cursor the cursor returned with the previous page or null for the first page
+   * @param limit the maximum number of notes of the page, between 1 and {@link #MAX_PAGE_LIMIT}
+   * @return the notes of the page and the cursor of the next page
+   */
+  public NotesPage getNotesPage(final Object userId, final String cursor, final int limit) {
+    final UserId uId = createValidUserId(userId);
+    validateLimit(limit);
+
+    final NotesDetailsPage page = notesRepository.findPage(uId, decodeCursor(cursor), limit);
+
+    final List<Note> notes = page.getNotes()
+        .stream()
+        .map(notesDetails -> new Note(notesDetails.getId(), notesDetails.getTitle(), notesDetails.getBody()))
+        .collect(Collectors.toList());
+    return new NotesPage(notes, page.getNext().map(NotesService::encodeCursor).orElse(null));
+  }
+
+  /**
+   * Retrieves a page of the ids and titles of the notes for the user with user id {@code userId} in creation order,
+   * without reading the bodies of the notes
+   * @param userId user id for which the notes belongs
+   * @param cursor the cursor returned with the previous page or null for the first page
+   * @param limit the maximum number of notes of the page, between 1 and {@link #MAX_PAGE_LIMIT}
+   * @return the summaries of the notes of the page and the cursor of the next page
+   */
+  public NoteSummariesPage getNoteSummariesPage(final Object userId, final String cursor, final int limit) {
+    final UserId uId = createValidUserId(userId);
+    validateLimit(limit);
+
+    final NotesDetailsPage page = notesRepository.findSummaryPage(uId, decodeCursor(cursor), limit);
+
+    final List<NoteSummary> summaries = page.getNotes()
+        .stream()
+        .map(notesDetails -> new NoteSummary(notesDetails.getId(), notesDetails.getTitle()))
+        .collect(Collectors.toList());
+    return new NoteSummariesPage(summaries, page.getNext().map(NotesService::encodeCursor).orElse(null));
+  }
+
+  /**
+   * Searches the titles and bodies of the notes for the user with user id {@code userId}
+   * @param userId user id for which the notes belongs
+   * @param query the words to look for, a note matches if it contains any of them whatever their case
+   * @param limit the maximum number of notes returned, between 1 and {@link #MAX_PAGE_LIMIT}
+   * @return the matching notes, most relevant first
+   */
+  public List<Note> searchNotes(final Object userId, final String query, final int limit) {
+    final UserId uId = createValidUserId(userId);
+    if (query == null || query.trim().isEmpty()) {
+      throw new NotesException("query: {" + query + "} is invalid");
+    }
+    validateLimit(limit);
+
+    return getNotesSearcher().search(uId, query, limit)
+        .stream()
+        .map(notesDetails -> new Note(notesDetails.getId(), notesDetails.getTitle(), notesDetails.getBody()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Searches the titles of the notes for the user with user id {@code userId}, ignoring case, without reading the
+   * bodies of the notes
+   * @param userId user id for which the notes belongs
+   * @param title the text to look for
+   * @param distance 0 to look for the titles containing {@code title}, otherwise the maximum number of characters to
+   * insert, delete or replace to turn a title into {@code title}, up to {@link NotesSearcher#MAX_TITLE_DISTANCE}
+   * @param limit the maximum number of notes returned, between 1 and {@link #MAX_PAGE_LIMIT}
+   * @return the summaries of the matching notes, the most recently written first when looking for titles containing
+   * {@code title} and the closest titles first otherwise
+   */
+  public List<NoteSummary> searchNoteTitles(final Object userId, final String title, final int distance,
+      final int limit) {
+    final UserId uId = createValidUserId(userId);
+    if (title == null || title.isEmpty()) {
+      throw new NotesException("title: {" + title + "} is invalid");
+    }
+    if (distance < 0 || distance > NotesSearcher.MAX_TITLE_DISTANCE) {
+      throw new NotesException("distance: {" + distance + "} should be between 0 and "
+          + NotesSearcher.MAX_TITLE_DISTANCE);
+    }
+    validateLimit(limit);
+
+    final List<NotesDetails> notes = distance == 0
+        ? getNotesSearcher().findByTitleFragment(uId, title, limit)
+        : getNotesSearcher().findBySimilarTitle(uId, title, distance, limit);
+    return notes.stream()
+        .map(notesDetails -> new NoteSummary(notesDetails.getId(), notesDetails.getTitle()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Suggests the titles of the notes for the user with user id {@code userId} starting with {@code prefix}, ignoring
+   * case, without reading the bodies of the notes
+   * @param userId user id for which the notes belongs
+   * @param prefix the start of the title typed so far
+   * @param limit the maximum number of suggestions, between 1 and {@link NotesSearcher#MAX_SUGGESTIONS}
+   * @return the summaries of the matching notes, most recently written first
+   */
+  public List<NoteSummary> suggestNoteTitles(final Object userId, final String prefix, final int limit) {
+    final UserId uId = createValidUserId(userId);
+    if (prefix == null || prefix.isEmpty()) {
+      throw new NotesException("prefix: {" + prefix + "} is invalid");
+    }
+    if (limit < 1 || limit > NotesSearcher.MAX_SUGGESTIONS) {
+      throw new NotesException("limit: {" + limit + "} should be between 1 and " + NotesSearcher.MAX_SUGGESTIONS);
+    }
+
+    return getNotesSearcher().suggestByTitlePrefix(uId, prefix, limit)
+        .stream()
+        .map(notesDetails -> new NoteSummary(notesDetails.getId(), notesDetails.getTitle()))
+        .collect(Collectors.toList());
+  }
+
   /**
    * Deletes a note with id {@code id}
    * @param id for the note to delete
@@ -80,6 +259,48 @@ public class NotesService {
     notesRepository.delete(note.getId());
   }
 
+  private static String encodeCursor(final NotesCursor cursor) {
+    final String value = cursor.getSequence() + CURSOR_SEPARATOR + cursor.getNoteId();
+
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static NotesCursor decodeCursor(final String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return null;
+    }
+
+    try {
+      final String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      final int separator = value.indexOf(CURSOR_SEPARATOR);
+
+      return new NotesCursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new NotesException("cursor: {" + cursor + "} is invalid");
+    }
+  }
+
+  private static void validateLimit(final int limit) {
+    if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+      throw new NotesException("limit: {" + limit + "} should be between 1 and " + MAX_PAGE_LIMIT);
+    }
+  }
+
+  private NotesSearcher getNotesSearcher() {
+    if (notesSearcher == null) {
+      throw new NotesException("Notes search is not enabled");
+    }
+    return notesSearcher;
+  }
+
+  private UserId createValidUserId(final Object userId) {
+    final UserId uId = createUserId(userId);
+    if (uId.getId() == null || uId.getId().isEmpty()) {
+      throw new NotesException("user id: {" + userId + "} is invalid");
+    }
+    return uId;
+  }
+
   private UserId createUserId(final Object userId) {
     return new UserId((String) userId);
   }
@@ -0,0 +1,145 @@
+package com.enotes.note.service.notes.util;
+
+import com.enotes.note.service.InternalServerErrorException;
+import com.enotes.note.service.authentication.TokenInfo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TokenValidator} decorator remembering the tokens found valid so that a client reusing its token is not
+ * verified again on every request.
+ *
+ * <p>Tokens are looked up by their SHA-256 digest and only the claims of a token are kept, never the token itself. An
+ * entry expires at the expiration of its token or after {@code maxTtlMillis}, whichever comes first, and invalid
+ * tokens are never cached. Once {@code maxSize} tokens are cached, expired entries are dropped and, if that is not
+ * enough, arbitrary entries until a tenth of the room is free again.
+ */
+public class CachingTokenValidator implements TokenValidator {
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new InternalServerErrorException(e);
+    }
+  });
+
+  private final TokenValidator tokenValidator;
+  private final int maxSize;
+  private final long maxTtlMillis;
+  private final Clock clock;
+  private final ConcurrentMap<ByteBuffer, CachedToken> cache;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  public CachingTokenValidator(final TokenValidator tokenValidator, final int maxSize, final long maxTtlMillis) {
+    this(tokenValidator, maxSize, maxTtlMillis, Clock.systemUTC());
+  }
+
+  CachingTokenValidator(final TokenValidator tokenValidator, final int maxSize, final long maxTtlMillis,
+      final Clock clock) {
+    this.tokenValidator = tokenValidator;
+    this.maxSize = maxSize;
+    this.maxTtlMillis = maxTtlMillis;
+    this.clock = clock;
+    this.cache = new ConcurrentHashMap<>();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  @Override
+  public TokenInfo extractTokenInfo(final String authToken) {
+    if (authToken == null) {
+      return tokenValidator.extractTokenInfo(null);
+    }
+
+    final ByteBuffer key = digest(authToken);
+    final long now = clock.millis();
+
+    final CachedToken cached = cache.get(key);
+    if (cached != null) {
+      if (cached.expiresAtMillis > now) {
+        hits.increment();
+        return cached.toTokenInfo(authToken);
+      }
+      cache.remove(key, cached);
+    }
+
+    misses.increment();
+    final TokenInfo tokenInfo = tokenValidator.extractTokenInfo(authToken);
+    if (tokenInfo.isValid() && tokenInfo.getExpiration() != null) {
+      final long expiresAtMillis = Math.min(tokenInfo.getExpiration().getTime(), now + maxTtlMillis);
+
+      if (expiresAtMillis > now) {
+        makeRoom(now);
+        cache.put(key, new CachedToken(tokenInfo, expiresAtMillis));
+      }
+    }
+    return tokenInfo;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public int getSize() {
+    return cache.size();
+  }
+
+  private void makeRoom(final long now) {
+    if (cache.size() < maxSize) {
+      return;
+    }
+
+    cache.values().removeIf(cached -> cached.expiresAtMillis <= now);
+
+    final Iterator<ByteBuffer> keys = cache.keySet().iterator();
+    while (cache.size() > maxSize - Math.max(1, maxSize / 10) && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  private static ByteBuffer digest(final String authToken) {
+    return ByteBuffer.wrap(DIGESTS.get().digest(authToken.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static final class CachedToken {
+
+    private final String id;
+    private final String userName;
+    private final Date expiration;
+    private final long expiresAtMillis;
+
+    private CachedToken(final TokenInfo tokenInfo, final long expiresAtMillis) {
+      this.id = tokenInfo.getId();
+      this.userName = tokenInfo.getUserName();
+      this.expiration = tokenInfo.getExpiration();
+      this.expiresAtMillis = expiresAtMillis;
+    }
+
+    private TokenInfo toTokenInfo(final String authToken) {
+      return new TokenInfo.Builder(authToken)
+          .id(id)
+          .userName(userName)
+          .expiration(expiration)
+          .isValid(true)
+          .build();
+    }
+  }
+}
@@ -173,6 +173,22 @@ public class NotesIntegrationTest {
         .andReturn();
   }
 
+  @Test
+  public void testAccessTokenIsRevokedOnSignOut() throws Exception {
+    final AuthenticationToken authenticationToken = getAuthenticationToken();
+    final NoteId noteId = createNoteAndAssert(new Note(null, "title", "body"), authenticationToken);
+
+    Utils.postRequest(mvc, authenticationToken, PathBuilder.AUTHENTICATION, AuthenticationController.SIGNOUT,
+        objectMapper)
+        .andExpect(status().isOk());
+
+    mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, noteId.getId()))
+        .header("Authorization", "Bearer " + authenticationToken.getAccessToken())
+        .accept(MediaType.APPLICATION_JSON))
+        .andDo(print())
+        .andExpect(status().isForbidden());
+  }
+
   private NoteId createNoteAndAssert(final Note note,
       final AuthenticationToken authenticationToken) throws Exception {
 
@@ -5,19 +5,25 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.io.IOException;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 public class Utils {
 
    public static ResultActions postRequest(MockMvc mvc, final Object ob, String mainPath, String path, ObjectMapper objectMapper ) throws Exception {
-    return mvc.perform(post(PathBuilder.buildPath(mainPath, path))
+    final ResultActions resultActions = mvc.perform(post(PathBuilder.buildPath(mainPath, path))
         .content(asJsonString(objectMapper, ob))
         .contentType(MediaType.APPLICATION_JSON)
         .accept(MediaType.APPLICATION_JSON));
+
+    // asynchronously answered requests are completed by dispatching their result
+    final MvcResult mvcResult = resultActions.andReturn();
+    return mvcResult.getRequest().isAsyncStarted() ? mvc.perform(asyncDispatch(mvcResult)) : resultActions;
   }
 
   public static String asJsonString(final ObjectMapper objectMapper, final Object obj) {
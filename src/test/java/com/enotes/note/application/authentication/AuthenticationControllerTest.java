@@ -2,12 +2,15 @@ package com.enotes.note.application.authentication;
 
 import com.enotes.note.application.PathBuilder;
 import com.enotes.note.application.Utils;
+import com.enotes.note.service.ServiceUnavailableException;
+import com.enotes.note.service.TooManyRequestsException;
 import com.enotes.note.service.authentication.AlreadyExistsException;
 import com.enotes.note.service.authentication.AuthenticationException;
 import com.enotes.note.service.authentication.AuthenticationService;
 import com.enotes.note.service.authentication.AuthenticationToken;
 import com.enotes.note.service.authentication.User;
 import com.enotes.note.service.authentication.UserStatus;
+import com.enotes.note.service.authentication.util.AuthenticationRateLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Test;
@@ -16,15 +19,18 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -37,14 +43,17 @@ class AuthenticationControllerTest {
   @MockBean
   private AuthenticationService authenticationService;
 
+  @MockBean
+  private AuthenticationRateLimiter authenticationRateLimiter;
+
   private ObjectMapper objectMapper = new ObjectMapper();
 
   @Test
   public void testSignUp() throws Exception {
     final User user = User.builder("John").withPassword("122334").build();
 
-    Mockito.when(authenticationService.signUp(Mockito.eq(user))).thenReturn(new AuthenticationToken(user.getUserName(),
-        user.getUserName()));
+    Mockito.when(authenticationService.signUpAsync(Mockito.eq(user)))
+        .thenReturn(CompletableFuture.completedFuture(new AuthenticationToken(user.getUserName(), user.getUserName())));
 
     final ResultActions postResponse = signUpUser(user);
 
@@ -64,9 +73,11 @@ class AuthenticationControllerTest {
 
     final String errorMessage = "Account with user name " + user.getUserName() + " already exist";
 
-    Mockito.when(authenticationService.signUp(Mockito.eq(user)))
-        .thenReturn(new AuthenticationToken(user.getUserName(), user.getUserName()))
-        .thenThrow(new AlreadyExistsException(errorMessage));
+    final CompletableFuture<AuthenticationToken> alreadyExists = new CompletableFuture<>();
+    alreadyExists.completeExceptionally(new AlreadyExistsException(errorMessage));
+    Mockito.when(authenticationService.signUpAsync(Mockito.eq(user)))
+        .thenReturn(CompletableFuture.completedFuture(new AuthenticationToken(user.getUserName(), user.getUserName())))
+        .thenReturn(alreadyExists);
 
     final ResultActions postResponse = signUpUser(user);
 
@@ -93,8 +104,8 @@ class AuthenticationControllerTest {
   public void testSignInForExistingUser() throws Exception {
     final User user = User.builder("John").withPassword("122334").build();
 
-    Mockito.when(authenticationService.signIn(Mockito.eq(user))).thenReturn(new AuthenticationToken(user.getUserName(),
-        user.getUserName()));
+    Mockito.when(authenticationService.signInAsync(Mockito.eq(user)))
+        .thenReturn(CompletableFuture.completedFuture(new AuthenticationToken(user.getUserName(), user.getUserName())));
 
     final ResultActions postResponse = signInUser(user);
 
@@ -113,7 +124,7 @@ class AuthenticationControllerTest {
     final User user = User.builder("John").withPassword("122334").build();
 
     final String errorMessage = "The username or password is incorrect";
-    Mockito.when(authenticationService.signIn(Mockito.eq(user))).thenThrow(new AuthenticationException(errorMessage));
+    Mockito.when(authenticationService.signInAsync(Mockito.eq(user))).thenThrow(new AuthenticationException(errorMessage));
 
     final ResultActions postResponse = signInUser(user);
 
@@ -125,6 +136,41 @@ class AuthenticationControllerTest {
     assertEquals(errorMessage, mvcResult.getResponse().getContentAsString());
   }
 
+  @Test
+  public void testSignInWhilePasswordHashingIsOverloaded() throws Exception {
+    final User user = User.builder("John").withPassword("122334").build();
+
+    final String errorMessage = "Too many authentication requests, try again later";
+    Mockito.when(authenticationService.signInAsync(Mockito.eq(user)))
+        .thenThrow(new ServiceUnavailableException(errorMessage));
+
+    final MvcResult mvcResult = signInUser(user)
+        .andDo(print())
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+        .andReturn();
+
+    assertEquals(errorMessage, mvcResult.getResponse().getContentAsString());
+  }
+
+  @Test
+  public void testSignInOverRateLimit() throws Exception {
+    final User user = User.builder("John").withPassword("122334").build();
+
+    final String errorMessage = "Too many authentication requests, try again later";
+    Mockito.doThrow(new TooManyRequestsException(errorMessage, 6))
+        .when(authenticationRateLimiter).acquire(Mockito.eq(user.getUserName()), Mockito.anyString());
+
+    final MvcResult mvcResult = signInUser(user)
+        .andDo(print())
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "6"))
+        .andReturn();
+
+    assertEquals(errorMessage, mvcResult.getResponse().getContentAsString());
+    Mockito.verify(authenticationService, Mockito.never()).signInAsync(Mockito.any());
+  }
+
   @Test
   public void testRefresh() throws Exception {
     final String refreshToken = "refreshToken";
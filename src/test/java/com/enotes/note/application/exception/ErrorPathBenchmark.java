@@ -0,0 +1,89 @@
+package com.enotes.note.application.exception;
+
+import com.enotes.note.repository.notes.ConcurrentInMemoryNotesRepository;
+import com.enotes.note.service.notes.NotesException;
+import com.enotes.note.service.notes.NotesService;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Throughput report of answering lookups of missing notes, the way {@link NotesExceptionHandler} answers them, against
+ * the same lookups failing with an exception carrying a stack trace, as they did before the exceptions of the domain
+ * were built without one.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.enotes.note.application.exception.ErrorPathBenchmark} or straight from the IDE.
+ * Optional argument: number of lookups per run (default 200,000).
+ */
+public final class ErrorPathBenchmark {
+
+  private static final String USER_ID = "John";
+
+  private ErrorPathBenchmark() {
+    //do nothing
+  }
+
+  public static void main(String[] args) {
+    final int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    final NotesService notesService = new NotesService(new ConcurrentInMemoryNotesRepository());
+    final NotesExceptionHandler handler = new NotesExceptionHandler();
+    final WebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+    System.out.printf("%-12s %14s%n", "exception", "answers/s");
+    for (int run = 0; run < 2; run++) {
+      // the first run warms up
+      final boolean print = run > 0;
+      report("stackless", lookups, print, id -> answer(handler, request, () -> notesService.getNote(USER_ID, id)));
+      report("stack trace", lookups, print, id -> answer(handler, request, () -> {
+        try {
+          return notesService.getNote(USER_ID, id);
+        } catch (NotesException e) {
+          throw new StackTraceException(e.getMessage());
+        }
+      }));
+    }
+  }
+
+  private static void report(String name, int lookups, boolean print, Function<String, ResponseEntity<Object>> lookup) {
+    long bodyBytes = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < lookups; i++) {
+      bodyBytes += ((String) lookup.apply(String.valueOf(i)).getBody()).length();
+    }
+    final long elapsed = System.nanoTime() - start;
+
+    if (print) {
+      System.out.printf("%-12s %,14.0f%n", name, lookups * 1e9 / elapsed);
+    } else if (bodyBytes == 0) {
+      throw new IllegalStateException("No answer was built");
+    }
+  }
+
+  private static ResponseEntity<Object> answer(NotesExceptionHandler handler, WebRequest request,
+      Supplier<?> lookup) {
+    try {
+      lookup.get();
+      throw new IllegalStateException("The note should be missing");
+    } catch (NotesException | StackTraceException e) {
+      return handler.handleConflict(e, request);
+    }
+  }
+
+  /**
+   * A runtime exception filling its stack trace like the exceptions of the domain used to
+   */
+  private static final class StackTraceException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private StackTraceException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.enotes.note.application.exception;
+
+import com.enotes.note.service.notes.NotesException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NotesExceptionHandlerTest {
+
+  @Test
+  public void testAnsweringWithMessage() {
+    final NotesExceptionHandler handler = new NotesExceptionHandler();
+
+    final ResponseEntity<Object> response = handler.handleConflict(new NotesException("Note with id: {1} is not found"),
+        new ServletWebRequest(new MockHttpServletRequest()));
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("Note with id: {1} is not found", response.getBody());
+  }
+
+  @Test
+  public void testCountingErrors() {
+    final NotesExceptionHandler handler = new NotesExceptionHandler();
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    handler.bindTo(registry);
+
+    for (int i = 0; i < 3; i++) {
+      handler.handleConflict(new NotesException("Note with id: {" + i + "} is not found"),
+          new ServletWebRequest(new MockHttpServletRequest()));
+    }
+
+    assertEquals(3, handler.getErrors());
+    assertEquals(3, registry.get("http.server.errors")
+        .tag("status", "400")
+        .tag("code", "NotesException")
+        .functionCounter()
+        .count());
+  }
+
+  @Test
+  public void testBuildingExceptionsWithoutStackTrace() {
+    assertEquals(0, new NotesException("Note with id: {1} is not found").getStackTrace().length);
+  }
+}
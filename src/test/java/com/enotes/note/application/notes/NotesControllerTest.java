@@ -4,6 +4,9 @@ import com.enotes.note.application.PathBuilder;
 import com.enotes.note.application.Utils;
 import com.enotes.note.service.notes.Note;
 import com.enotes.note.service.notes.NoteId;
+import com.enotes.note.service.notes.NoteSummariesPage;
+import com.enotes.note.service.notes.NoteSummary;
+import com.enotes.note.service.notes.NotesPage;
 import com.enotes.note.service.notes.NotesService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -31,9 +34,11 @@ import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -123,6 +128,156 @@ class NotesControllerTest {
     assertEquals(id2, notes.get(1).getId());
   }
 
+  @WithMockUser
+  @Test
+  public void testGetNotesPageForUser() throws Exception {
+    final NotesPage page = new NotesPage(Arrays.asList(new Note("note 1", "note title", "note body")), "next");
+    Mockito.when(notesService.getNotesPage(Mockito.any(), Mockito.eq("current"), Mockito.eq(1))).thenReturn(page);
+
+    final ResultActions resultActions = mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, ""))
+        .param("limit", "1")
+        .param("cursor", "current")
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON));
+
+    final MvcResult mvcResult = resultActions
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn();
+
+    assertEquals(page, fromJson(mvcResult.getResponse().getContentAsString(), NotesPage.class));
+  }
+
+  @WithMockUser
+  @Test
+  public void testStreamAllNotesForUser() throws Exception {
+    final List<Note> expectedNotes = Arrays.asList(new Note("note 1", "note title", "note body"),
+        new Note("note 2", "note title", "note body"));
+    Mockito.when(notesService.iterateAllNotes(Mockito.any())).thenReturn(expectedNotes.iterator());
+
+    final MvcResult asyncResult = mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, ""))
+        .param("stream", "true")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    final MvcResult mvcResult = mvc.perform(asyncDispatch(asyncResult))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn();
+
+    final List<Note> notes = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+        new TypeReference<List<Note>>() {
+        });
+    assertEquals(expectedNotes, notes);
+  }
+
+  @WithMockUser
+  @Test
+  public void testGetNotesPageWhenAlsoAskedToStream() throws Exception {
+    final NotesPage page = new NotesPage(Arrays.asList(new Note("note 1", "note title", "note body")), null);
+    Mockito.when(notesService.getNotesPage(Mockito.any(), Mockito.isNull(), Mockito.eq(10))).thenReturn(page);
+
+    final MvcResult mvcResult = mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, ""))
+        .param("stream", "true")
+        .param("limit", "10")
+        .accept(MediaType.APPLICATION_JSON))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn();
+
+    assertEquals(page, fromJson(mvcResult.getResponse().getContentAsString(), NotesPage.class));
+  }
+
+  @WithMockUser
+  @Test
+  public void testGetNoteSummariesPageForUser() throws Exception {
+    final NoteSummariesPage page = new NoteSummariesPage(Arrays.asList(new NoteSummary("note 1", "note title")),
+        null);
+    Mockito.when(notesService.getNoteSummariesPage(Mockito.any(), Mockito.isNull(), Mockito.eq(20)))
+        .thenReturn(page);
+
+    final ResultActions resultActions = mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, "summaries"))
+        .param("limit", "20")
+        .accept(MediaType.APPLICATION_JSON));
+
+    final MvcResult mvcResult = resultActions
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn();
+
+    final String content = mvcResult.getResponse().getContentAsString();
+    assertFalse(content.contains("body"));
+    assertEquals(page, fromJson(content, NoteSummariesPage.class));
+  }
+
+  @WithMockUser
+  @Test
+  public void testSearchNotes() throws Exception {
+    final List<Note> expectedNotes = Arrays.asList(new Note("note 1", "title", "body"));
+    Mockito.when(notesService.searchNotes(Mockito.any(), Mockito.eq("title"), Mockito.eq(20)))
+        .thenReturn(expectedNotes);
+
+    final ResultActions resultActions = mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, "search"))
+        .param("q", "title")
+        .accept(MediaType.APPLICATION_JSON));
+
+    final MvcResult mvcResult = resultActions
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn();
+
+    final List<Note> notes = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+        new TypeReference<List<Note>>() {
+        });
+    assertEquals(expectedNotes, notes);
+  }
+
+  @WithMockUser
+  @Test
+  public void testSearchNoteTitles() throws Exception {
+    final List<NoteSummary> expectedSummaries = Arrays.asList(new NoteSummary("note 1", "title"));
+    Mockito.when(notesService.searchNoteTitles(Mockito.any(), Mockito.eq("titel"), Mockito.eq(1), Mockito.eq(20)))
+        .thenReturn(expectedSummaries);
+
+    final ResultActions resultActions = mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, "search", "titles"))
+        .param("q", "titel")
+        .param("distance", "1")
+        .accept(MediaType.APPLICATION_JSON));
+
+    final MvcResult mvcResult = resultActions
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn();
+
+    final List<NoteSummary> summaries = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+        new TypeReference<List<NoteSummary>>() {
+        });
+    assertEquals(expectedSummaries, summaries);
+  }
+
+  @WithMockUser
+  @Test
+  public void testSuggestNoteTitles() throws Exception {
+    final List<NoteSummary> expectedSummaries = Arrays.asList(new NoteSummary("note 1", "title"));
+    Mockito.when(notesService.suggestNoteTitles(Mockito.any(), Mockito.eq("ti"), Mockito.eq(10)))
+        .thenReturn(expectedSummaries);
+
+    final ResultActions resultActions = mvc.perform(get(PathBuilder.buildPath(PathBuilder.NOTES, "suggest"))
+        .param("prefix", "ti")
+        .accept(MediaType.APPLICATION_JSON));
+
+    final MvcResult mvcResult = resultActions
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn();
+
+    final List<NoteSummary> summaries = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+        new TypeReference<List<NoteSummary>>() {
+        });
+    assertEquals(expectedSummaries, summaries);
+  }
+
   @WithMockUser
   @Test
   public void testDeleteNote() throws Exception {
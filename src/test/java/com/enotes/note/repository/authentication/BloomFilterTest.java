@@ -0,0 +1,39 @@
+package com.enotes.note.repository.authentication;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+  @Test
+  public void testContainingAddedValues() {
+    final BloomFilter filter = new BloomFilter(1000, 0.01);
+
+    assertFalse(filter.mightContain("John"));
+    for (int i = 0; i < 1000; i++) {
+      filter.add("user" + i);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(filter.mightContain("user" + i));
+    }
+  }
+
+  @Test
+  public void testFalsePositiveRate() {
+    final BloomFilter filter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add("user" + i);
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (filter.mightContain("other" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 200, falsePositives + " false positives");
+  }
+}
@@ -0,0 +1,120 @@
+package com.enotes.note.repository.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshSessionsTest {
+
+  private static final long NOW = 1_000 * RefreshSessions.SLOT_MILLIS;
+
+  @Test
+  public void testKeepingSeveralSessionsPerUser() {
+    final RefreshSessions refreshSessions = new RefreshSessions(3, clockAt(NOW));
+    final Date expiration = new Date(NOW + 60_000);
+
+    refreshSessions.add("John", "1", expiration);
+    refreshSessions.add("John", "2", expiration);
+    refreshSessions.add("Jane", "3", expiration);
+
+    assertTrue(refreshSessions.isActive("John", "1"));
+    assertTrue(refreshSessions.isActive("John", "2"));
+    assertTrue(refreshSessions.isActive("Jane", "3"));
+    assertFalse(refreshSessions.isActive("John", "3"));
+    assertFalse(refreshSessions.isActive("Bob", "1"));
+    assertFalse(refreshSessions.isActive(null, "1"));
+    assertEquals(3, refreshSessions.getSize());
+  }
+
+  @Test
+  public void testDroppingOldestSessionPastMaximum() {
+    final RefreshSessions refreshSessions = new RefreshSessions(2, clockAt(NOW));
+    final Date expiration = new Date(NOW + 60_000);
+
+    refreshSessions.add("John", "1", expiration);
+    refreshSessions.add("John", "2", expiration);
+    refreshSessions.add("John", "3", expiration);
+
+    assertFalse(refreshSessions.isActive("John", "1"));
+    assertTrue(refreshSessions.isActive("John", "2"));
+    assertTrue(refreshSessions.isActive("John", "3"));
+    assertEquals(2, refreshSessions.getSize());
+  }
+
+  @Test
+  public void testRevokingOneSession() {
+    final RefreshSessions refreshSessions = new RefreshSessions(3, clockAt(NOW));
+    final Date expiration = new Date(NOW + 60_000);
+
+    refreshSessions.add("John", "1", expiration);
+    refreshSessions.add("John", "2", expiration);
+
+    assertTrue(refreshSessions.revoke("John", "1"));
+    assertFalse(refreshSessions.revoke("John", "1"));
+    assertFalse(refreshSessions.isActive("John", "1"));
+    assertTrue(refreshSessions.isActive("John", "2"));
+
+    assertTrue(refreshSessions.revoke("John", "2"));
+    assertEquals(0, refreshSessions.getSize());
+  }
+
+  @Test
+  public void testSweepingExpiredSessions() {
+    final Clock clock = clockAt(NOW);
+    final RefreshSessions refreshSessions = new RefreshSessions(3, clock);
+
+    refreshSessions.add("John", "1", new Date(NOW + 60_000));
+    refreshSessions.add("John", "2", new Date(NOW + 3 * RefreshSessions.SLOT_MILLIS));
+    refreshSessions.add("Jane", "3", new Date(NOW + 60_000));
+    refreshSessions.add("Jane", "4", new Date(NOW - 1));
+    assertEquals(3, refreshSessions.getSize());
+
+    Mockito.when(clock.millis()).thenReturn(NOW + 120_000);
+    assertFalse(refreshSessions.isActive("John", "1"));
+    assertTrue(refreshSessions.isActive("John", "2"));
+
+    Mockito.when(clock.millis()).thenReturn(NOW + RefreshSessions.SLOT_MILLIS);
+    refreshSessions.add("Bob", "5", new Date(NOW + 2 * RefreshSessions.SLOT_MILLIS));
+
+    assertEquals(2, refreshSessions.getSize());
+    assertTrue(refreshSessions.isActive("John", "2"));
+
+    Mockito.when(clock.millis()).thenReturn(NOW + 4 * RefreshSessions.SLOT_MILLIS);
+    refreshSessions.add("Bob", "6", new Date(NOW + 5 * RefreshSessions.SLOT_MILLIS));
+
+    assertEquals(1, refreshSessions.getSize());
+    assertTrue(refreshSessions.isActive("Bob", "6"));
+  }
+
+  @Test
+  public void testSweepingSessionsExpiringPastWheel() {
+    final Clock clock = clockAt(NOW);
+    final RefreshSessions refreshSessions = new RefreshSessions(3, clock);
+    final long expiration = NOW + (RefreshSessions.WHEEL_SLOTS + 10) * RefreshSessions.SLOT_MILLIS;
+
+    refreshSessions.add("John", "1", new Date(expiration));
+
+    Mockito.when(clock.millis()).thenReturn(NOW + RefreshSessions.WHEEL_SLOTS * RefreshSessions.SLOT_MILLIS);
+    refreshSessions.add("Bob", "2", new Date(expiration + 5 * RefreshSessions.SLOT_MILLIS));
+    assertTrue(refreshSessions.isActive("John", "1"));
+
+    Mockito.when(clock.millis()).thenReturn(expiration + RefreshSessions.SLOT_MILLIS);
+    refreshSessions.add("Bob", "3", new Date(expiration + 3 * RefreshSessions.SLOT_MILLIS));
+
+    assertFalse(refreshSessions.isActive("John", "1"));
+    assertEquals(2, refreshSessions.getSize());
+  }
+
+  private static Clock clockAt(final long millis) {
+    final Clock clock = Mockito.mock(Clock.class);
+    Mockito.when(clock.millis()).thenReturn(millis);
+
+    return clock;
+  }
+}
@@ -0,0 +1,47 @@
+package com.enotes.note.repository.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ReservingUserRepositoryTest {
+
+  @Test
+  public void testReservingUserNameOnce() {
+    final ReservingUserRepository repository = new ReservingUserRepository(new InMemoryUserRepository(), 100);
+
+    assertTrue(repository.reserve("John"));
+    assertFalse(repository.reserve("John"));
+
+    repository.release("John");
+    assertTrue(repository.reserve("John"));
+  }
+
+  @Test
+  public void testTurningDownStoredUserNames() {
+    final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+    userRepository.put("Jane", new UserDetails.Builder("Jane", "123").build());
+    final ReservingUserRepository repository = new ReservingUserRepository(userRepository, 100);
+
+    assertTrue(repository.reserve("John"));
+    assertTrue(repository.putIfAbsent("John", new UserDetails.Builder("John", "123").build()));
+    repository.release("John");
+
+    assertFalse(repository.reserve("John"));
+    assertFalse(repository.reserve("Jane"));
+  }
+
+  @Test
+  public void testReservingNewUserNameWithoutReadingRepository() {
+    final UserRepository userRepository = Mockito.spy(new InMemoryUserRepository());
+    final ReservingUserRepository repository = new ReservingUserRepository(userRepository, 100);
+
+    assertTrue(repository.reserve("John"));
+
+    verify(userRepository, never()).findById(Mockito.anyString());
+  }
+}
@@ -0,0 +1,54 @@
+package com.enotes.note.repository.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevokedTokensTest {
+
+  private static final long NOW = 1_000 * RevokedTokens.BUCKET_MILLIS;
+
+  @Test
+  public void testRevokingToken() {
+    final RevokedTokens revokedTokens = new RevokedTokens(100, clockAt(NOW));
+    final Date expiration = new Date(NOW + 60_000);
+
+    revokedTokens.revoke("1", expiration);
+
+    assertTrue(revokedTokens.isRevoked("1", expiration));
+    assertFalse(revokedTokens.isRevoked("2", expiration));
+    assertFalse(revokedTokens.isRevoked("1", new Date(NOW + 2 * RevokedTokens.BUCKET_MILLIS)));
+    assertFalse(revokedTokens.isRevoked(null, expiration));
+    assertEquals(1, revokedTokens.getSize());
+  }
+
+  @Test
+  public void testForgettingExpiredTokens() {
+    final Clock clock = clockAt(NOW);
+    final RevokedTokens revokedTokens = new RevokedTokens(100, clock);
+
+    revokedTokens.revoke("1", new Date(NOW + 60_000));
+    revokedTokens.revoke("2", new Date(NOW + 2 * RevokedTokens.BUCKET_MILLIS));
+    revokedTokens.revoke("3", new Date(NOW - 1));
+    assertEquals(2, revokedTokens.getSize());
+
+    Mockito.when(clock.millis()).thenReturn(NOW + RevokedTokens.BUCKET_MILLIS);
+    revokedTokens.revoke("4", new Date(NOW + 2 * RevokedTokens.BUCKET_MILLIS));
+
+    assertEquals(2, revokedTokens.getSize());
+    assertTrue(revokedTokens.isRevoked("2", new Date(NOW + 2 * RevokedTokens.BUCKET_MILLIS)));
+  }
+
+  private static Clock clockAt(final long millis) {
+    final Clock clock = Mockito.mock(Clock.class);
+    Mockito.when(clock.millis()).thenReturn(millis);
+
+    return clock;
+  }
+}
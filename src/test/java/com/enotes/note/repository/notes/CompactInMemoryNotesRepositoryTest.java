@@ -0,0 +1,166 @@
+package com.enotes.note.repository.notes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactInMemoryNotesRepositoryTest {
+
+  @Test
+  public void testAddingKeyDoesntAlreadyExist() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+
+    final String noteId = "12345";
+    final NotesDetails notesDetails = new NotesDetails.Builder(noteId, new UserId("john")).build();
+
+    assertTrue(persister.putIfAbsent(noteId, notesDetails));
+
+    assertEquals(notesDetails, persister.findById(noteId).get());
+  }
+
+  @Test
+  public void testAddingKeyAlreadyExist() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+
+    final String noteId = "12345";
+    final NotesDetails notesDetails = new NotesDetails.Builder(noteId, new UserId("john")).build();
+    assertTrue(persister.putIfAbsent(noteId, notesDetails));
+    assertFalse(persister.putIfAbsent(noteId, notesDetails));
+  }
+
+  @Test
+  public void testFindAllForUnknownUser() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+
+    assertTrue(persister.findAll(new UserId("john")).isEmpty());
+  }
+
+  @Test
+  public void testFindAllAndDelete() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+    final UserId john = new UserId("john");
+    final UserId jane = new UserId("jane");
+
+    persister.put("1", new NotesDetails.Builder("1", john).build());
+    persister.put("2", new NotesDetails.Builder("2", john).build());
+    persister.put("3", new NotesDetails.Builder("3", jane).build());
+
+    persister.delete("1");
+
+    assertEquals(1, persister.findAll(john).size());
+    assertEquals("2", persister.findAll(john).iterator().next().getId());
+    assertEquals(1, persister.findAll(jane).size());
+    assertFalse(persister.findById("1").isPresent());
+  }
+
+  @Test
+  public void testOwnersPastInitialCapacity() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+
+    for (int i = 0; i < 1000; i++) {
+      persister.put(String.valueOf(i), new NotesDetails.Builder(String.valueOf(i), new UserId("user" + i)).build());
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(new UserId("user" + i), persister.findById(String.valueOf(i)).get().getUserId());
+    }
+  }
+
+  @Test
+  public void testEncodingNotes() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+    final UserId john = new UserId("john");
+    final StringBuilder longBody = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      longBody.append((char) ('a' + i % 26));
+    }
+
+    final List<NotesDetails> notes = Arrays.asList(
+        new NotesDetails.Builder("1", john).build(),
+        new NotesDetails.Builder("2", john).withTitle("").withBody("").build(),
+        new NotesDetails.Builder("3", john).withTitle("é ✓ \uD83D\uDE00").withBody(longBody.toString()).build());
+    for (NotesDetails notesDetails : notes) {
+      persister.put(notesDetails.getId(), notesDetails);
+    }
+
+    for (NotesDetails notesDetails : notes) {
+      assertEquals(notesDetails, persister.findById(notesDetails.getId()).get());
+    }
+    assertEquals(notes, new ArrayList<>(persister.findAll(john)));
+  }
+
+  @Test
+  public void testChangingNoteOwner() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+    final UserId john = new UserId("john");
+    final UserId jane = new UserId("jane");
+
+    persister.put("1", new NotesDetails.Builder("1", john).build());
+    persister.put("1", new NotesDetails.Builder("1", jane).build());
+
+    assertTrue(persister.findAll(john).isEmpty());
+    assertEquals(jane, persister.findAll(jane).iterator().next().getUserId());
+  }
+
+  @Test
+  public void testConcurrentWritesOfDifferentUsers() throws Exception {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+    final int users = 8;
+    final int notesPerUser = 1000;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(users);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < users; i++) {
+        final UserId userId = new UserId("user " + i);
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < notesPerUser; j++) {
+            final String id = UUID.randomUUID().toString();
+            persister.put(id, new NotesDetails.Builder(id, userId).build());
+            if (j % 2 == 0) {
+              persister.delete(id);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    for (int i = 0; i < users; i++) {
+      final Collection<NotesDetails> notes = persister.findAll(new UserId("user " + i));
+      assertEquals(notesPerUser / 2, notes.size());
+      assertEquals(notesPerUser / 2, notes.stream().map(NotesDetails::getId).collect(Collectors.toSet()).size());
+    }
+  }
+
+  @Test
+  public void testFindSummaryPage() {
+    final CompactInMemoryNotesRepository persister = new CompactInMemoryNotesRepository();
+    final UserId john = new UserId("john");
+    persister.put("1", new NotesDetails.Builder("1", john).withTitle("first").withBody("body").build());
+    persister.put("2", new NotesDetails.Builder("2", john).withTitle("second").withBody("body").build());
+
+    final NotesDetailsPage page = persister.findSummaryPage(john, null, 1);
+
+    assertEquals(Collections.singletonList(new NotesDetails.Builder("1", john).withTitle("first").build()),
+        page.getNotes());
+    assertEquals("second", persister.findSummaryPage(john, page.getNext().get(), 1).getNotes().get(0).getTitle());
+  }
+}
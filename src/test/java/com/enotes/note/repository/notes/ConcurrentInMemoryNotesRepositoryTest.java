@@ -0,0 +1,124 @@
+package com.enotes.note.repository.notes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentInMemoryNotesRepositoryTest {
+
+  @Test
+  public void testAddingKeyDoesntAlreadyExist() {
+    final ConcurrentInMemoryNotesRepository persister = new ConcurrentInMemoryNotesRepository();
+
+    final String noteId = "12345";
+    final NotesDetails notesDetails = new NotesDetails.Builder(noteId, new UserId("john")).build();
+
+    assertTrue(persister.putIfAbsent(noteId, notesDetails));
+
+    assertEquals(notesDetails, persister.findById(noteId).get());
+  }
+
+  @Test
+  public void testAddingKeyAlreadyExist() {
+    final ConcurrentInMemoryNotesRepository persister = new ConcurrentInMemoryNotesRepository();
+
+    final String noteId = "12345";
+    final NotesDetails notesDetails = new NotesDetails.Builder(noteId, new UserId("john")).build();
+    assertTrue(persister.putIfAbsent(noteId, notesDetails));
+    assertFalse(persister.putIfAbsent(noteId, notesDetails));
+  }
+
+  @Test
+  public void testFindAllForUnknownUser() {
+    final ConcurrentInMemoryNotesRepository persister = new ConcurrentInMemoryNotesRepository();
+
+    assertTrue(persister.findAll(new UserId("john")).isEmpty());
+  }
+
+  @Test
+  public void testFindAllAndDelete() {
+    final ConcurrentInMemoryNotesRepository persister = new ConcurrentInMemoryNotesRepository();
+    final UserId john = new UserId("john");
+    final UserId jane = new UserId("jane");
+
+    persister.put("1", new NotesDetails.Builder("1", john).build());
+    persister.put("2", new NotesDetails.Builder("2", john).build());
+    persister.put("3", new NotesDetails.Builder("3", jane).build());
+
+    persister.delete("1");
+
+    assertEquals(1, persister.findAll(john).size());
+    assertEquals("2", persister.findAll(john).iterator().next().getId());
+    assertEquals(1, persister.findAll(jane).size());
+    assertFalse(persister.findById("1").isPresent());
+  }
+
+  @Test
+  public void testFindPage() {
+    final ConcurrentInMemoryNotesRepository persister = new ConcurrentInMemoryNotesRepository();
+    final UserId john = new UserId("john");
+    for (int i = 0; i < 7; i++) {
+      persister.put(String.valueOf(i), new NotesDetails.Builder(String.valueOf(i), john).build());
+    }
+    persister.put("other", new NotesDetails.Builder("other", new UserId("jane")).build());
+
+    final List<String> ids = new ArrayList<>();
+    NotesCursor cursor = null;
+    do {
+      final NotesDetailsPage page = persister.findPage(john, cursor, 3);
+      assertTrue(page.getNotes().size() <= 3);
+      page.getNotes().forEach(note -> ids.add(note.getId()));
+      cursor = page.getNext().orElse(null);
+    } while (cursor != null);
+
+    assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6"), ids);
+    assertTrue(persister.findPage(new UserId("unknown"), null, 3).getNotes().isEmpty());
+  }
+
+  @Test
+  public void testConcurrentWritesOfDifferentUsers() throws Exception {
+    final ConcurrentInMemoryNotesRepository persister = new ConcurrentInMemoryNotesRepository();
+    final int users = 8;
+    final int notesPerUser = 1000;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(users);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < users; i++) {
+        final UserId userId = new UserId("user " + i);
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < notesPerUser; j++) {
+            final String id = UUID.randomUUID().toString();
+            persister.put(id, new NotesDetails.Builder(id, userId).build());
+            if (j % 2 == 0) {
+              persister.delete(id);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    for (int i = 0; i < users; i++) {
+      final Collection<NotesDetails> notes = persister.findAll(new UserId("user " + i));
+      assertEquals(notesPerUser / 2, notes.size());
+      assertEquals(notesPerUser / 2, notes.stream().map(NotesDetails::getId).collect(Collectors.toSet()).size());
+    }
+  }
+}
@@ -38,4 +38,20 @@ class InMemoryNotesRepositoryTest {
 
     assertFalse(persister.findById(noteId).isPresent());
   }
+
+  @Test
+  public void testOverwritingNoteDoesntDuplicateIt() {
+    final InMemoryNotesRepository persister = new InMemoryNotesRepository();
+
+    final String noteId = "12345";
+    final UserId userId = new UserId("john");
+    persister.put(noteId, new NotesDetails.Builder(noteId, userId).withTitle("first").build());
+    persister.put(noteId, new NotesDetails.Builder(noteId, userId).withTitle("second").build());
+
+    assertEquals(1, persister.findAll(userId).size());
+    assertEquals("second", persister.findAll(userId).iterator().next().getTitle());
+
+    persister.delete(noteId);
+    assertTrue(persister.findAll(userId).isEmpty());
+  }
 }
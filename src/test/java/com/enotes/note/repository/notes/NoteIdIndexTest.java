@@ -0,0 +1,123 @@
+package com.enotes.note.repository.notes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NoteIdIndexTest {
+
+  @Test
+  public void testAddingIdAlreadyExist() {
+    final NoteIdIndex index = new NoteIdIndex();
+
+    assertTrue(index.add("1"));
+    assertFalse(index.add("1"));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  public void testIterationFollowsCreationOrder() {
+    final NoteIdIndex index = new NoteIdIndex();
+    index.add("3");
+    index.add("1");
+    index.add("2");
+    index.add("1");
+
+    final List<String> ids = new ArrayList<>();
+    index.forEach(ids::add);
+
+    assertEquals(Arrays.asList("3", "1", "2"), ids);
+    assertEquals(ids, index.toList());
+  }
+
+  @Test
+  public void testRemovingHeadMiddleAndTail() {
+    final NoteIdIndex index = new NoteIdIndex();
+    for (int i = 0; i < 5; i++) {
+      index.add(String.valueOf(i));
+    }
+
+    assertTrue(index.remove("0"));
+    assertTrue(index.remove("2"));
+    assertTrue(index.remove("4"));
+    assertFalse(index.remove("4"));
+
+    assertEquals(Arrays.asList("1", "3"), index.toList());
+
+    index.add("0");
+    assertEquals(Arrays.asList("1", "3", "0"), index.toList());
+  }
+
+  @Test
+  public void testRemovingManyIds() {
+    final NoteIdIndex index = new NoteIdIndex();
+    final int count = 200_000;
+    for (int i = 0; i < count; i++) {
+      index.add(String.valueOf(i));
+    }
+    for (int i = 0; i < count; i += 2) {
+      index.remove(String.valueOf(i));
+    }
+
+    assertEquals(count / 2, index.size());
+    assertEquals("1", index.iterator().next());
+    assertFalse(index.contains("0"));
+    assertTrue(index.contains(String.valueOf(count - 1)));
+  }
+
+  @Test
+  public void testPagingFollowsCreationOrder() {
+    final NoteIdIndex index = new NoteIdIndex();
+    for (int i = 0; i < 5; i++) {
+      index.add(String.valueOf(i));
+    }
+
+    final NoteIdIndex.Page first = index.page(null, 2);
+    assertEquals(Arrays.asList("0", "1"), first.getIds());
+
+    final NoteIdIndex.Page second = index.page(first.getNext().get(), 2);
+    assertEquals(Arrays.asList("2", "3"), second.getIds());
+
+    final NoteIdIndex.Page last = index.page(second.getNext().get(), 2);
+    assertEquals(Collections.singletonList("4"), last.getIds());
+    assertFalse(last.getNext().isPresent());
+  }
+
+  @Test
+  public void testPagingAfterRemovedId() {
+    final NoteIdIndex index = new NoteIdIndex();
+    for (int i = 0; i < 5; i++) {
+      index.add(String.valueOf(i));
+    }
+
+    final NotesCursor cursor = index.page(null, 2).getNext().get();
+    index.remove("1");
+    index.remove("2");
+    // re-added ids go to the end, the cursor must not resume after them
+    index.add("1");
+
+    assertEquals(Arrays.asList("3", "4", "1"), index.page(cursor, 10).getIds());
+  }
+
+  @Test
+  public void testPagingAfterRemovedIdAcrossPages() {
+    final NoteIdIndex index = new NoteIdIndex();
+    for (int i = 0; i < 6; i++) {
+      index.add(String.valueOf(i));
+    }
+
+    final NotesCursor cursor = index.page(null, 3).getNext().get();
+    index.remove("2");
+
+    final NoteIdIndex.Page page = index.page(cursor, 2);
+    assertEquals(Arrays.asList("3", "4"), page.getIds());
+    assertEquals(Arrays.asList("5"), index.page(page.getNext().get(), 2).getIds());
+  }
+}
@@ -0,0 +1,78 @@
+package com.enotes.note.repository.notes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Footprint report comparing the heap used per note by {@link ConcurrentInMemoryNotesRepository} and
+ * {@link CompactInMemoryNotesRepository}. Notes get random UUID ids like the ones {@code NotesService} generates and
+ * are spread over users owning {@link #NOTES_PER_USER} notes each.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.enotes.note.repository.notes.NotesFootprintBenchmark} or straight from the IDE. Optional
+ * arguments: number of notes (default 1,000,000), title length (default 32) and body length (default 256).
+ */
+public final class NotesFootprintBenchmark {
+
+  private static final int NOTES_PER_USER = 100;
+
+  private NotesFootprintBenchmark() {
+    //do nothing
+  }
+
+  public static void main(String[] args) {
+    final int notes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    final int titleLength = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+    final int bodyLength = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+    final String title = text(titleLength);
+    final String body = text(bodyLength);
+    final long payload = UUID.randomUUID().toString().length() + title.getBytes(StandardCharsets.UTF_8).length
+        + body.getBytes(StandardCharsets.UTF_8).length;
+
+    System.out.printf("%,d notes, %d bytes of UTF-8 payload per note (id, title and body)%n", notes, payload);
+    System.out.printf("%-36s %16s %12s%n", "repository", "bytes per note", "x payload");
+    report("ConcurrentInMemoryNotesRepository", ConcurrentInMemoryNotesRepository::new, notes, title, body, payload);
+    report("CompactInMemoryNotesRepository", CompactInMemoryNotesRepository::new, notes, title, body, payload);
+  }
+
+  private static void report(String name, Supplier<NotesRepository> repositorySupplier, int notes, String title,
+      String body, long payload) {
+    final long before = usedHeap();
+    final NotesRepository repository = fill(repositorySupplier.get(), notes, title, body);
+    final double bytesPerNote = (double) (usedHeap() - before) / notes;
+
+    System.out.printf("%-36s %16.1f %12.2f%n", name, bytesPerNote, bytesPerNote / payload);
+    // keeps the repository reachable until it is measured
+    repository.findById("");
+  }
+
+  private static NotesRepository fill(NotesRepository repository, int notes, String title, String body) {
+    for (int i = 0; i < notes; i++) {
+      final String id = UUID.randomUUID().toString();
+      // the title and body of every note are their own strings, as they are when deserialised from a request
+      repository.put(id, new NotesDetails.Builder(id, new UserId("user-" + i / NOTES_PER_USER))
+          .withTitle(new String(title.toCharArray()))
+          .withBody(new String(body.toCharArray()))
+          .build());
+    }
+    return repository;
+  }
+
+  private static long usedHeap() {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static String text(int length) {
+    final StringBuilder text = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      text.append((char) ('a' + i % 26));
+    }
+    return text.toString();
+  }
+}
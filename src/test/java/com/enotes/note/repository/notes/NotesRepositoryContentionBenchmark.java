@@ -0,0 +1,118 @@
+package com.enotes.note.repository.notes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Contention benchmark comparing {@link InMemoryNotesRepository} with {@link ConcurrentInMemoryNotesRepository}.
+ * Every thread works on its own users and keeps a bounded number of notes per user, mixing
+ * {@code putIfAbsent}, {@code findById}, {@code findAll} and {@code delete}.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.enotes.note.repository.notes.NotesRepositoryContentionBenchmark}
+ * or straight from the IDE. Optional arguments: measured seconds per run (default 2) and warm-up seconds (default 1).
+ */
+public final class NotesRepositoryContentionBenchmark {
+
+  private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+  private static final int USERS_PER_THREAD = 4;
+  private static final int NOTES_PER_USER = 32;
+
+  private NotesRepositoryContentionBenchmark() {
+    //do nothing
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    final long measureSeconds = args.length > 0 ? Long.parseLong(args[0]) : 2;
+    final long warmUpSeconds = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+    System.out.printf("%8s %22s %22s %8s%n", "threads", "synchronized ops/s", "per-user lock ops/s", "ratio");
+    for (int threads : THREADS) {
+      final double synchronizedOps = run(InMemoryNotesRepository::new, threads, warmUpSeconds, measureSeconds);
+      final double concurrentOps = run(ConcurrentInMemoryNotesRepository::new, threads, warmUpSeconds,
+          measureSeconds);
+
+      System.out.printf("%8d %22.0f %22.0f %8.2f%n", threads, synchronizedOps, concurrentOps,
+          concurrentOps / synchronizedOps);
+    }
+  }
+
+  private static double run(Supplier<NotesRepository> repositorySupplier, int threads, long warmUpSeconds,
+      long measureSeconds) throws InterruptedException {
+    final NotesRepository repository = repositorySupplier.get();
+    final AtomicBoolean measuring = new AtomicBoolean(false);
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final LongAdder operations = new LongAdder();
+    final CountDownLatch done = new CountDownLatch(threads);
+
+    final List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int threadIndex = t;
+      final Thread worker = new Thread(() -> {
+        try {
+          work(repository, threadIndex, running, measuring, operations);
+        } finally {
+          done.countDown();
+        }
+      });
+      worker.setDaemon(true);
+      workers.add(worker);
+    }
+    workers.forEach(Thread::start);
+
+    TimeUnit.SECONDS.sleep(warmUpSeconds);
+    measuring.set(true);
+    final long start = System.nanoTime();
+    TimeUnit.SECONDS.sleep(measureSeconds);
+    final long total = operations.sum();
+    final long elapsed = System.nanoTime() - start;
+    running.set(false);
+    done.await();
+
+    return total * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+
+  private static void work(NotesRepository repository, int threadIndex, AtomicBoolean running,
+      AtomicBoolean measuring, LongAdder operations) {
+    final UserId[] users = new UserId[USERS_PER_THREAD];
+    final List<Deque<String>> notesPerUser = new ArrayList<>();
+    for (int u = 0; u < USERS_PER_THREAD; u++) {
+      users[u] = new UserId("user-" + threadIndex + "-" + u);
+      notesPerUser.add(new ArrayDeque<>());
+    }
+
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    long sequence = 0;
+    long localOperations = 0;
+    while (running.get()) {
+      final int u = random.nextInt(USERS_PER_THREAD);
+      final Deque<String> notes = notesPerUser.get(u);
+
+      final String id = threadIndex + "-" + sequence++;
+      repository.putIfAbsent(id, new NotesDetails.Builder(id, users[u]).withTitle("title").withBody("body").build());
+      notes.addLast(id);
+      repository.findById(notes.peekFirst());
+      repository.findAll(users[u]);
+      localOperations += 3;
+      if (notes.size() > NOTES_PER_USER) {
+        repository.delete(notes.removeFirst());
+        localOperations++;
+      }
+
+      if (localOperations >= 1024) {
+        if (measuring.get()) {
+          operations.add(localOperations);
+        }
+        localOperations = 0;
+      }
+    }
+  }
+}
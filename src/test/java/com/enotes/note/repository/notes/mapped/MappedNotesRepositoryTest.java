@@ -0,0 +1,169 @@
+package com.enotes.note.repository.notes.mapped;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.NotesDetailsPage;
+import com.enotes.note.repository.notes.UserId;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedNotesRepositoryTest {
+
+  private static final long SEGMENT_SIZE = 512;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void testAddingKeyAlreadyExist() {
+    try (MappedNotesRepository persister = open()) {
+      final String noteId = "12345";
+      final NotesDetails notesDetails = new NotesDetails.Builder(noteId, new UserId("john")).build();
+
+      assertTrue(persister.putIfAbsent(noteId, notesDetails));
+      assertFalse(persister.putIfAbsent(noteId, notesDetails));
+      assertEquals(notesDetails, persister.findById(noteId).get());
+    }
+  }
+
+  @Test
+  public void testRecoveringNotesAfterRestart() {
+    final UserId john = new UserId("john");
+    final NotesDetails first = new NotesDetails.Builder("1", john).withTitle("first").withBody("body").build();
+    final NotesDetails second = new NotesDetails.Builder("2", john).withTitle("second").build();
+    final NotesDetails updated = new NotesDetails.Builder("2", john).withTitle("updated").build();
+    final NotesDetails third = new NotesDetails.Builder("3", john).withTitle("third").withBody("é ✓").build();
+
+    try (MappedNotesRepository persister = open()) {
+      persister.putIfAbsent("1", first);
+      persister.put("2", second);
+      persister.put("3", third);
+      persister.put("2", updated);
+      persister.delete("1");
+
+      assertEquals(Arrays.asList(updated, third), new ArrayList<>(persister.findAll(john)));
+    }
+
+    try (MappedNotesRepository persister = open()) {
+      assertFalse(persister.findById("1").isPresent());
+      assertEquals(updated, persister.findById("2").get());
+      assertEquals(third, persister.findById("3").get());
+      assertEquals(Arrays.asList(updated, third), new ArrayList<>(persister.findAll(john)));
+    }
+  }
+
+  @Test
+  public void testChangingNoteOwner() {
+    final UserId john = new UserId("john");
+    final UserId jane = new UserId("jane");
+
+    try (MappedNotesRepository persister = open()) {
+      persister.put("1", new NotesDetails.Builder("1", john).build());
+      persister.put("1", new NotesDetails.Builder("1", jane).build());
+
+      assertTrue(persister.findAll(john).isEmpty());
+      assertEquals(1, persister.findAll(jane).size());
+    }
+
+    try (MappedNotesRepository persister = open()) {
+      assertTrue(persister.findAll(john).isEmpty());
+      assertEquals(1, persister.findAll(jane).size());
+    }
+  }
+
+  @Test
+  public void testStoringNoteLargerThanSegment() {
+    final String body = String.join("", IntStream.range(0, (int) SEGMENT_SIZE)
+        .mapToObj(i -> "x")
+        .collect(Collectors.toList()));
+    final NotesDetails notesDetails = new NotesDetails.Builder("1", new UserId("john")).withBody(body).build();
+
+    try (MappedNotesRepository persister = open()) {
+      persister.put("1", notesDetails);
+      assertEquals(notesDetails, persister.findById("1").get());
+    }
+
+    try (MappedNotesRepository persister = open()) {
+      assertEquals(notesDetails, persister.findById("1").get());
+    }
+  }
+
+  @Test
+  public void testCompactingDeletedAndOverwrittenNotes() throws IOException {
+    final UserId john = new UserId("john");
+    final List<NotesDetails> expected = new ArrayList<>();
+
+    try (MappedNotesRepository persister = open()) {
+      for (int i = 0; i < 50; i++) {
+        persister.put(String.valueOf(i), new NotesDetails.Builder(String.valueOf(i), john).withTitle("v1").build());
+      }
+      for (int i = 0; i < 50; i++) {
+        if (i % 5 == 0) {
+          final NotesDetails notesDetails = new NotesDetails.Builder(String.valueOf(i), john).withTitle("v2").build();
+          persister.put(String.valueOf(i), notesDetails);
+          expected.add(notesDetails);
+        } else {
+          persister.delete(String.valueOf(i));
+        }
+      }
+      final int segmentCount = persister.getSegmentCount();
+
+      persister.compact();
+
+      assertTrue(persister.getSegmentCount() < segmentCount);
+      assertEquals(persister.getSegmentCount(), countSegmentFiles());
+      assertEquals(expected, new ArrayList<>(persister.findAll(john)));
+      assertFalse(persister.findById("1").isPresent());
+    }
+
+    try (MappedNotesRepository persister = open()) {
+      assertEquals(expected, new ArrayList<>(persister.findAll(john)));
+      assertFalse(persister.findById("1").isPresent());
+    }
+  }
+
+  @Test
+  public void testFindSummaryPage() {
+    final UserId john = new UserId("john");
+
+    try (MappedNotesRepository persister = open()) {
+      persister.put("1", new NotesDetails.Builder("1", john).withTitle("first").withBody("body").build());
+      persister.put("2", new NotesDetails.Builder("2", john).withTitle("second").withBody("body").build());
+
+      final NotesDetailsPage page = persister.findSummaryPage(john, null, 1);
+
+      assertEquals(Collections.singletonList(new NotesDetails.Builder("1", john).withTitle("first").build()),
+          page.getNotes());
+      assertEquals(Collections.singletonList(new NotesDetails.Builder("2", john).withTitle("second").build()),
+          persister.findSummaryPage(john, page.getNext().get(), 1).getNotes());
+    }
+  }
+
+  private long countSegmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(MappedSegment.SEGMENT_SUFFIX)).count();
+    }
+  }
+
+  private MappedNotesRepository open() {
+    return new MappedNotesRepository.Builder(directory)
+        .withSegmentSize(SEGMENT_SIZE)
+        .withCompactionIntervalMillis(0)
+        .build();
+  }
+}
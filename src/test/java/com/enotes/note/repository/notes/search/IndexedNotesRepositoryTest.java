@@ -0,0 +1,168 @@
+package com.enotes.note.repository.notes.search;
+
+import com.enotes.note.repository.notes.ConcurrentInMemoryNotesRepository;
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedNotesRepositoryTest {
+
+  private static final UserId JOHN = new UserId("john");
+  private static final UserId JANE = new UserId("jane");
+
+  @Test
+  public void testRankingByRelevance() {
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    repository.put("1", note("1", JOHN, "Groceries", "milk, eggs and bread"));
+    repository.put("2", note("2", JOHN, "Bread recipe", "flour, water, salt. Bake the bread for an hour"));
+    repository.put("3", note("3", JOHN, "Meeting", "agenda for monday"));
+
+    assertEquals(Arrays.asList("2", "1"), ids(repository.search(JOHN, "BREAD", 10)));
+    assertEquals(Collections.singletonList("2"), ids(repository.search(JOHN, "bread", 1)));
+    assertEquals(Arrays.asList("3", "1"), ids(repository.search(JOHN, "monday eggs", 10)));
+    assertTrue(repository.search(JOHN, "pizza", 10).isEmpty());
+    assertTrue(repository.search(JOHN, " ,; ", 10).isEmpty());
+    assertTrue(repository.search(JANE, "bread", 10).isEmpty());
+  }
+
+  @Test
+  public void testIndexingNotesStoredBeforeTheFirstSearch() {
+    final ConcurrentInMemoryNotesRepository notesRepository = new ConcurrentInMemoryNotesRepository();
+    for (int i = 0; i < 3000; i++) {
+      notesRepository.put(String.valueOf(i), note(String.valueOf(i), JOHN, "note " + i, i % 1000 == 0 ? "rare" : null));
+    }
+    final IndexedNotesRepository repository = new IndexedNotesRepository(notesRepository);
+
+    assertEquals(Arrays.asList("0", "1000", "2000"), ids(repository.search(JOHN, "rare", 10)));
+  }
+
+  @Test
+  public void testUpdatingIndexOnWrites() {
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    repository.put("1", note("1", JOHN, "first", "apple"));
+    assertEquals(Collections.singletonList("1"), ids(repository.search(JOHN, "apple", 10)));
+
+    repository.putIfAbsent("2", note("2", JOHN, "second", "apple"));
+    repository.put("1", note("1", JOHN, "first", "orange"));
+    assertEquals(Collections.singletonList("2"), ids(repository.search(JOHN, "apple", 10)));
+    assertEquals(Collections.singletonList("1"), ids(repository.search(JOHN, "orange", 10)));
+
+    repository.delete("2");
+    assertTrue(repository.search(JOHN, "apple", 10).isEmpty());
+
+    repository.search(JANE, "orange", 10);
+    repository.put("1", note("1", JANE, "first", "orange"));
+    assertTrue(repository.search(JOHN, "orange", 10).isEmpty());
+    assertEquals(Collections.singletonList("1"), ids(repository.search(JANE, "orange", 10)));
+  }
+
+  @Test
+  public void testSearchingAfterManyRewrites() {
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    repository.search(JOHN, "warm up", 1);
+
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 1000; i++) {
+        repository.put(String.valueOf(i), note(String.valueOf(i), JOHN, "round" + round, i == 500 ? "needle" : "hay"));
+      }
+    }
+
+    assertEquals(Collections.singletonList("500"), ids(repository.search(JOHN, "needle", 10)));
+    assertEquals(1000, repository.search(JOHN, "round4", 1000).size());
+    assertTrue(repository.search(JOHN, "round3", 10).isEmpty());
+  }
+
+  @Test
+  public void testFindingByTitleFragment() {
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    repository.put("1", note("1", JOHN, "Weekly Meeting", "agenda"));
+    repository.put("2", note("2", JOHN, "Shopping list", null));
+    repository.put("3", note("3", JOHN, "Meeting notes", null));
+    repository.put("4", note("4", JOHN, null, "meeting"));
+
+    assertEquals(Arrays.asList(note("3", JOHN, "Meeting notes", null), note("1", JOHN, "Weekly Meeting", null)),
+        repository.findByTitleFragment(JOHN, "MEET", 10));
+    assertEquals(Collections.singletonList("3"), ids(repository.findByTitleFragment(JOHN, "meeting", 1)));
+    assertEquals(Collections.singletonList("2"), ids(repository.findByTitleFragment(JOHN, "g l", 10)));
+    assertEquals(Arrays.asList("3", "2", "1"), ids(repository.findByTitleFragment(JOHN, "n", 10)));
+    assertTrue(repository.findByTitleFragment(JOHN, "meetings", 10).isEmpty());
+
+    repository.put("3", note("3", JOHN, "Standup", null));
+    repository.delete("1");
+    assertTrue(repository.findByTitleFragment(JOHN, "meet", 10).isEmpty());
+  }
+
+  @Test
+  public void testFindingBySimilarTitle() {
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    repository.put("1", note("1", JOHN, "Meeting notes", null));
+    repository.put("2", note("2", JOHN, "Meeting note", null));
+    repository.put("3", note("3", JOHN, "Greeting notes", null));
+    repository.put("4", note("4", JOHN, "Cat", null));
+
+    assertEquals(Arrays.asList("1", "2"), ids(repository.findBySimilarTitle(JOHN, "meetng notes", 2, 10)));
+    assertEquals(Collections.singletonList("1"), ids(repository.findBySimilarTitle(JOHN, "meetng notes", 1, 10)));
+    assertEquals(Collections.singletonList("1"), ids(repository.findBySimilarTitle(JOHN, "Meeting notes", 0, 10)));
+    assertEquals(Arrays.asList("4"), ids(repository.findBySimilarTitle(JOHN, "bat", 1, 10)));
+    assertEquals(Arrays.asList("4"), ids(repository.findBySimilarTitle(JOHN, "c", 2, 10)));
+    assertTrue(repository.findBySimilarTitle(JANE, "meeting notes", 2, 10).isEmpty());
+  }
+
+  @Test
+  public void testSuggestingByTitlePrefix() {
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    for (int i = 0; i < 15; i++) {
+      repository.put(String.valueOf(i), note(String.valueOf(i), JOHN, "Plan " + i, "body"));
+    }
+    repository.put("other", note("other", JOHN, "Pizza", null));
+
+    assertEquals(Collections.singletonList(note("other", JOHN, "Pizza", null)),
+        repository.suggestByTitlePrefix(JOHN, "PI", 10));
+    assertEquals(Arrays.asList("other", "14", "13"), ids(repository.suggestByTitlePrefix(JOHN, "p", 3)));
+    assertEquals(Arrays.asList("14", "13", "12", "11", "10", "9", "8", "7", "6", "5"),
+        ids(repository.suggestByTitlePrefix(JOHN, "plan", 10)));
+    assertEquals(Arrays.asList("14", "13", "12", "11", "10", "1"),
+        ids(repository.suggestByTitlePrefix(JOHN, "plan 1", 10)));
+
+    for (int i = 5; i < 15; i++) {
+      repository.delete(String.valueOf(i));
+    }
+    repository.put("0", note("0", JOHN, "Plan 0", "rewritten"));
+    assertEquals(Arrays.asList("0", "4", "3", "2", "1"), ids(repository.suggestByTitlePrefix(JOHN, "plan", 10)));
+    assertEquals(Collections.singletonList("1"), ids(repository.suggestByTitlePrefix(JOHN, "plan 1", 10)));
+    assertTrue(repository.suggestByTitlePrefix(JOHN, "planet", 10).isEmpty());
+    assertTrue(repository.suggestByTitlePrefix(JANE, "p", 10).isEmpty());
+  }
+
+  @Test
+  public void testSuggestingLongTitles() {
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    final String start = "a title that is longer than the depth of the trie ";
+    repository.put("1", note("1", JOHN, start + "first", null));
+    repository.put("2", note("2", JOHN, start + "second", null));
+
+    assertEquals(Arrays.asList("2", "1"), ids(repository.suggestByTitlePrefix(JOHN, start, 10)));
+    assertEquals(Collections.singletonList("1"), ids(repository.suggestByTitlePrefix(JOHN, start + "f", 10)));
+
+    repository.delete("1");
+    assertTrue(repository.suggestByTitlePrefix(JOHN, start + "f", 10).isEmpty());
+    assertEquals(Collections.singletonList("2"), ids(repository.suggestByTitlePrefix(JOHN, "A TITLE", 10)));
+  }
+
+  private static NotesDetails note(final String id, final UserId userId, final String title, final String body) {
+    return new NotesDetails.Builder(id, userId).withTitle(title).withBody(body).build();
+  }
+
+  private static List<String> ids(final List<NotesDetails> notes) {
+    return notes.stream().map(NotesDetails::getId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,90 @@
+package com.enotes.note.repository.notes.search;
+
+import com.enotes.note.repository.notes.ConcurrentInMemoryNotesRepository;
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Latency report of {@link IndexedNotesRepository#search(UserId, String, int)} and
+ * {@link IndexedNotesRepository#suggestByTitlePrefix(UserId, String, int)} for a single user owning many notes.
+ * Words are drawn from a vocabulary with a Zipf like distribution so that queries mix frequent and rare terms.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.enotes.note.repository.notes.search.NotesSearchBenchmark} or straight from the IDE. Optional
+ * arguments: number of notes (default 100,000), words per body (default 50) and number of queries (default 2,000).
+ */
+public final class NotesSearchBenchmark {
+
+  private static final int VOCABULARY_SIZE = 50_000;
+  private static final int TITLE_WORDS = 5;
+  private static final int QUERY_WORDS = 3;
+  private static final int LIMIT = 20;
+
+  private NotesSearchBenchmark() {
+    //do nothing
+  }
+
+  public static void main(String[] args) {
+    final int notes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    final int bodyWords = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    final int queries = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+    final Random random = new Random(42);
+    final UserId userId = new UserId("user");
+    final IndexedNotesRepository repository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    for (int i = 0; i < notes; i++) {
+      final String id = String.valueOf(i);
+      repository.put(id, new NotesDetails.Builder(id, userId)
+          .withTitle(words(random, TITLE_WORDS))
+          .withBody(words(random, bodyWords))
+          .build());
+    }
+
+    final long buildStart = System.nanoTime();
+    repository.search(userId, "warm", LIMIT);
+    System.out.printf("%,d notes of %d words indexed in %d ms%n", notes, TITLE_WORDS + bodyWords,
+        (System.nanoTime() - buildStart) / 1_000_000);
+
+    // warm up
+    for (int i = 0; i < queries; i++) {
+      repository.search(userId, words(random, QUERY_WORDS), LIMIT);
+    }
+
+    final long[] latencies = new long[queries];
+    for (int i = 0; i < queries; i++) {
+      final String query = words(random, QUERY_WORDS);
+      final long start = System.nanoTime();
+      repository.search(userId, query, LIMIT);
+      latencies[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(latencies);
+
+    System.out.printf("%,d queries of %d words, top %d: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", queries, QUERY_WORDS,
+        LIMIT, latencies[queries / 2] / 1e6, latencies[queries * 99 / 100] / 1e6, latencies[queries - 1] / 1e6);
+
+    for (int i = 0; i < queries; i++) {
+      final String title = words(random, 1);
+      final String prefix = title.substring(0, 1 + random.nextInt(title.length() - 1));
+      final long start = System.nanoTime();
+      repository.suggestByTitlePrefix(userId, prefix, NotesSearcher.MAX_SUGGESTIONS);
+      latencies[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(latencies);
+
+    System.out.printf("%,d title suggestions: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", queries,
+        latencies[queries / 2] / 1e6, latencies[queries * 99 / 100] / 1e6, latencies[queries - 1] / 1e6);
+  }
+
+  private static String words(Random random, int count) {
+    final StringBuilder words = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      // rank r is drawn with a probability close to 1 / r
+      final int rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble());
+      words.append('w').append(rank).append(' ');
+    }
+    return words.toString();
+  }
+}
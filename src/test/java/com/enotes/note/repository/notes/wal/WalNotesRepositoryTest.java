@@ -0,0 +1,103 @@
+package com.enotes.note.repository.notes.wal;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WalNotesRepositoryTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void testAddingKeyAlreadyExist() {
+    try (WalNotesRepository persister = open(Durability.SYNC)) {
+      final String noteId = "12345";
+      final NotesDetails notesDetails = new NotesDetails.Builder(noteId, new UserId("john")).build();
+
+      assertTrue(persister.putIfAbsent(noteId, notesDetails));
+      assertFalse(persister.putIfAbsent(noteId, notesDetails));
+      assertEquals(notesDetails, persister.findById(noteId).get());
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(Durability.class)
+  public void testRecoveringNotesAfterRestart(Durability durability) {
+    final UserId john = new UserId("john");
+    final NotesDetails first = new NotesDetails.Builder("1", john).withTitle("first").withBody("body").build();
+    final NotesDetails second = new NotesDetails.Builder("2", john).withTitle("second").build();
+    final NotesDetails updated = new NotesDetails.Builder("2", john).withTitle("updated").build();
+    final NotesDetails third = new NotesDetails.Builder("3", john).withTitle("third").withBody("é ✓").build();
+
+    try (WalNotesRepository persister = open(durability)) {
+      persister.putIfAbsent("1", first);
+      persister.put("2", second);
+      persister.put("3", third);
+      persister.put("2", updated);
+      persister.delete("1");
+    }
+
+    try (WalNotesRepository persister = open(durability)) {
+      assertFalse(persister.findById("1").isPresent());
+      assertEquals(updated, persister.findById("2").get());
+      assertEquals(Arrays.asList("2", "3"),
+          persister.findAll(john).stream().map(NotesDetails::getId).collect(Collectors.toList()));
+      assertEquals(third, persister.findById("3").get());
+    }
+  }
+
+  @Test
+  public void testRecoveringFromSnapshotAndLogTail() throws IOException {
+    final UserId john = new UserId("john");
+    final UserId jane = new UserId("jane");
+
+    try (WalNotesRepository persister = open(Durability.SYNC)) {
+      persister.put("1", new NotesDetails.Builder("1", john).withTitle("first").build());
+      persister.put("2", new NotesDetails.Builder("2", jane).withTitle("second").build());
+      persister.put("3", new NotesDetails.Builder("3", john).withTitle("third").build());
+      persister.snapshot();
+
+      persister.put("4", new NotesDetails.Builder("4", john).withTitle("fourth").build());
+      persister.delete("1");
+    }
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(1, files.filter(path -> path.toString().endsWith(".snapshot")).count());
+    }
+
+    try (WalNotesRepository persister = open(Durability.SYNC)) {
+      assertEquals(3, persister.getSnapshotNotes());
+      assertEquals(2, persister.getReplayedRecords());
+      assertEquals(Arrays.asList("3", "4"),
+          persister.findAll(john).stream().map(NotesDetails::getId).collect(Collectors.toList()));
+      assertEquals("second", persister.findById("2").get().getTitle());
+
+      persister.snapshot();
+    }
+
+    try (WalNotesRepository persister = open(Durability.SYNC)) {
+      assertEquals(3, persister.getSnapshotNotes());
+      assertEquals(0, persister.getReplayedRecords());
+    }
+  }
+
+  private WalNotesRepository open(Durability durability) {
+    return new WalNotesRepository(new WriteAheadLog.Builder(directory).withDurability(durability).build());
+  }
+}
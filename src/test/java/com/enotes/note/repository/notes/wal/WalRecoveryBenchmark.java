@@ -0,0 +1,86 @@
+package com.enotes.note.repository.notes.wal;
+
+import com.enotes.note.repository.notes.NotesDetails;
+import com.enotes.note.repository.notes.UserId;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time to ready of a {@link WalNotesRepository} holding many notes, once recovering from the log alone
+ * and once from a snapshot and a small log tail.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.enotes.note.repository.notes.wal.WalRecoveryBenchmark -Dexec.args=10000000} and a heap large
+ * enough to hold the notes, e.g. {@code MAVEN_OPTS=-Xmx8g}. Arguments: number of notes (default 10,000,000) and
+ * number of notes per user (default 100).
+ */
+public final class WalRecoveryBenchmark {
+
+  private static final double TAIL_RATIO = 0.01;
+
+  private WalRecoveryBenchmark() {
+    //do nothing
+  }
+
+  public static void main(String[] args) throws IOException {
+    final int notes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final int notesPerUser = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    final int tail = (int) (notes * TAIL_RATIO);
+
+    final Path directory = Files.createTempDirectory("notes-wal-benchmark");
+    try {
+      long start = System.nanoTime();
+      try (WalNotesRepository repository = open(directory)) {
+        write(repository, 0, notes, notesPerUser);
+      }
+      System.out.printf("wrote %,d notes in %,d ms%n", notes, millisSince(start));
+
+      start = System.nanoTime();
+      try (WalNotesRepository repository = open(directory)) {
+        System.out.printf("log only: ready in %,d ms (measured %,d ms), %,d log records%n",
+            repository.getRecoveryTimeMillis(), millisSince(start), repository.getReplayedRecords());
+
+        start = System.nanoTime();
+        repository.snapshot();
+        System.out.printf("snapshot of %,d notes written in %,d ms%n", notes, millisSince(start));
+
+        write(repository, notes, tail, notesPerUser);
+      }
+
+      System.gc();
+      start = System.nanoTime();
+      try (WalNotesRepository repository = open(directory)) {
+        System.out.printf("snapshot + tail: ready in %,d ms (measured %,d ms), %,d snapshot notes, %,d log records%n",
+            repository.getRecoveryTimeMillis(), millisSince(start), repository.getSnapshotNotes(),
+            repository.getReplayedRecords());
+      }
+    } finally {
+      try (Stream<Path> files = Files.walk(directory)) {
+        files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+      }
+    }
+  }
+
+  private static WalNotesRepository open(Path directory) {
+    return new WalNotesRepository(new WriteAheadLog.Builder(directory).withDurability(Durability.ASYNC).build());
+  }
+
+  private static void write(WalNotesRepository repository, int from, int count, int notesPerUser) {
+    for (int i = from; i < from + count; i++) {
+      final String id = String.valueOf(i);
+      final UserId userId = new UserId("user-" + i / notesPerUser);
+      repository.put(id, new NotesDetails.Builder(id, userId)
+          .withTitle("title " + i)
+          .withBody("body of note " + i)
+          .build());
+    }
+  }
+
+  private static long millisSince(long start) {
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+}
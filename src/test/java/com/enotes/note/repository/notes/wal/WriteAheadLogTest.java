@@ -0,0 +1,182 @@
+package com.enotes.note.repository.notes.wal;
+
+import com.enotes.note.service.InternalServerErrorException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAheadLogTest {
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest
+  @EnumSource(Durability.class)
+  public void testReplayingAppendedRecords(Durability durability) {
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).withDurability(durability).build()) {
+      log.awaitDurable(log.append(bytes("first")));
+      log.awaitDurable(log.append(bytes("second")));
+    }
+
+    assertEquals(Arrays.asList("first", "second"), replay());
+  }
+
+  @Test
+  public void testRollingSegments() throws IOException {
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).withSegmentSize(32).build()) {
+      for (int i = 0; i < 10; i++) {
+        log.awaitDurable(log.append(bytes("record " + i)));
+      }
+    }
+
+    assertEquals(10, replay().size());
+    assertEquals("record 9", replay().get(9));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertTrue(files.filter(path -> path.toString().endsWith(WriteAheadLog.SEGMENT_SUFFIX)).count() > 1);
+    }
+  }
+
+  @Test
+  public void testTruncatingTornTail() throws IOException {
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).withDurability(Durability.SYNC).build()) {
+      log.awaitDurable(log.append(bytes("first")));
+      log.awaitDurable(log.append(bytes("second")));
+    }
+
+    final Path segment = segments().get(0);
+    final long size = Files.size(segment);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(size - 3);
+    }
+
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).withDurability(Durability.SYNC).build()) {
+      log.awaitDurable(log.append(bytes("third")));
+    }
+
+    assertEquals(Arrays.asList("first", "third"), replay());
+  }
+
+  @Test
+  public void testReleasingDirectoryWhenOpeningFails() throws IOException {
+    final Path unknownSegment = Files.createFile(directory.resolve("unknown" + WriteAheadLog.SEGMENT_SUFFIX));
+    assertThrows(NumberFormatException.class, () -> new WriteAheadLog.Builder(directory).build());
+
+    Files.delete(unknownSegment);
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).withDurability(Durability.SYNC).build()) {
+      log.awaitDurable(log.append(bytes("first")));
+    }
+
+    assertEquals(Arrays.asList("first"), replay());
+  }
+
+  @Test
+  public void testSurvivingInterruptedWriters() throws Exception {
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).withDurability(Durability.SYNC).build()) {
+      log.awaitDurable(log.append(bytes("first")));
+
+      final long position = log.append(bytes("second"));
+      final AtomicReference<Exception> failure = new AtomicReference<>();
+      final Thread syncer = new Thread(() -> {
+        Thread.currentThread().interrupt();
+        try {
+          log.awaitDurable(position);
+        } catch (InternalServerErrorException e) {
+          failure.set(e);
+        }
+      });
+      syncer.start();
+      syncer.join();
+      assertNotNull(failure.getAndSet(null));
+
+      final Thread appender = new Thread(() -> {
+        Thread.currentThread().interrupt();
+        try {
+          log.append(bytes("lost"));
+        } catch (InternalServerErrorException e) {
+          failure.set(e);
+        }
+      });
+      appender.start();
+      appender.join();
+      assertNotNull(failure.get());
+
+      log.awaitDurable(log.append(bytes("third")));
+    }
+
+    assertEquals(Arrays.asList("first", "second", "third"), replay());
+  }
+
+  @Test
+  public void testConcurrentWritersShareSyncs() throws Exception {
+    final int writers = 8;
+    final int recordsPerWriter = 200;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(writers);
+    final long syncs;
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).withDurability(Durability.SYNC).build()) {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        final int writer = w;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < recordsPerWriter; i++) {
+            log.awaitDurable(log.append(bytes(writer + "-" + i)));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      syncs = log.getSyncCount();
+    } finally {
+      executor.shutdown();
+    }
+
+    final List<String> records = replay();
+    assertEquals(writers * recordsPerWriter, records.size());
+    assertEquals(writers * recordsPerWriter, records.stream().distinct().count());
+    assertTrue(syncs < writers * recordsPerWriter, syncs + " syncs for " + writers * recordsPerWriter + " records");
+  }
+
+  private List<String> replay() {
+    final List<String> records = new ArrayList<>();
+    try (WriteAheadLog log = new WriteAheadLog.Builder(directory).build()) {
+      log.replay(record -> records.add(new String(record, StandardCharsets.UTF_8)));
+    }
+    return records;
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(WriteAheadLog.SEGMENT_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
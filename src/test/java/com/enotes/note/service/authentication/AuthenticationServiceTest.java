@@ -1,12 +1,20 @@
 package com.enotes.note.service.authentication;
 
+import com.enotes.note.repository.authentication.InMemoryUserRepository;
+import com.enotes.note.repository.authentication.RefreshSessions;
+import com.enotes.note.repository.authentication.ReservingUserRepository;
+import com.enotes.note.repository.authentication.RevokedTokens;
 import com.enotes.note.repository.authentication.UserDetails;
 import com.enotes.note.repository.authentication.UserRepository;
+import com.enotes.note.service.authentication.util.Password;
+import com.enotes.note.service.authentication.util.PasswordHasher;
 import com.enotes.note.service.authentication.util.TokenProvider;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,7 +34,8 @@ class AuthenticationServiceTest {
     UserRepository clientPersister = Mockito.mock(UserRepository.class);
     Mockito.when(clientPersister.putIfAbsent(Mockito.anyString(), Mockito.any())).thenReturn(true);
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     assertEquals(user.getUserName(), authenticationService.signUp(user).getAccessToken());
   }
@@ -45,7 +54,8 @@ class AuthenticationServiceTest {
     Mockito.when(tokenProvider.generateToken(Mockito.any(), Mockito.any()))
         .thenReturn(new TokenInfo.Builder(user.getUserName()).build());
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     final String token = authenticationService.signUp(user).getAccessToken();
     assertEquals(user.getUserName(), token);
@@ -60,6 +70,30 @@ class AuthenticationServiceTest {
     assertTrue(actualMessage.contains(expectedMessage));
   }
 
+  @Test
+  public void testSignUpWithUserNameAlreadyExistIsTurnedDownBeforeHashing() {
+    final User user = User.builder("John").withPassword("122334").build();
+
+    TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    Mockito.when(tokenProvider.generateToken(Mockito.any(), Mockito.any()))
+        .thenReturn(new TokenInfo.Builder(user.getUserName()).build());
+    final ReservingUserRepository userRepository = new ReservingUserRepository(new InMemoryUserRepository(), 100);
+    final PasswordHasher passwordHasher = Mockito.spy(new PasswordHasher.Builder()
+        .withExecutor(Runnable::run)
+        .build());
+
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(userRepository,
+        tokenProvider)
+        .withPasswordHasher(passwordHasher)
+        .withUserNameReservations(userRepository)
+        .build();
+    authenticationService.signUp(user);
+
+    assertThrows(AlreadyExistsException.class, () -> authenticationService.signUpAsync(user));
+    verify(passwordHasher, times(1)).hashPassword(Mockito.any());
+    verify(tokenProvider, times(2)).generateToken(Mockito.any(), Mockito.any());
+  }
+
   @Test
   public void testSignInForExistingUser() {
     final User user = User.builder("John").withPassword("122334").build();
@@ -70,7 +104,8 @@ class AuthenticationServiceTest {
         .thenReturn(new TokenInfo.Builder(user.getUserName()).build());
     Mockito.when(clientPersister.putIfAbsent(Mockito.anyString(), Mockito.any())).thenReturn(true);
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     final String token = authenticationService.signUp(user).getAccessToken();
 
@@ -83,6 +118,35 @@ class AuthenticationServiceTest {
     assertEquals(user.getUserName(), signInToken);
   }
 
+  @Test
+  public void testSignInRehashesPasswordOfLowerWorkload() {
+    final User user = User.builder("John").withPassword("122334").build();
+    TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    UserRepository clientPersister = Mockito.mock(UserRepository.class);
+
+    Mockito.when(tokenProvider.generateToken(Mockito.any(), Mockito.any()))
+        .thenReturn(new TokenInfo.Builder(user.getUserName()).build());
+    Mockito.when(clientPersister.findById(Mockito.eq(user.getUserName())))
+        .thenReturn(Optional.of(new UserDetails.Builder(user.getUserName(),
+            Password.hashPassword(user.getPassword(), Password.MIN_WORKLOAD)).build()));
+
+    final PasswordHasher passwordHasher = new PasswordHasher.Builder()
+        .withExecutor(Runnable::run)
+        .withWorkload(Password.MIN_WORKLOAD + 1)
+        .build();
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider)
+        .withPasswordHasher(passwordHasher)
+        .build();
+
+    authenticationService.signIn(user);
+
+    final ArgumentCaptor<UserDetails> storedUser = ArgumentCaptor.forClass(UserDetails.class);
+    verify(clientPersister).put(Mockito.eq(user.getUserName()), storedUser.capture());
+    assertEquals(Password.MIN_WORKLOAD + 1, Password.getWorkload(storedUser.getValue().getPassword()));
+    assertTrue(Password.checkPassword(user.getPassword(), storedUser.getValue().getPassword()));
+  }
+
   @Test
   public void testSignInForNotExistingUser() {
     final User user = User.builder("John").withPassword("122334").build();
@@ -94,7 +158,8 @@ class AuthenticationServiceTest {
     UserRepository clientPersister = Mockito.mock(UserRepository.class);
     Mockito.when(clientPersister.findById(Mockito.eq(user.getUserName()))).thenReturn(Optional.empty());
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
 
     Exception exception = assertThrows(AuthenticationException.class, () -> {
@@ -130,7 +195,8 @@ class AuthenticationServiceTest {
     Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.any())).thenReturn(tokenInfo);
     Mockito.when(clientPersister.findById(Mockito.eq(userName))).thenReturn(Optional.of(user));
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     final AuthenticationToken refreshedToken = authenticationService.refresh(authenticationToken);
 
@@ -154,7 +220,8 @@ class AuthenticationServiceTest {
     Mockito.when(clientPersister.findById(Mockito.eq(userName)))
         .thenReturn(Optional.of(Mockito.mock(UserDetails.class)));
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     Exception exception = assertThrows(AuthenticationException.class, () -> {
       authenticationService.refresh(authenticationToken);
@@ -166,6 +233,26 @@ class AuthenticationServiceTest {
     assertTrue(actualMessage.contains(expectedMessage));
   }
 
+  @Test
+  public void testFailingToRefreshRejectedTokenWithoutLookingUpUser() {
+    final AuthenticationToken authenticationToken = new AuthenticationToken("accessTokenValue", "forged");
+
+    TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    UserRepository clientPersister = Mockito.mock(UserRepository.class);
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.any()))
+        .thenReturn(new TokenInfo.Builder("forged").isValid(false).build());
+
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
+
+    Exception exception = assertThrows(AuthenticationException.class, () -> {
+      authenticationService.refresh(authenticationToken);
+    });
+
+    assertEquals("The provided Refresh Token is either expired or has been revoked", exception.getMessage());
+    verify(clientPersister, Mockito.never()).findById(Mockito.any());
+  }
+
   @Test
   public void testFailingToRefreshTokenDueUserDoesntExist() {
     final String accessTokenValue = "accessTokenValue";
@@ -184,7 +271,8 @@ class AuthenticationServiceTest {
     Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.any())).thenReturn(tokenInfo);
     Mockito.when(clientPersister.findById(Mockito.eq(userName))).thenReturn(Optional.empty());
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     Exception exception = assertThrows(AuthenticationException.class, () -> {
       authenticationService.refresh(authenticationToken);
@@ -219,7 +307,8 @@ class AuthenticationServiceTest {
     Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.any())).thenReturn(tokenInfo);
     Mockito.when(clientPersister.findById(Mockito.eq(userName))).thenReturn(Optional.of(user));
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     Exception exception = assertThrows(AuthenticationException.class, () -> {
       authenticationService.refresh(authenticationToken);
@@ -255,7 +344,8 @@ class AuthenticationServiceTest {
     Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.any())).thenReturn(tokenInfo);
     Mockito.when(clientPersister.findById(Mockito.eq(userName))).thenReturn(Optional.of(user));
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     Exception exception = assertThrows(AuthenticationException.class, () -> {
       authenticationService.refresh(authenticationToken);
@@ -287,7 +377,8 @@ class AuthenticationServiceTest {
     Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.any())).thenReturn(tokenInfo);
     Mockito.when(clientPersister.findById(Mockito.eq(userName))).thenReturn(Optional.of(user));
 
-    final AuthenticationService authenticationService = new AuthenticationService(clientPersister, tokenProvider);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider).build();
 
     final UserStatus userStatus = authenticationService.signOut(authenticationToken);
 
@@ -295,4 +386,80 @@ class AuthenticationServiceTest {
     assertEquals(userName, userStatus.getUserName());
     assertTrue(userStatus.logOut());
   }
+
+  @Test
+  public void testSignOutRevokesAccessToken() {
+    final AuthenticationToken authenticationToken = new AuthenticationToken("accessTokenValue", "refreshTokenValue");
+    final String userName = "John";
+    final Date expiration = new Date(System.currentTimeMillis() + 60_000);
+
+    final UserDetails user = new UserDetails.Builder(userName, "122334")
+        .isTokenValid(true)
+        .withRefreshTokenId("1223")
+        .build();
+    TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    UserRepository clientPersister = Mockito.mock(UserRepository.class);
+
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.eq(TokenProvider.TokenType.REFRESH)))
+        .thenReturn(new TokenInfo.Builder("refreshTokenValue").isValid(true).userName(userName).id("1223").build());
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.any(), Mockito.eq(TokenProvider.TokenType.ACCESS)))
+        .thenReturn(new TokenInfo.Builder("accessTokenValue").isValid(true).userName(userName).id("4567")
+            .expiration(expiration).build());
+    Mockito.when(clientPersister.findById(Mockito.eq(userName))).thenReturn(Optional.of(user));
+
+    final RevokedTokens revokedTokens = new RevokedTokens(100);
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(clientPersister,
+        tokenProvider)
+        .withPasswordHasher(new PasswordHasher.Builder().build())
+        .withRevokedTokens(revokedTokens)
+        .build();
+
+    authenticationService.signOut(authenticationToken);
+
+    assertTrue(revokedTokens.isRevoked("4567", expiration));
+    assertFalse(revokedTokens.isRevoked("1223", expiration));
+  }
+
+  @Test
+  public void testSessionsOfOtherDevicesStayOpen() {
+    final User user = User.builder("John").withPassword("122334").build();
+    final Date expiration = new Date(System.currentTimeMillis() + 60_000);
+    TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+
+    Mockito.when(tokenProvider.generateToken(Mockito.any(), Mockito.eq(TokenProvider.TokenType.ACCESS)))
+        .thenReturn(new TokenInfo.Builder("accessTokenValue").build());
+    Mockito.when(tokenProvider.generateToken(Mockito.any(), Mockito.eq(TokenProvider.TokenType.REFRESH)))
+        .thenReturn(refreshToken("firstRefreshToken", "1", expiration))
+        .thenReturn(refreshToken("secondRefreshToken", "2", expiration));
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.eq("firstRefreshToken"),
+        Mockito.eq(TokenProvider.TokenType.REFRESH)))
+        .thenReturn(refreshToken("firstRefreshToken", "1", expiration));
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.eq("secondRefreshToken"),
+        Mockito.eq(TokenProvider.TokenType.REFRESH)))
+        .thenReturn(refreshToken("secondRefreshToken", "2", expiration));
+
+    final AuthenticationService authenticationService = new AuthenticationService.Builder(
+        new InMemoryUserRepository(), tokenProvider)
+        .withPasswordHasher(new PasswordHasher.Builder()
+            .withExecutor(Runnable::run)
+            .withWorkload(Password.MIN_WORKLOAD)
+            .build())
+        .withRefreshSessions(new RefreshSessions(10))
+        .build();
+
+    final AuthenticationToken firstDevice = authenticationService.signUp(user);
+    final AuthenticationToken secondDevice = authenticationService.signIn(user);
+
+    assertEquals("firstRefreshToken", authenticationService.refresh(firstDevice).getRefreshToken());
+    assertEquals("secondRefreshToken", authenticationService.refresh(secondDevice).getRefreshToken());
+
+    authenticationService.signOut(firstDevice);
+
+    assertThrows(AuthenticationException.class, () -> authenticationService.refresh(firstDevice));
+    assertEquals("secondRefreshToken", authenticationService.refresh(secondDevice).getRefreshToken());
+  }
+
+  private static TokenInfo refreshToken(final String token, final String id, final Date expiration) {
+    return new TokenInfo.Builder(token).isValid(true).userName("John").id(id).expiration(expiration).build();
+  }
 }
@@ -0,0 +1,163 @@
+package com.enotes.note.service.authentication;
+
+import com.enotes.note.repository.authentication.InMemoryUserRepository;
+import com.enotes.note.repository.authentication.RefreshSessions;
+import com.enotes.note.repository.authentication.RevokedTokens;
+import com.enotes.note.repository.authentication.UserDetails;
+import com.enotes.note.repository.authentication.UserRepository;
+import com.enotes.note.service.BadRequestException;
+import com.enotes.note.service.ServiceUnavailableException;
+import com.enotes.note.service.authentication.util.TokenProvider;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenIntrospectorTest {
+
+  private static final Date EXPIRATION = new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(10));
+  private static final TokenIntrospection ACTIVE = new TokenIntrospection(true, "John",
+      TimeUnit.MILLISECONDS.toSeconds(EXPIRATION.getTime()));
+
+  @Test
+  public void testIntrospectingAccessTokens() {
+    final TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.anyString(), Mockito.eq(TokenProvider.TokenType.ACCESS)))
+        .thenAnswer(invocation -> tokenInfo(invocation.getArgument(0)));
+    final RevokedTokens revokedTokens = new RevokedTokens(100);
+    revokedTokens.revoke("revoked", EXPIRATION);
+
+    final TokenIntrospector tokenIntrospector = new TokenIntrospector.Builder(tokenProvider)
+        .withRevokedTokens(revokedTokens)
+        .build();
+
+    assertEquals(new TokenBatchIntrospection(Arrays.asList(ACTIVE, TokenIntrospection.INACTIVE,
+        TokenIntrospection.INACTIVE, TokenIntrospection.INACTIVE), Collections.emptyList()),
+        tokenIntrospector.introspect(new TokenBatch(Arrays.asList("valid", "revoked", "invalid", null), null)).join());
+  }
+
+  @Test
+  public void testIntrospectingRefreshTokensOfOpenSessions() {
+    final TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.anyString(), Mockito.eq(TokenProvider.TokenType.REFRESH)))
+        .thenAnswer(invocation -> tokenInfo(invocation.getArgument(0)));
+    final RefreshSessions refreshSessions = new RefreshSessions(10);
+    refreshSessions.add("John", "open", EXPIRATION);
+
+    final TokenIntrospector tokenIntrospector = new TokenIntrospector.Builder(tokenProvider)
+        .withRefreshSessions(refreshSessions)
+        .build();
+
+    assertEquals(Arrays.asList(ACTIVE, TokenIntrospection.INACTIVE, TokenIntrospection.INACTIVE),
+        tokenIntrospector.introspect(new TokenBatch(null, Arrays.asList("open", "closed", "invalid"))).join()
+            .getRefreshTokens());
+  }
+
+  @Test
+  public void testIntrospectingRefreshTokenOfLastSignIn() {
+    final TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.anyString(), Mockito.eq(TokenProvider.TokenType.REFRESH)))
+        .thenAnswer(invocation -> tokenInfo(invocation.getArgument(0)));
+    final UserRepository userRepository = new InMemoryUserRepository();
+    userRepository.put("John", new UserDetails.Builder("John", "").isTokenValid(true)
+        .withRefreshTokenId("last").build());
+
+    final TokenIntrospector tokenIntrospector = new TokenIntrospector.Builder(tokenProvider)
+        .withUserRepository(userRepository)
+        .build();
+
+    assertEquals(Arrays.asList(ACTIVE, TokenIntrospection.INACTIVE),
+        tokenIntrospector.introspect(new TokenBatch(null, Arrays.asList("last", "previous"))).join()
+            .getRefreshTokens());
+  }
+
+  @Test
+  public void testKeepingOrderAcrossSlices() {
+    final TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    Mockito.when(tokenProvider.extractTokenInfo(Mockito.anyString(), Mockito.any()))
+        .thenAnswer(invocation -> new TokenInfo.Builder(invocation.getArgument(0)).isValid(true)
+            .userName(invocation.getArgument(0)).id(invocation.getArgument(0)).expiration(EXPIRATION).build());
+
+    final TokenIntrospector tokenIntrospector = new TokenIntrospector.Builder(tokenProvider)
+        .withThreads(4)
+        .build();
+
+    final List<String> accessTokens = new ArrayList<>();
+    final List<String> refreshTokens = new ArrayList<>();
+    for (int i = 0; i < 10 * TokenIntrospector.MIN_SLICE_SIZE; i++) {
+      accessTokens.add("access" + i);
+      refreshTokens.add("refresh" + i);
+    }
+
+    final TokenBatchIntrospection introspection = tokenIntrospector.introspect(
+        new TokenBatch(accessTokens, refreshTokens)).join();
+
+    for (int i = 0; i < accessTokens.size(); i++) {
+      assertEquals(accessTokens.get(i), introspection.getAccessTokens().get(i).getUserName());
+      assertEquals(refreshTokens.get(i), introspection.getRefreshTokens().get(i).getUserName());
+    }
+    tokenIntrospector.close();
+  }
+
+  @Test
+  public void testRejectingOversizedBatch() {
+    final TokenIntrospector tokenIntrospector = new TokenIntrospector.Builder(Mockito.mock(TokenProvider.class))
+        .withMaxBatchSize(2)
+        .build();
+
+    assertThrows(BadRequestException.class, () -> tokenIntrospector.introspect(
+        new TokenBatch(Arrays.asList("first", "second"), Collections.singletonList("third"))));
+  }
+
+  @Test
+  public void testRejectingBatchWhenOverloaded() {
+    final TokenIntrospector tokenIntrospector = new TokenIntrospector.Builder(Mockito.mock(TokenProvider.class))
+        .withExecutor(task -> {
+          throw new RejectedExecutionException();
+        })
+        .build();
+
+    assertThrows(ServiceUnavailableException.class, () -> tokenIntrospector.introspect(
+        new TokenBatch(Collections.singletonList("token"), null)));
+  }
+
+  @Test
+  public void testAbandoningSubmittedSlicesWhenOverloaded() {
+    final TokenProvider tokenProvider = Mockito.mock(TokenProvider.class);
+    final List<Runnable> queued = new ArrayList<>();
+    final TokenIntrospector tokenIntrospector = new TokenIntrospector.Builder(tokenProvider)
+        .withThreads(2)
+        .withExecutor(task -> {
+          if (!queued.isEmpty()) {
+            throw new RejectedExecutionException();
+          }
+          queued.add(task);
+        })
+        .build();
+
+    final List<String> accessTokens = new ArrayList<>();
+    for (int i = 0; i < 2 * TokenIntrospector.MIN_SLICE_SIZE; i++) {
+      accessTokens.add("access" + i);
+    }
+
+    assertThrows(ServiceUnavailableException.class, () -> tokenIntrospector.introspect(
+        new TokenBatch(accessTokens, null)));
+    queued.get(0).run();
+    Mockito.verifyNoInteractions(tokenProvider);
+  }
+
+  private static TokenInfo tokenInfo(final String token) {
+    return new TokenInfo.Builder(token).isValid(!"invalid".equals(token)).userName("John").id(token)
+        .expiration(EXPIRATION).build();
+  }
+}
@@ -0,0 +1,80 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.application.authentication.StoreConfigProperties;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JsonWebKeySetTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void testSerializingRsaKey(@TempDir Path directory) throws IOException {
+    final KeyMaterial keyMaterial = new KeyMaterial(properties(directory, SignatureAlgorithm.RS256));
+    final RSAPublicKey publicKey = (RSAPublicKey) keyMaterial.getVerificationKey(TokenProvider.TokenType.ACCESS, null);
+
+    final JsonNode keys = objectMapper.readTree(new JsonWebKeySet(keyMaterial).getDocument().getJson()).get("keys");
+
+    assertEquals(1, keys.size());
+    final JsonNode key = keys.get(0);
+    assertEquals("RSA", key.get("kty").asText());
+    assertEquals(keyMaterial.getSigningKey(TokenProvider.TokenType.ACCESS).getKeyId(), key.get("kid").asText());
+    assertEquals("RS256", key.get("alg").asText());
+    assertEquals(publicKey.getModulus(), decode(key.get("n")));
+    assertEquals(publicKey.getPublicExponent(), decode(key.get("e")));
+  }
+
+  @Test
+  public void testSerializingEllipticCurveKey(@TempDir Path directory) throws IOException {
+    final KeyMaterial keyMaterial = new KeyMaterial(properties(directory, SignatureAlgorithm.ES512));
+    final ECPublicKey publicKey = (ECPublicKey) keyMaterial.getVerificationKey(TokenProvider.TokenType.ACCESS, null);
+
+    final JsonNode key = objectMapper.readTree(new JsonWebKeySet(keyMaterial).getDocument().getJson())
+        .get("keys").get(0);
+
+    assertEquals("EC", key.get("kty").asText());
+    assertEquals("ES512", key.get("alg").asText());
+    assertEquals("P-521", key.get("crv").asText());
+    assertEquals(66, Base64.getUrlDecoder().decode(key.get("x").asText()).length);
+    assertEquals(publicKey.getW().getAffineX(), decode(key.get("x")));
+    assertEquals(publicKey.getW().getAffineY(), decode(key.get("y")));
+  }
+
+  @Test
+  public void testServingSameDocumentUntilKeysChange(@TempDir Path directory) {
+    final KeyMaterial keyMaterial = new KeyMaterial(properties(directory, SignatureAlgorithm.RS256));
+    final JsonWebKeySet jsonWebKeySet = new JsonWebKeySet(keyMaterial);
+
+    final JsonWebKeySet.Document document = jsonWebKeySet.getDocument();
+
+    assertSame(document, jsonWebKeySet.getDocument());
+    assertEquals(document.getEntityTag(), new JsonWebKeySet(keyMaterial).getDocument().getEntityTag());
+  }
+
+  private static BigInteger decode(final JsonNode value) {
+    return new BigInteger(1, Base64.getUrlDecoder().decode(value.asText()));
+  }
+
+  private static StoreConfigProperties properties(final Path directory, final SignatureAlgorithm algorithm) {
+    return new StoreConfigProperties.Builder()
+        .withLocation(directory.resolve("sec.jks").toString())
+        .withPwd("123455")
+        .withKeyPwd("222222")
+        .withAccessTokenAlgorithm(algorithm)
+        .build();
+  }
+}
@@ -0,0 +1,87 @@
+package com.enotes.note.service.authentication.util;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Date;
+
+/**
+ * Throughput report of signing and verifying access tokens like the ones {@link JwtTokenProvider} issues, for every
+ * algorithm access and refresh tokens can be configured with.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.enotes.note.service.authentication.util.JwtSignatureBenchmark} or straight from the IDE.
+ * Optional argument: number of tokens signed and verified per algorithm (default 2,000).
+ */
+public final class JwtSignatureBenchmark {
+
+  private static final SignatureAlgorithm[] ALGORITHMS = {
+      SignatureAlgorithm.RS256, SignatureAlgorithm.PS256, SignatureAlgorithm.ES256, SignatureAlgorithm.ES384,
+      SignatureAlgorithm.ES512, SignatureAlgorithm.HS256, SignatureAlgorithm.HS512
+  };
+
+  private JwtSignatureBenchmark() {
+    //do nothing
+  }
+
+  public static void main(String[] args) {
+    final int tokens = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+
+    System.out.printf("%-8s %14s %16s %14s %14s%n", "alg", "signs/s", "verifications/s", "token bytes",
+        "key bytes");
+    for (SignatureAlgorithm algorithm : ALGORITHMS) {
+      report(algorithm, tokens);
+    }
+  }
+
+  private static void report(SignatureAlgorithm algorithm, int tokens) {
+    final Key signingKey;
+    final Key verificationKey;
+    if (algorithm.isHmac()) {
+      signingKey = io.jsonwebtoken.security.Keys.secretKeyFor(algorithm);
+      verificationKey = signingKey;
+    } else {
+      final KeyPair keyPair = io.jsonwebtoken.security.Keys.keyPairFor(algorithm);
+      signingKey = keyPair.getPrivate();
+      verificationKey = keyPair.getPublic();
+    }
+    final JwtParser parser = Jwts.parserBuilder().setSigningKey(verificationKey).build();
+
+    // warm up
+    for (int i = 0; i < tokens / 10; i++) {
+      parser.parseClaimsJws(sign(signingKey, algorithm, i));
+    }
+
+    final String[] signed = new String[tokens];
+    final long signStart = System.nanoTime();
+    for (int i = 0; i < tokens; i++) {
+      signed[i] = sign(signingKey, algorithm, i);
+    }
+    final long signNanos = System.nanoTime() - signStart;
+
+    final long verifyStart = System.nanoTime();
+    for (String token : signed) {
+      parser.parseClaimsJws(token);
+    }
+    final long verifyNanos = System.nanoTime() - verifyStart;
+
+    System.out.printf("%-8s %,14.0f %,16.0f %14d %14d%n", algorithm.getValue(), tokens * 1e9 / signNanos,
+        tokens * 1e9 / verifyNanos, signed[0].length(), verificationKey.getEncoded().length);
+  }
+
+  private static String sign(Key key, SignatureAlgorithm algorithm, int i) {
+    final Date issuedDate = new Date();
+
+    return Jwts.builder()
+        .setIssuer("auth-backend")
+        .setSubject("user-" + i)
+        .setId(Integer.toString(i))
+        .setIssuedAt(issuedDate)
+        .setExpiration(new Date(issuedDate.getTime() + 60 * 60 * 1000))
+        .signWith(key, algorithm)
+        .compact();
+  }
+}
@@ -7,11 +7,14 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.KeyPair;
 import java.util.Date;
@@ -95,4 +98,91 @@ public class JwtTokenProviderTest {
 
     Files.deleteIfExists(Paths.get(configProperties.getLocation()));
   }
+
+  @ParameterizedTest
+  @EnumSource(value = SignatureAlgorithm.class, names = {"RS256", "PS256", "ES256", "ES384", "ES512"})
+  public void testStoringKeysForAlgorithm(SignatureAlgorithm algorithm, @TempDir Path directory) {
+    final StoreConfigProperties configProperties = new StoreConfigProperties.Builder()
+        .withLocation(directory.resolve("sec.jks").toString())
+        .withPwd("123455")
+        .withKeyPwd("222222")
+        .withAccessTokenAlgorithm(algorithm)
+        .withRefreshTokenAlgorithm(SignatureAlgorithm.HS256)
+        .build();
+    final UserDetails user = new UserDetails.Builder("John", "").build();
+
+    final String accessToken = new JwtTokenProvider(configProperties).generateToken(user, TokenProvider.TokenType.ACCESS)
+        .getToken();
+    final String refreshToken = new JwtTokenProvider(configProperties)
+        .generateToken(user, TokenProvider.TokenType.REFRESH).getToken();
+
+    final KeyMaterial keyMaterial = new KeyMaterial(configProperties);
+    final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(keyMaterial);
+    assertTrue(jwtTokenProvider.validateToken(accessToken, TokenProvider.TokenType.ACCESS));
+    assertTrue(jwtTokenProvider.validateToken(refreshToken, TokenProvider.TokenType.REFRESH));
+    assertEquals(algorithm.getValue(), Jwts.parserBuilder()
+        .setSigningKey(keyMaterial.getVerificationKey(TokenProvider.TokenType.ACCESS, null))
+        .build()
+        .parseClaimsJws(accessToken)
+        .getHeader()
+        .getAlgorithm());
+  }
+
+  @Test
+  public void testReplacingKeyWhenAlgorithmChanges(@TempDir Path directory) {
+    final StoreConfigProperties.Builder configProperties = new StoreConfigProperties.Builder()
+        .withLocation(directory.resolve("sec.jks").toString())
+        .withPwd("123455")
+        .withKeyPwd("222222");
+    final UserDetails user = new UserDetails.Builder("John", "").build();
+
+    final String rsaToken = new JwtTokenProvider(configProperties.build())
+        .generateToken(user, TokenProvider.TokenType.ACCESS).getToken();
+    final JwtTokenProvider ecProvider = new JwtTokenProvider(configProperties
+        .withAccessTokenAlgorithm(SignatureAlgorithm.ES256)
+        .build());
+
+    assertFalse(ecProvider.validateToken(rsaToken, TokenProvider.TokenType.ACCESS));
+    assertTrue(ecProvider.validateToken(ecProvider.generateToken(user, TokenProvider.TokenType.ACCESS).getToken(),
+        TokenProvider.TokenType.ACCESS));
+  }
+
+  @Test
+  public void testRejectingSymmetricAccessTokenAlgorithm() {
+    final StoreConfigProperties configProperties = new StoreConfigProperties.Builder()
+        .withLocation("sec.jks")
+        .withPwd("123455")
+        .withKeyPwd("222222")
+        .withAccessTokenAlgorithm(SignatureAlgorithm.HS256)
+        .build();
+
+    assertThrows(IllegalArgumentException.class, () -> new JwtTokenProvider(configProperties));
+  }
+
+  @Test
+  public void testCountingRejectedTokensByReason() {
+    final KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.RS256);
+    final JwtTokenProvider.Keys keys = new JwtTokenProvider.Keys(Keys.secretKeyFor(SignatureAlgorithm.HS512), keyPair.getPublic(), keyPair.getPrivate());
+    final SecurityEvents securityEvents = new SecurityEvents(SecurityEvents.DEFAULT_LOG_INTERVAL_MILLIS);
+    final JwtTokenProvider tokenProvider = new JwtTokenProvider(new KeyMaterial(keys), securityEvents);
+
+    final String expiredToken = Jwts.builder()
+        .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+        .signWith(keys.getPrivateKey())
+        .compact();
+    final String forgedToken = Jwts.builder()
+        .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+        .signWith(Keys.keyPairFor(SignatureAlgorithm.RS256).getPrivate())
+        .compact();
+
+    assertFalse(tokenProvider.validateToken(null, TokenProvider.TokenType.ACCESS));
+    assertFalse(tokenProvider.validateToken("not a token", TokenProvider.TokenType.ACCESS));
+    assertFalse(tokenProvider.validateToken(expiredToken, TokenProvider.TokenType.ACCESS));
+    assertFalse(tokenProvider.validateToken(forgedToken, TokenProvider.TokenType.ACCESS));
+
+    assertEquals(1, securityEvents.getCount(TokenProvider.TokenType.ACCESS, SecurityEvents.Reason.MISSING));
+    assertEquals(1, securityEvents.getCount(TokenProvider.TokenType.ACCESS, SecurityEvents.Reason.MALFORMED));
+    assertEquals(1, securityEvents.getCount(TokenProvider.TokenType.ACCESS, SecurityEvents.Reason.EXPIRED));
+    assertEquals(1, securityEvents.getCount(TokenProvider.TokenType.ACCESS, SecurityEvents.Reason.INVALID_SIGNATURE));
+  }
 }
@@ -0,0 +1,196 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.application.authentication.StoreConfigProperties;
+import com.enotes.note.repository.authentication.UserDetails;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyMaterialTest {
+
+  private static final long NOW = 1_600_000_000_000L;
+  private static final UserDetails USER = new UserDetails.Builder("John", "").build();
+
+  @Test
+  public void testStampingTokensWithKeyId(@TempDir Path directory) {
+    final KeyMaterial keyMaterial = new KeyMaterial(properties(directory));
+    final JwtTokenProvider tokenProvider = new JwtTokenProvider(keyMaterial);
+
+    for (TokenProvider.TokenType type : TokenProvider.TokenType.values()) {
+      final String token = tokenProvider.generateToken(USER, type).getToken();
+
+      assertEquals(keyMaterial.getSigningKey(type).getKeyId(), Jwts.parserBuilder()
+          .setSigningKey(keyMaterial.getSigningKey(type).getVerificationKey())
+          .build()
+          .parseClaimsJws(token)
+          .getHeader()
+          .getKeyId());
+      assertTrue(tokenProvider.validateToken(token, type));
+    }
+    assertNotEquals(keyMaterial.getSigningKey(TokenProvider.TokenType.ACCESS).getKeyId(),
+        keyMaterial.getSigningKey(TokenProvider.TokenType.REFRESH).getKeyId());
+  }
+
+  @Test
+  public void testVerifyingTokensWithoutKeyId(@TempDir Path directory) {
+    final KeyMaterial keyMaterial = new KeyMaterial(properties(directory));
+    final JwtTokenProvider tokenProvider = new JwtTokenProvider(keyMaterial);
+
+    final String token = Jwts.builder()
+        .setSubject("John")
+        .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+        .signWith(keyMaterial.getSigningKey(TokenProvider.TokenType.REFRESH).getKey())
+        .compact();
+
+    assertTrue(tokenProvider.validateToken(token, TokenProvider.TokenType.REFRESH));
+  }
+
+  @Test
+  public void testRejectingUnknownKeyId(@TempDir Path directory) {
+    final KeyMaterial keyMaterial = new KeyMaterial(properties(directory));
+    final JwtTokenProvider tokenProvider = new JwtTokenProvider(keyMaterial);
+
+    final String token = Jwts.builder()
+        .setHeaderParam("kid", "unknown")
+        .setSubject("John")
+        .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+        .signWith(keyMaterial.getSigningKey(TokenProvider.TokenType.REFRESH).getKey())
+        .compact();
+
+    assertFalse(tokenProvider.validateToken(token, TokenProvider.TokenType.REFRESH));
+  }
+
+  @Test
+  public void testReloadingRotatedKeys(@TempDir Path directory) throws Exception {
+    final StoreConfigProperties properties = properties(directory);
+    final KeyMaterial keyMaterial = new KeyMaterial(properties);
+    final JwtTokenProvider tokenProvider = new JwtTokenProvider(keyMaterial);
+    final String oldAccessToken = tokenProvider.generateToken(USER, TokenProvider.TokenType.ACCESS).getToken();
+    final String oldRefreshToken = tokenProvider.generateToken(USER, TokenProvider.TokenType.REFRESH).getToken();
+    final String oldKeyId = keyMaterial.getSigningKey(TokenProvider.TokenType.ACCESS).getKeyId();
+
+    assertFalse(keyMaterial.reloadIfModified());
+    writeNewKeys(properties, false);
+
+    assertTrue(keyMaterial.reloadIfModified());
+    assertNotEquals(oldKeyId, keyMaterial.getSigningKey(TokenProvider.TokenType.ACCESS).getKeyId());
+    assertTrue(tokenProvider.validateToken(oldAccessToken, TokenProvider.TokenType.ACCESS));
+    assertTrue(tokenProvider.validateToken(oldRefreshToken, TokenProvider.TokenType.REFRESH));
+    assertTrue(tokenProvider.validateToken(tokenProvider.generateToken(USER, TokenProvider.TokenType.ACCESS)
+        .getToken(), TokenProvider.TokenType.ACCESS));
+
+    // a restart forgets the keys that are no longer in the store
+    assertFalse(new JwtTokenProvider(new KeyMaterial(properties))
+        .validateToken(oldAccessToken, TokenProvider.TokenType.ACCESS));
+  }
+
+  @Test
+  public void testDroppingRetiredKeysPastTheirRetention(@TempDir Path directory) throws Exception {
+    final StoreConfigProperties properties = properties(directory);
+    final Clock clock = clockAt(NOW);
+    final KeyMaterial keyMaterial = new KeyMaterial(properties, 0, clock);
+    final String oldAccessKeyId = keyMaterial.getSigningKey(TokenProvider.TokenType.ACCESS).getKeyId();
+    final String oldRefreshKeyId = keyMaterial.getSigningKey(TokenProvider.TokenType.REFRESH).getKeyId();
+
+    writeNewKeys(properties, false);
+    assertTrue(keyMaterial.reloadIfModified());
+    assertFalse(keyMaterial.pruneExpiredKeys());
+
+    Mockito.when(clock.millis()).thenReturn(NOW + JwtTokenProvider.ACCESS_TOKEN_EXPIRY_TIME);
+    assertNull(keyMaterial.getVerificationKey(TokenProvider.TokenType.ACCESS, oldAccessKeyId));
+    assertNotNull(keyMaterial.getVerificationKey(TokenProvider.TokenType.REFRESH, oldRefreshKeyId));
+    assertTrue(keyMaterial.getPublicKeys().getKeys().containsKey(oldAccessKeyId));
+
+    assertTrue(keyMaterial.pruneExpiredKeys());
+    assertFalse(keyMaterial.getPublicKeys().getKeys().containsKey(oldAccessKeyId));
+    assertEquals(1, keyMaterial.getPublicKeys().getKeys().size());
+    assertNotNull(keyMaterial.getVerificationKey(TokenProvider.TokenType.REFRESH, oldRefreshKeyId));
+  }
+
+  @Test
+  public void testVerifyingWithKeysKeptUnderOtherAliases(@TempDir Path directory) throws Exception {
+    final StoreConfigProperties properties = properties(directory);
+    final String oldAccessToken = new JwtTokenProvider(new KeyMaterial(properties))
+        .generateToken(USER, TokenProvider.TokenType.ACCESS).getToken();
+
+    writeNewKeys(properties, true);
+
+    assertTrue(new JwtTokenProvider(new KeyMaterial(properties))
+        .validateToken(oldAccessToken, TokenProvider.TokenType.ACCESS));
+  }
+
+  @Test
+  public void testKeepingKeysWhenStoreCannotBeRead(@TempDir Path directory) throws Exception {
+    final StoreConfigProperties properties = properties(directory);
+    final KeyMaterial keyMaterial = new KeyMaterial(properties);
+    final String keyId = keyMaterial.getSigningKey(TokenProvider.TokenType.ACCESS).getKeyId();
+    final Path location = directory.resolve("sec.jks");
+
+    Files.write(location, new byte[] {1, 2, 3});
+    Files.setLastModifiedTime(location, FileTime.from(Instant.now().plusSeconds(60)));
+
+    assertFalse(keyMaterial.reloadIfModified());
+    assertEquals(keyId, keyMaterial.getSigningKey(TokenProvider.TokenType.ACCESS).getKeyId());
+  }
+
+  private static Clock clockAt(final long millis) {
+    final Clock clock = Mockito.mock(Clock.class);
+    Mockito.when(clock.millis()).thenReturn(millis);
+
+    return clock;
+  }
+
+  private static StoreConfigProperties properties(final Path directory) {
+    return new StoreConfigProperties.Builder()
+        .withLocation(directory.resolve("sec.jks").toString())
+        .withPwd("123455")
+        .withKeyPwd("222222")
+        .build();
+  }
+
+  /**
+   * Replaces the signing keys of the store, moving the previous ones under other aliases if {@code keepPrevious}
+   */
+  private static void writeNewKeys(final StoreConfigProperties properties, final boolean keepPrevious)
+      throws Exception {
+    final KeyStore keyStore = P12Stores.readKeyStore(properties.getLocation(), properties.getPwd());
+    if (keepPrevious) {
+      keyStore.setEntry("previousSecretKey", keyStore.getEntry(JwtTokenProvider.SECRET_KEY,
+          new KeyStore.PasswordProtection(properties.getKeyPwd().toCharArray())),
+          new KeyStore.PasswordProtection(properties.getKeyPwd().toCharArray()));
+      keyStore.setEntry("previousPrivateKey", keyStore.getEntry(JwtTokenProvider.PRIVATE_KEY,
+          new KeyStore.PasswordProtection(properties.getKeyPwd().toCharArray())),
+          new KeyStore.PasswordProtection(properties.getKeyPwd().toCharArray()));
+    }
+
+    final KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.RS256);
+    P12Stores.storeKeyPair(keyStore, properties.getKeyPwd(), keyPair, JwtTokenProvider.PRIVATE_KEY);
+    P12Stores.storeSecretKey(keyStore, JwtTokenProvider.SECRET_KEY, properties.getKeyPwd(),
+        Keys.secretKeyFor(SignatureAlgorithm.HS512));
+    P12Stores.saveKeyStore(keyStore, properties.getLocation(), properties.getPwd());
+
+    final Path location = Paths.get(properties.getLocation());
+    Files.setLastModifiedTime(location, FileTime.from(Instant.now().plusSeconds(60)));
+  }
+}
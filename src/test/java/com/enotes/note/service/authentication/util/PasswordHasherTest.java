@@ -0,0 +1,111 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.service.ServiceUnavailableException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+  @Test
+  public void testHashingAndVerifyingOnWorkers() {
+    try (PasswordHasher passwordHasher = new PasswordHasher.Builder().withThreads(1).withQueueSize(1).build()) {
+      final String hashPassword = passwordHasher.hashPassword("12345678").join();
+
+      assertTrue(Password.BCRYPT_PATTERN.matcher(hashPassword).matches());
+      assertEquals(Optional.of(hashPassword), passwordHasher.verifyPassword("12345678", hashPassword).join());
+      assertFalse(passwordHasher.verifyPassword("23567", hashPassword).join().isPresent());
+    }
+  }
+
+  @Test
+  public void testRehashingPasswordOfLowerWorkload() {
+    final List<Integer> checkedWorkloads = new ArrayList<>();
+    final PasswordHasher passwordHasher = new PasswordHasher.Builder()
+        .withExecutor(Runnable::run)
+        .withWorkload(Password.MIN_WORKLOAD + 1)
+        .withCheckListener((workload, nanos) -> checkedWorkloads.add(workload))
+        .build();
+    final String hashPassword = Password.hashPassword("12345678", Password.MIN_WORKLOAD);
+
+    final String rehashedPassword = passwordHasher.verifyPassword("12345678", hashPassword).join().get();
+
+    assertEquals(Password.MIN_WORKLOAD + 1, Password.getWorkload(rehashedPassword));
+    assertTrue(Password.checkPassword("12345678", rehashedPassword));
+    assertFalse(passwordHasher.verifyPassword("23567", hashPassword).join().isPresent());
+    assertEquals(Arrays.asList(Password.MIN_WORKLOAD, Password.MIN_WORKLOAD), checkedWorkloads);
+  }
+
+  @Test
+  public void testKeepingPasswordOfHigherWorkload() {
+    final PasswordHasher passwordHasher = new PasswordHasher.Builder()
+        .withExecutor(Runnable::run)
+        .withWorkload(Password.MIN_WORKLOAD)
+        .build();
+    final String hashPassword = Password.hashPassword("12345678", Password.MIN_WORKLOAD + 1);
+
+    assertEquals(Optional.of(hashPassword), passwordHasher.verifyPassword("12345678", hashPassword).join());
+  }
+
+  @Test
+  public void testCalibratingWorkloadNotBelowConfiguredOne() {
+    final PasswordHasher passwordHasher = new PasswordHasher.Builder()
+        .withExecutor(Runnable::run)
+        .withWorkload(Password.MIN_WORKLOAD + 1)
+        .withTargetHashMillis(1)
+        .build();
+
+    assertEquals(Password.MIN_WORKLOAD + 1, passwordHasher.getWorkload());
+  }
+
+  @Test
+  public void testCalibratingWorkload() {
+    final PasswordHasher passwordHasher = new PasswordHasher.Builder()
+        .withExecutor(Runnable::run)
+        .withWorkload(Password.MIN_WORKLOAD)
+        .withTargetHashMillis(1)
+        .build();
+
+    assertEquals(Password.MIN_WORKLOAD, passwordHasher.getWorkload());
+    assertTrue(passwordHasher.getCalibratedHashMillis() > 0);
+    assertEquals(Password.MIN_WORKLOAD, Password.getWorkload(passwordHasher.hashPassword("12345678").join()));
+  }
+
+  @Test
+  public void testRejectingPasswordsWhenWorkersAreBusy() throws InterruptedException {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new SynchronousQueue<>());
+    final CountDownLatch busy = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    try (PasswordHasher passwordHasher = new PasswordHasher.Builder().withExecutor(executor).build()) {
+      executor.execute(() -> {
+        busy.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      busy.await();
+
+      assertThrows(ServiceUnavailableException.class, () -> passwordHasher.hashPassword("12345678"));
+      assertThrows(ServiceUnavailableException.class, () -> passwordHasher.verifyPassword("12345678", "hash"));
+    } finally {
+      release.countDown();
+    }
+  }
+}
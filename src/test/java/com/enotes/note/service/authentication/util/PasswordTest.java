@@ -26,4 +26,11 @@ class PasswordTest {
 
     assertFalse(Password.checkPassword("23567", hashPassword));
   }
+
+  @Test
+  public void testReadingWorkload() {
+    assertEquals(Password.MIN_WORKLOAD, Password.getWorkload(Password.hashPassword("12345678", Password.MIN_WORKLOAD)));
+    assertEquals(-1, Password.getWorkload("12345678"));
+    assertEquals(-1, Password.getWorkload(null));
+  }
 }
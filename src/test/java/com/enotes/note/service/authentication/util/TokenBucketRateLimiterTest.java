@@ -0,0 +1,89 @@
+package com.enotes.note.service.authentication.util;
+
+import com.enotes.note.service.TooManyRequestsException;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+  private static final long NOW = 1_000_000;
+
+  @Test
+  public void testAcquiringBurstThenRate() {
+    final Clock clock = clockAt(NOW);
+    final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(60, 3, 10, clock);
+
+    assertEquals(0, rateLimiter.tryAcquire("John"));
+    assertEquals(0, rateLimiter.tryAcquire("John"));
+    assertEquals(0, rateLimiter.tryAcquire("John"));
+    assertEquals(1_000, rateLimiter.tryAcquire("John"));
+    assertEquals(0, rateLimiter.tryAcquire("Jane"));
+
+    Mockito.when(clock.millis()).thenReturn(NOW + 500);
+    assertEquals(500, rateLimiter.tryAcquire("John"));
+
+    Mockito.when(clock.millis()).thenReturn(NOW + 1_000);
+    assertEquals(0, rateLimiter.tryAcquire("John"));
+    assertEquals(1_000, rateLimiter.tryAcquire("John"));
+  }
+
+  @Test
+  public void testBoundingTrackedKeys() {
+    final Clock clock = clockAt(NOW);
+    final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(60, 1, 10, clock);
+
+    for (int i = 0; i < 100; i++) {
+      rateLimiter.tryAcquire("user" + i);
+    }
+    assertTrue(rateLimiter.getSize() <= 10);
+
+    Mockito.when(clock.millis()).thenReturn(NOW + 1_000);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(0, rateLimiter.tryAcquire("other" + i));
+    }
+    assertTrue(rateLimiter.getSize() <= 10);
+  }
+
+  @Test
+  public void testLimitingByAddressAndUserName() {
+    final AuthenticationRateLimiter rateLimiter = new AuthenticationRateLimiter(
+        new TokenBucketRateLimiter(60, 2, 10, clockAt(NOW)), new TokenBucketRateLimiter(60, 1, 10, clockAt(NOW)));
+
+    rateLimiter.acquire("John", "10.0.0.1");
+    final TooManyRequestsException byUserName = assertThrows(TooManyRequestsException.class,
+        () -> rateLimiter.acquire("John", "10.0.0.2"));
+    assertEquals(1, byUserName.getRetryAfterSeconds());
+
+    rateLimiter.acquire("Jane", "10.0.0.3");
+    rateLimiter.acquire(null, "10.0.0.3");
+    assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("Jack", "10.0.0.3"));
+  }
+
+  @Test
+  public void testLimitingIntrospectedTokensByAddress() {
+    final AuthenticationRateLimiter rateLimiter = new AuthenticationRateLimiter(null, null,
+        new TokenBucketRateLimiter(60_000, 100, 10, clockAt(NOW)));
+
+    rateLimiter.acquireIntrospection("10.0.0.1", 60);
+    rateLimiter.acquireIntrospection("10.0.0.1", 40);
+    assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquireIntrospection("10.0.0.1", 1));
+
+    // a batch past the burst takes the whole burst
+    rateLimiter.acquireIntrospection("10.0.0.2", 1_000);
+    assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquireIntrospection("10.0.0.2", 1));
+  }
+
+  private static Clock clockAt(final long millis) {
+    final Clock clock = Mockito.mock(Clock.class);
+    Mockito.when(clock.millis()).thenReturn(millis);
+
+    return clock;
+  }
+}
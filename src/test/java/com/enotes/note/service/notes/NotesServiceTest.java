@@ -1,14 +1,18 @@
 package com.enotes.note.service.notes;
 
+import com.enotes.note.repository.notes.ConcurrentInMemoryNotesRepository;
 import com.enotes.note.repository.notes.NotesDetails;
 import com.enotes.note.repository.notes.NotesRepository;
 import com.enotes.note.repository.notes.UserId;
+import com.enotes.note.repository.notes.search.IndexedNotesRepository;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -107,4 +111,134 @@ public class NotesServiceTest {
     assertNotNull(id, note.get(0).getId());
     assertNotNull(id2, note.get(1).getId());
   }
+
+  @Test
+  public void testGetNotesPage() {
+    final ConcurrentInMemoryNotesRepository notesRepository = new ConcurrentInMemoryNotesRepository();
+    final NotesService notesService = new NotesService(notesRepository);
+    final String userId = "user 1";
+    for (int i = 0; i < 3; i++) {
+      notesService.createNote(userId, new Note(null, "note title " + i, "note body"));
+    }
+
+    final NotesPage first = notesService.getNotesPage(userId, null, 2);
+    assertEquals(2, first.getNotes().size());
+    assertEquals("note title 0", first.getNotes().get(0).getTitle());
+    assertNotNull(first.getNextCursor());
+
+    final NotesPage last = notesService.getNotesPage(userId, first.getNextCursor(), 2);
+    assertEquals(1, last.getNotes().size());
+    assertEquals("note title 2", last.getNotes().get(0).getTitle());
+    assertNull(last.getNextCursor());
+  }
+
+  @Test
+  public void testGetNotesPageWithInvalidCursor() {
+    final NotesService notesService = new NotesService(Mockito.mock(NotesRepository.class));
+
+    Exception exception = assertThrows(NotesException.class, () -> {
+      notesService.getNotesPage("user 1", "not a cursor", 10);
+    });
+
+    assertEquals("cursor: {not a cursor} is invalid", exception.getMessage());
+  }
+
+  @Test
+  public void testGetNotesPageWithInvalidLimit() {
+    final NotesService notesService = new NotesService(Mockito.mock(NotesRepository.class));
+
+    assertThrows(NotesException.class, () -> notesService.getNotesPage("user 1", null, 0));
+    assertThrows(NotesException.class, () -> notesService.getNotesPage("user 1", null,
+        NotesService.MAX_PAGE_LIMIT + 1));
+  }
+
+  @Test
+  public void testSearchNotesWithoutSearcher() {
+    final NotesService notesService = new NotesService(Mockito.mock(NotesRepository.class));
+
+    Exception exception = assertThrows(NotesException.class, () -> notesService.searchNotes("user 1", "title", 10));
+
+    assertEquals("Notes search is not enabled", exception.getMessage());
+  }
+
+  @Test
+  public void testIterateAllNotesAcrossPages() {
+    final NotesService notesService = new NotesService(new ConcurrentInMemoryNotesRepository());
+    final String userId = "user 1";
+    final int count = NotesService.ITERATION_PAGE_SIZE * 2 + 1;
+    for (int i = 0; i < count; i++) {
+      notesService.createNote(userId, new Note(null, "note title " + i, "note body"));
+    }
+
+    final Iterator<Note> notes = notesService.iterateAllNotes(userId);
+    for (int i = 0; i < count; i++) {
+      assertEquals("note title " + i, notes.next().getTitle());
+    }
+    assertFalse(notes.hasNext());
+    assertFalse(notesService.iterateAllNotes("user 2").hasNext());
+  }
+
+  @Test
+  public void testGetNoteSummariesPage() {
+    final NotesService notesService = new NotesService(new ConcurrentInMemoryNotesRepository());
+    final String userId = "user 1";
+    final NoteId first = notesService.createNote(userId, new Note(null, "note title 1", "note body"));
+    final NoteId second = notesService.createNote(userId, new Note(null, "note title 2", "note body"));
+
+    final NoteSummariesPage page = notesService.getNoteSummariesPage(userId, null, 1);
+    assertEquals(Collections.singletonList(new NoteSummary(first.getId(), "note title 1")), page.getSummaries());
+
+    final NoteSummariesPage last = notesService.getNoteSummariesPage(userId, page.getNextCursor(), 1);
+    assertEquals(Collections.singletonList(new NoteSummary(second.getId(), "note title 2")), last.getSummaries());
+    assertNull(last.getNextCursor());
+  }
+
+  @Test
+  public void testSearchNotes() {
+    final IndexedNotesRepository notesRepository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    final NotesService notesService = new NotesService(notesRepository, notesRepository);
+    final String userId = "user 1";
+    final NoteId first = notesService.createNote(userId, new Note(null, "shopping", "buy milk"));
+    notesService.createNote(userId, new Note(null, "todo", "call the bank"));
+
+    assertEquals(Collections.singletonList(new Note(first.getId(), "shopping", "buy milk")),
+        notesService.searchNotes(userId, "Milk", 10));
+    assertThrows(NotesException.class, () -> notesService.searchNotes(userId, " ", 10));
+    assertThrows(NotesException.class, () -> notesService.searchNotes(userId, "milk", 0));
+  }
+
+  @Test
+  public void testSearchNoteTitles() {
+    final IndexedNotesRepository notesRepository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    final NotesService notesService = new NotesService(notesRepository, notesRepository);
+    final String userId = "user 1";
+    final NoteId first = notesService.createNote(userId, new Note(null, "Quarterly report", "numbers"));
+    final NoteId second = notesService.createNote(userId, new Note(null, "Report draft", "words"));
+
+    assertEquals(Arrays.asList(new NoteSummary(second.getId(), "Report draft"),
+        new NoteSummary(first.getId(), "Quarterly report")), notesService.searchNoteTitles(userId, "report", 0, 10));
+    assertEquals(Collections.singletonList(new NoteSummary(second.getId(), "Report draft")),
+        notesService.searchNoteTitles(userId, "raport draft", 1, 10));
+    assertThrows(NotesException.class, () -> notesService.searchNoteTitles(userId, "", 0, 10));
+    assertThrows(NotesException.class, () -> notesService.searchNoteTitles(userId, "report", 3, 10));
+  }
+
+  @Test
+  public void testSuggestNoteTitles() {
+    final IndexedNotesRepository notesRepository = new IndexedNotesRepository(new ConcurrentInMemoryNotesRepository());
+    final NotesService notesService = new NotesService(notesRepository, notesRepository);
+    final String userId = "user 1";
+    final NoteId first = notesService.createNote(userId, new Note(null, "Travel plans", "flights"));
+    final NoteId second = notesService.createNote(userId, new Note(null, "Travel budget", "hotels"));
+    notesService.createNote(userId, new Note(null, "Groceries", "milk"));
+
+    assertEquals(Arrays.asList(new NoteSummary(second.getId(), "Travel budget"),
+        new NoteSummary(first.getId(), "Travel plans")), notesService.suggestNoteTitles(userId, "tr", 10));
+
+    notesService.deleteNote(userId, second.getId());
+    assertEquals(Collections.singletonList(new NoteSummary(first.getId(), "Travel plans")),
+        notesService.suggestNoteTitles(userId, "tr", 10));
+    assertThrows(NotesException.class, () -> notesService.suggestNoteTitles(userId, "", 10));
+    assertThrows(NotesException.class, () -> notesService.suggestNoteTitles(userId, "tr", 11));
+  }
 }
@@ -0,0 +1,114 @@
+package com.enotes.note.service.notes.util;
+
+import com.enotes.note.service.authentication.TokenInfo;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingTokenValidatorTest {
+
+  private static final long NOW = 1_000_000;
+
+  @Test
+  public void testVerifyingTokenOnce() {
+    final TokenValidator tokenValidator = validator("token", NOW + 60_000);
+    final CachingTokenValidator cachingTokenValidator = new CachingTokenValidator(tokenValidator, 10, 300_000,
+        clockAt(NOW));
+
+    final TokenInfo first = cachingTokenValidator.extractTokenInfo("token");
+    final TokenInfo second = cachingTokenValidator.extractTokenInfo("token");
+
+    Mockito.verify(tokenValidator, Mockito.times(1)).extractTokenInfo("token");
+    assertTrue(second.isValid());
+    assertEquals(first.getUserName(), second.getUserName());
+    assertEquals(first.getId(), second.getId());
+    assertEquals("token", second.getToken());
+    assertEquals(1, cachingTokenValidator.getHits());
+    assertEquals(1, cachingTokenValidator.getMisses());
+  }
+
+  @Test
+  public void testExpiringWithToken() {
+    final TokenValidator tokenValidator = validator("token", NOW + 60_000);
+    final Clock clock = clockAt(NOW);
+    final CachingTokenValidator cachingTokenValidator = new CachingTokenValidator(tokenValidator, 10, 300_000, clock);
+
+    cachingTokenValidator.extractTokenInfo("token");
+    Mockito.when(clock.millis()).thenReturn(NOW + 60_000);
+    Mockito.when(tokenValidator.extractTokenInfo("token")).thenReturn(new TokenInfo.Builder("token").build());
+
+    assertFalse(cachingTokenValidator.extractTokenInfo("token").isValid());
+    Mockito.verify(tokenValidator, Mockito.times(2)).extractTokenInfo("token");
+  }
+
+  @Test
+  public void testExpiringAfterMaxTtl() {
+    final TokenValidator tokenValidator = validator("token", NOW + 600_000);
+    final Clock clock = clockAt(NOW);
+    final CachingTokenValidator cachingTokenValidator = new CachingTokenValidator(tokenValidator, 10, 1_000, clock);
+
+    cachingTokenValidator.extractTokenInfo("token");
+    Mockito.when(clock.millis()).thenReturn(NOW + 1_000);
+    cachingTokenValidator.extractTokenInfo("token");
+
+    Mockito.verify(tokenValidator, Mockito.times(2)).extractTokenInfo("token");
+  }
+
+  @Test
+  public void testNotCachingInvalidTokens() {
+    final TokenValidator tokenValidator = Mockito.mock(TokenValidator.class);
+    Mockito.when(tokenValidator.extractTokenInfo("forged")).thenReturn(new TokenInfo.Builder("forged").build());
+    final CachingTokenValidator cachingTokenValidator = new CachingTokenValidator(tokenValidator, 10, 300_000,
+        clockAt(NOW));
+
+    cachingTokenValidator.extractTokenInfo("forged");
+    cachingTokenValidator.extractTokenInfo("forged");
+
+    Mockito.verify(tokenValidator, Mockito.times(2)).extractTokenInfo("forged");
+    assertEquals(0, cachingTokenValidator.getSize());
+  }
+
+  @Test
+  public void testBoundingSize() {
+    final TokenValidator tokenValidator = Mockito.mock(TokenValidator.class);
+    Mockito.when(tokenValidator.extractTokenInfo(Mockito.anyString()))
+        .thenAnswer(invocation -> validToken(invocation.getArgument(0), NOW + 60_000));
+    final CachingTokenValidator cachingTokenValidator = new CachingTokenValidator(tokenValidator, 20, 300_000,
+        clockAt(NOW));
+
+    for (int i = 0; i < 100; i++) {
+      cachingTokenValidator.extractTokenInfo("token " + i);
+      assertTrue(cachingTokenValidator.getSize() <= 20);
+    }
+  }
+
+  private static TokenValidator validator(final String token, final long expiration) {
+    final TokenValidator tokenValidator = Mockito.mock(TokenValidator.class);
+    Mockito.when(tokenValidator.extractTokenInfo(token)).thenReturn(validToken(token, expiration));
+
+    return tokenValidator;
+  }
+
+  private static TokenInfo validToken(final String token, final long expiration) {
+    return new TokenInfo.Builder(token)
+        .id("id")
+        .userName("john")
+        .expiration(new Date(expiration))
+        .isValid(true)
+        .build();
+  }
+
+  private static Clock clockAt(final long millis) {
+    final Clock clock = Mockito.mock(Clock.class);
+    Mockito.when(clock.millis()).thenReturn(millis);
+
+    return clock;
+  }
+}